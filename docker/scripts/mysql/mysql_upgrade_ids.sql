@@ -0,0 +1,118 @@
+--
+-- Integer surrogate keys and covering indexes for the AAN relation tables
+--
+-- The relation tables reference authors and documents by their varchar(255) name / file,
+-- so every join compares utf8mb4 strings. This script adds the numeric ids of authors_aan
+-- and documents_aan to the relation tables, fills them for existing rows, keeps them filled
+-- for new rows with triggers and adds one covering index per access path of AanDao,
+-- StatisticDao and JdbcGraphDao.
+--
+-- It is executed automatically after mysql_schema.sql (the file name sorts after it) when a new container is initialized.
+-- For an existing database run it once: mysql -uroot -p xpertfinder < mysql_upgrade_ids.sql
+--
+
+-- --------------------------------------------------------
+
+--
+-- Id columns
+--
+ALTER TABLE `publications_aan`
+  ADD COLUMN `author_id` bigint(20) DEFAULT NULL,
+  ADD COLUMN `document_id` bigint(20) DEFAULT NULL;
+
+ALTER TABLE `citations_aan`
+  ADD COLUMN `outgoing_id` bigint(20) DEFAULT NULL,
+  ADD COLUMN `incoming_id` bigint(20) DEFAULT NULL;
+
+ALTER TABLE `collaborations_aan2`
+  ADD COLUMN `author1_id` bigint(20) DEFAULT NULL,
+  ADD COLUMN `author2_id` bigint(20) DEFAULT NULL;
+
+-- --------------------------------------------------------
+
+--
+-- Fill the ids of existing rows
+--
+UPDATE `publications_aan` AS p
+  JOIN `authors_aan` AS a ON a.name = p.author
+  JOIN `documents_aan` AS d ON d.file = p.document
+  SET p.author_id = a.id, p.document_id = d.id;
+
+UPDATE `citations_aan` AS c
+  JOIN `documents_aan` AS o ON o.file = c.outgoing_file
+  JOIN `documents_aan` AS i ON i.file = c.incoming_file
+  SET c.outgoing_id = o.id, c.incoming_id = i.id;
+
+UPDATE `collaborations_aan2` AS c
+  JOIN `authors_aan` AS a1 ON a1.name = c.author1
+  JOIN `authors_aan` AS a2 ON a2.name = c.author2
+  SET c.author1_id = a1.id, c.author2_id = a2.id;
+
+-- --------------------------------------------------------
+
+--
+-- Indizes für die Tabelle `publications_aan`
+--
+-- (author, document) is part of every secondary index, as it is the primary key
+--
+ALTER TABLE `publications_aan`
+  -- document IN (...): streamPublications, findLocalCollaborations, findAuthorsForDocuments
+  ADD KEY `idx_publications_document` (`document`, `document_id`, `author_id`),
+  -- join by document id: findLocalCollaborations, findAllDocumentCitations, getCitationCountPerAuthor
+  ADD KEY `idx_publications_document_id` (`document_id`, `author_id`),
+  -- author id = ?: findPublicationsByAuthorId, findCitationsPerYearForAuthorId
+  ADD KEY `idx_publications_author_id` (`author_id`, `document_id`);
+
+--
+-- Indizes für die Tabelle `citations_aan`
+--
+-- incoming_file IN (...) of streamCitations is served by the primary key (incoming_file, outgoing_file)
+--
+ALTER TABLE `citations_aan`
+  -- join and group by cited document id: findAllDocumentCitations, getCitationCountPerAuthor, findCitationsPerYearForAuthorId
+  ADD KEY `idx_citations_incoming_id` (`incoming_id`, `outgoing_id`);
+
+--
+-- Indizes für die Tabelle `collaborations_aan2`
+--
+ALTER TABLE `collaborations_aan2`
+  -- author2 = ?: second half of findCollaborationsForAuthorByName
+  ADD KEY `idx_collaborations_author2` (`author2`, `author1`, `count`, `author1_id`),
+  ADD KEY `idx_collaborations_author1` (`author1`, `author2`, `count`, `author2_id`);
+
+--
+-- Indizes für die Tabelle `documents_aan`
+--
+ALTER TABLE `documents_aan`
+  -- file IN (...): findDocumentYear
+  ADD KEY `idx_documents_file_year` (`file`, `year`);
+
+-- --------------------------------------------------------
+
+--
+-- Keep the ids filled for rows inserted by the import functions
+--
+DELIMITER //
+
+CREATE TRIGGER publications_aan_ids BEFORE INSERT ON publications_aan
+  FOR EACH ROW
+  BEGIN
+    SET NEW.author_id = (SELECT a.id FROM authors_aan AS a WHERE a.name = NEW.author);
+    SET NEW.document_id = (SELECT d.id FROM documents_aan AS d WHERE d.file = NEW.document);
+  END //
+
+CREATE TRIGGER citations_aan_ids BEFORE INSERT ON citations_aan
+  FOR EACH ROW
+  BEGIN
+    SET NEW.outgoing_id = (SELECT d.id FROM documents_aan AS d WHERE d.file = NEW.outgoing_file);
+    SET NEW.incoming_id = (SELECT d.id FROM documents_aan AS d WHERE d.file = NEW.incoming_file);
+  END //
+
+CREATE TRIGGER collaborations_aan2_ids BEFORE INSERT ON collaborations_aan2
+  FOR EACH ROW
+  BEGIN
+    SET NEW.author1_id = (SELECT a.id FROM authors_aan AS a WHERE a.name = NEW.author1);
+    SET NEW.author2_id = (SELECT a.id FROM authors_aan AS a WHERE a.name = NEW.author2);
+  END //
+
+DELIMITER ;
@@ -0,0 +1,72 @@
+package de.uhh.lt.xpertfinder.benchmark;
+
+import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.GraphDao;
+import de.uhh.lt.xpertfinder.dao.SyntheticAanDao;
+import de.uhh.lt.xpertfinder.dao.SyntheticCorpus;
+import de.uhh.lt.xpertfinder.dao.SyntheticGraphDao;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+import de.uhh.lt.xpertfinder.service.ElasticSearchService;
+import de.uhh.lt.xpertfinder.service.SyntheticElasticSearchService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reproducible topic for the benchmarks, selected from a synthetic corpus generated with a fixed seed,
+ * so graphs can be built without MySQL and elasticsearch.
+ *
+ * The corpus has twice as many documents as the topic, the most frequent term of the corpus occurs in
+ * more than half of them, so the topic always has the requested number of documents.
+ */
+public class GraphFixture {
+
+    public static final String TOPIC = "language";
+
+    private final int documents;
+    private final SyntheticCorpus corpus;
+    private final AanDao aanDao;
+    private final GraphDao graphDao;
+    private final ElasticSearchService elasticSearch;
+
+    /**
+     * @param documents number of documents of the topic
+     */
+    public GraphFixture(int documents, long seed) {
+        this.documents = documents;
+        this.corpus = new SyntheticCorpus(documents * 2, seed);
+        this.aanDao = new SyntheticAanDao(corpus);
+        this.graphDao = new SyntheticGraphDao(corpus);
+        this.elasticSearch = new SyntheticElasticSearchService(corpus, "aan");
+    }
+
+    /**
+     * @return a topic with the graph for the given relations, set up like TopicService does
+     */
+    public ExpertTopic createTopic(boolean publication, boolean collaboration, boolean citation, GraphOptions options) {
+        ExpertTopic expertTopic = new ExpertTopic(elasticSearch, aanDao, graphDao);
+        expertTopic.setup(TOPIC, 0, 3000, false, documents, publication, collaboration, citation, options);
+        return expertTopic;
+    }
+
+    /**
+     * @return the documents of the topic, the most relevant first
+     */
+    public List<String> getTopicDocuments() {
+        List<String> found = elasticSearch.getDocumentIdsByTopicAAN(TOPIC).documents;
+        return new ArrayList<>(found.subList(0, Math.min(documents, found.size())));
+    }
+
+    public SyntheticCorpus getCorpus() {
+        return corpus;
+    }
+
+    public AanDao getAanDao() {
+        return aanDao;
+    }
+
+    public GraphDao getGraphDao() {
+        return graphDao;
+    }
+}
@@ -0,0 +1,115 @@
+package de.uhh.lt.xpertfinder.benchmark;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.methods.DefaultRequest;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.methods.GlobalHIndexMethod;
+import de.uhh.lt.xpertfinder.methods.InfiniteRandomFullMethod;
+import de.uhh.lt.xpertfinder.methods.InfiniteRandomMethod;
+import de.uhh.lt.xpertfinder.methods.InfiniteRandomWeightedMethod;
+import de.uhh.lt.xpertfinder.methods.KStepMethod;
+import de.uhh.lt.xpertfinder.methods.LocalCitationsMethod;
+import de.uhh.lt.xpertfinder.methods.LocalHIndexMethod;
+import de.uhh.lt.xpertfinder.methods.Model2Method;
+import de.uhh.lt.xpertfinder.methods.MonteCarloWalkMethod;
+import de.uhh.lt.xpertfinder.methods.PageRankMethod;
+import de.uhh.lt.xpertfinder.methods.PersonalizedPageRankMethod;
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+import de.uhh.lt.xpertfinder.service.TopicService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the expert finding methods on generated graphs of several sizes. The graph is built once per trial,
+ * so only the ranking is measured, with the default request of the method.
+ *
+ * Throughput and the latency distribution are reported per method and size, the gc profiler adds the
+ * allocation rate. The elastic, global citations and example methods are left out, they query elasticsearch
+ * or MySQL while ranking.
+ *
+ * Run with: mvn -P benchmark clean package exec:exec, or pass jmh arguments, e.g. -p method=pagerank
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodBenchmark {
+
+    private static final long SEED = 42;
+
+    static final Map<String, ExpertFindingMethod> METHODS = new LinkedHashMap<>();
+    static {
+        register(new Model2Method());
+        register(new KStepMethod());
+        register(new InfiniteRandomMethod());
+        register(new InfiniteRandomWeightedMethod());
+        register(new InfiniteRandomFullMethod());
+        register(new MonteCarloWalkMethod());
+        register(new PageRankMethod());
+        register(new PersonalizedPageRankMethod());
+        register(new LocalHIndexMethod());
+        register(new GlobalHIndexMethod());
+        register(new LocalCitationsMethod());
+    }
+
+    private static void register(ExpertFindingMethod method) {
+        METHODS.put(method.getId(), method);
+    }
+
+    @Param({ "100", "1000", "5000" })
+    public int documents;
+
+    @Param({ "model2", "kstep", "infiniterandom", "infiniterandomweighted", "inifiniterandomfull", "montecarlowalk", "pagerank", "personalizedpagerank", "localhindex", "globalhindex", "localcitations" })
+    public String method;
+
+    private ExpertFindingMethod<DefaultRequest> expertFindingMethod;
+    private DefaultRequest request;
+    private ExpertTopic expertTopic;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        expertFindingMethod = METHODS.get(method);
+        if(expertFindingMethod == null)
+            throw new IllegalArgumentException("Unknown method " + method + ", one of " + METHODS.keySet());
+
+        request = expertFindingMethod.getRequestObject();
+        request.setDocuments(documents);
+
+        GraphOptions options = TopicService.graphOptions(request, null);
+        expertTopic = new GraphFixture(documents, SEED).createTopic(expertFindingMethod.needsPublications(),
+                expertFindingMethod.needsCollaborations(), expertFindingMethod.needsCitations(), options != null ? options : new GraphOptions());
+    }
+
+    @Benchmark
+    public ExpertFindingResult findExperts() {
+        return expertFindingMethod.findExperts(request, expertTopic);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MethodBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
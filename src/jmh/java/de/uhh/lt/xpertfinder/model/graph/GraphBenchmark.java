@@ -0,0 +1,160 @@
+package de.uhh.lt.xpertfinder.model.graph;
+
+import de.uhh.lt.xpertfinder.benchmark.GraphFixture;
+import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.PrefetchedGraphDao;
+import de.uhh.lt.xpertfinder.model.d3js.Miserables;
+import de.uhh.lt.xpertfinder.service.HindexService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the stages of the graph construction on their own, before any ranking: the extraction of the
+ * relations, fillMap, the three weighting passes, the hindex and the visualization, and the whole
+ * construction for comparison.
+ *
+ * The rows of the synthetic topic are recorded once per trial in a PrefetchedGraphDao, so the stages read
+ * them from memory and the numbers do not include the queries. The stages run again on a graph built in
+ * the setup, they replace its edges and weights. Divide the time by documents / 1000 for the cost per
+ * 1000 documents.
+ *
+ * Run with: mvn -P benchmark clean package exec:exec -Djmh.args="-prof gc GraphBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+    private static final long SEED = 42;
+    private static final GraphOptions OPTIONS = new GraphOptions(true, true, true, true, true);
+
+    @Param({ "1000", "5000", "20000" })
+    public int documents;
+
+    private AanDao aanDao;
+    private PrefetchedGraphDao recorded;
+    private List<String> topDocuments;
+    private List<String[]> publications;
+    private Map<String, Integer> globalHindex;
+    private Graph graph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GraphFixture fixture = new GraphFixture(documents, SEED);
+        aanDao = fixture.getAanDao();
+        topDocuments = fixture.getTopicDocuments();
+
+        recorded = new PrefetchedGraphDao(fixture.getGraphDao());
+        recorded.prefetch(topDocuments, true, true);
+        publications = new ArrayList<>();
+        recorded.streamPublications(topDocuments, (author, document) -> publications.add(new String[] { author, document }));
+
+        // the first graph computes the global hindex of all authors, later ones reuse it like the TopicService does
+        graph = new Graph(aanDao, recorded, topDocuments, true, true, true, OPTIONS);
+        globalHindex = graph.getHindexService().getGlobalHindex();
+    }
+
+    @Benchmark
+    public Graph construction() {
+        return new Graph(aanDao, recorded, topDocuments, true, true, true, OPTIONS, globalHindex);
+    }
+
+    @Benchmark
+    public int extractPublications() {
+        graph.extractPublications();
+        return graph.getNumAuthDoc();
+    }
+
+    @Benchmark
+    public int extractCollaborations() {
+        graph.extractCollaborations();
+        return graph.getNumAuthAuth();
+    }
+
+    @Benchmark
+    public int extractCitations() {
+        graph.extractCitations();
+        return graph.getNumDocDoc();
+    }
+
+    @Benchmark
+    public Map<String, List<String>> fillMap() {
+        Map<String, List<String>> map = new HashMap<>();
+        for(String[] publication : publications)
+            graph.fillMap(map, publication[0], publication[1]);
+        return map;
+    }
+
+    @Benchmark
+    public Graph authorshipWeights() {
+        graph.calculateAuthorshipWeights(true);
+        return graph;
+    }
+
+    @Benchmark
+    public Graph citationWeights() {
+        graph.calculateCitationWeights(true, true);
+        return graph;
+    }
+
+    @Benchmark
+    public Graph collaborationWeights() {
+        graph.calculateCollaborationWeights(true, true);
+        return graph;
+    }
+
+    @Benchmark
+    public HindexService hindex() {
+        return new HindexService(aanDao, graph, globalHindex);
+    }
+
+    /**
+     * With the descriptions and sizes the GraphController uses, without looking up the titles.
+     */
+    @Benchmark
+    public Miserables visualizeGraph() {
+        return graph.visualizeGraph(
+                author -> author,
+                document -> document,
+                (author, doc) -> "pub",
+                (doc1, doc2) -> "cit",
+                (author1, author2) -> "col",
+                (doc, author) -> "aut",
+                author -> 5.0 + 10d * graph.getOutDegAuthor(author) / documents,
+                document -> 5.0 + 10d * graph.getInDegDocument(document) / documents,
+                (author, doc) -> 2.0,
+                (doc1, doc2) -> 2.0,
+                (author1, author2) -> 2.0,
+                (doc, author) -> 2.0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GraphBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package de.uhh.lt.xpertfinder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.uhh.lt.xpertfinder.model.api.EvaluationQuery;
+import de.uhh.lt.xpertfinder.model.api.EvaluationResult;
+import de.uhh.lt.xpertfinder.service.EvaluationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the evaluation of evaluation.query and exits. Every run is written to evaluation.output as one JSON
+ * object per line as soon as it is finished, the summaries of the configurations follow at the end.
+ *
+ * Start with: java -jar xpertfinder.jar --spring.profiles.active=evaluation --evaluation.query=query.json
+ */
+@Component
+@Profile("evaluation")
+public class EvaluationRunner implements CommandLineRunner {
+
+    private static Logger logger = LoggerFactory.getLogger(EvaluationRunner.class);
+
+    @Autowired
+    private EvaluationService evaluationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("${evaluation.query}")
+    private String queryFile;
+
+    @Value("${evaluation.output:evaluation-results.jsonl}")
+    private String outputFile;
+
+    @Override
+    public void run(String... args) throws Exception {
+        int exitCode = 0;
+        try {
+            evaluate();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Evaluation failed", e);
+            exitCode = 1;
+        }
+
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private void evaluate() throws IOException {
+        EvaluationQuery query = objectMapper.readValue(Paths.get(queryFile).toFile(), EvaluationQuery.class);
+        long time = System.nanoTime();
+
+        List<EvaluationResult> summaries;
+        try(BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            summaries = evaluationService.evaluate(query, run -> write(writer, run));
+            for(EvaluationResult summary : summaries)
+                write(writer, summary);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logger.info("Evaluated " + summaries.size() + " configurations after " + (System.nanoTime() - time) / 1000000 + " milliseconds, results in " + outputFile);
+        for(EvaluationResult summary : summaries) {
+            logger.info(summary.getMethod() + " " + summary.getRequest() + ": " + summary.getRuns() + " runs, " + format(summary.getMillis()) + " ms" + (summary.getMetrics() != null ? ", " + format(summary.getMetrics()) : ""));
+        }
+    }
+
+    private void write(BufferedWriter writer, EvaluationResult result) {
+        try {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String format(Double value) {
+        return value != null ? String.format("%.3f", value) : "-";
+    }
+
+    private static String format(Map<String, Double> metrics) {
+        StringBuilder text = new StringBuilder();
+        for(Map.Entry<String, Double> metric : metrics.entrySet()) {
+            if(text.length() > 0)
+                text.append(", ");
+            text.append(metric.getKey()).append(" ").append(format(metric.getValue()));
+        }
+        return text.toString();
+    }
+}
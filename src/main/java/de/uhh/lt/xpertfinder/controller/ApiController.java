@@ -0,0 +1,152 @@
+package de.uhh.lt.xpertfinder.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.uhh.lt.xpertfinder.finder.StageMetrics;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.model.api.BatchQuery;
+import de.uhh.lt.xpertfinder.model.api.LaneStatus;
+import de.uhh.lt.xpertfinder.model.api.MethodCost;
+import de.uhh.lt.xpertfinder.model.api.MethodDescription;
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import de.uhh.lt.xpertfinder.model.api.RankingResult;
+import de.uhh.lt.xpertfinder.model.api.StageStatus;
+import de.uhh.lt.xpertfinder.service.AdmissionService;
+import de.uhh.lt.xpertfinder.service.BatchRankingService;
+import de.uhh.lt.xpertfinder.service.MethodAccounting;
+import de.uhh.lt.xpertfinder.service.MethodService;
+import de.uhh.lt.xpertfinder.service.QueryLog;
+import de.uhh.lt.xpertfinder.service.RankingService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stateless JSON access to the expert finder. Unlike the pages, nothing is kept in the session,
+ * every request carries the complete query.
+ */
+@RestController
+@RequestMapping("/api")
+@Api(tags = "experts", description = "Rank experts and documents for a topic")
+public class ApiController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MethodService methodService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private BatchRankingService batchRankingService;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Autowired
+    private MethodAccounting methodAccounting;
+
+    @Autowired
+    private QueryLog queryLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @ApiOperation("Load of the admission lanes for topic construction and method execution, with queue wait statistics")
+    @GetMapping("/admission")
+    public List<LaneStatus> admission() {
+        return admissionService.getStatus();
+    }
+
+    @ApiOperation("Latency and size statistics of the search stages per method, e.g. retrieval, graph queries, iterations")
+    @GetMapping("/metrics")
+    public List<StageStatus> metrics() {
+        return StageMetrics.get().getStatus();
+    }
+
+    @ApiOperation("List the expert finding methods with their default request objects")
+    @GetMapping("/methods")
+    public List<MethodDescription> methods() {
+        List<MethodDescription> result = new ArrayList<>();
+        for(ExpertFindingMethod method : methodService.getAllExpertFindingMethods()) {
+            result.add(new MethodDescription(method.getId(), method.getName(), method.getRequestObject()));
+        }
+        return result;
+    }
+
+    @ApiOperation("Mean wall time, cpu time, allocation, iterations and graph size of the executions of every method that ran")
+    @GetMapping("/methods/cost")
+    public List<MethodCost> methodCost() {
+        return methodAccounting.getStatus();
+    }
+
+    @ApiOperation("Rank experts and documents for a topic with one method")
+    @PostMapping("/experts")
+    public RankingResult experts(@RequestBody RankingQuery query) {
+        queryLog.record("POST /api/experts", query);
+        return rankingService.rank(query);
+    }
+
+    @ApiOperation("Rank experts and documents for a topic with the default parameters of a method")
+    @GetMapping("/experts")
+    public RankingResult experts(@ApiParam(value = "topic, phrases are separated by +", required = true) @RequestParam("topic") String topic,
+                                 @ApiParam("method id, see /api/methods") @RequestParam(value = "method", defaultValue = "inifiniterandomfull") String method,
+                                 @RequestParam(value = "yearFrom", defaultValue = "1965") int yearFrom,
+                                 @RequestParam(value = "yearTo", defaultValue = "2016") int yearTo,
+                                 @RequestParam(value = "includeTitle", defaultValue = "false") boolean includeTitle,
+                                 @ApiParam("number of top documents the graph is built from") @RequestParam(value = "documents", required = false) Integer documents,
+                                 @ApiParam("number of returned experts and documents, <= 0 for all") @RequestParam(value = "results", required = false) Integer results) {
+        RankingQuery query = new RankingQuery();
+        query.setTopic(topic);
+        query.setMethod(method);
+        query.setYearFrom(yearFrom);
+        query.setYearTo(yearTo);
+        query.setIncludeTitle(includeTitle);
+
+        Map<String, Object> request = new HashMap<>();
+        if(documents != null)
+            request.put("documents", documents);
+        if(results != null)
+            request.put("results", results);
+        query.setRequest(request);
+
+        queryLog.record("GET /api/experts", query);
+        return rankingService.rank(query);
+    }
+
+    @ApiOperation(value = "Rank every topic with every method configuration", notes = "The results are streamed as newline delimited JSON in the order they are finished, the index field gives the position of topic and method in the batch")
+    @PostMapping(value = "/experts/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> batch(@RequestBody BatchQuery query) {
+        BatchRankingService.Batch batch = batchRankingService.createBatch(query);
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                batchRankingService.rank(batch, result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+}
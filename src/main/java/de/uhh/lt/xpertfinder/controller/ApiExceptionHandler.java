@@ -0,0 +1,61 @@
+package de.uhh.lt.xpertfinder.controller;
+
+import com.google.gson.JsonParseException;
+import de.uhh.lt.xpertfinder.finder.DeadlineExceededException;
+import de.uhh.lt.xpertfinder.service.AdmissionRejectedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Turns the exceptions of the api into JSON errors with a matching status.
+ */
+@RestControllerAdvice(assignableTypes = {ApiController.class, JobController.class})
+public class ApiExceptionHandler {
+
+    static final String RETRY_AFTER = "5";
+
+    // unknown methods, missing topics and request objects gson cannot parse
+    @ExceptionHandler({IllegalArgumentException.class, JsonParseException.class})
+    public ResponseEntity<Map<String, String>> badRequest(RuntimeException e) {
+        return error(HttpStatus.BAD_REQUEST, e);
+    }
+
+    // the queue of background jobs is full
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> unavailable(RejectedExecutionException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e);
+    }
+
+    // too many searches are running or waiting
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Map<String, String>> busy(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    // the budget of the query ran out before the search could return anything
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Map<String, String>> timeout(DeadlineExceededException e) {
+        return error(HttpStatus.GATEWAY_TIMEOUT, e);
+    }
+
+    // the database stopped a query at the timeout the DeadlineQueryTimeoutInterceptor set from the budget
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> queryTimeout(QueryTimeoutException e) {
+        return timeout(new DeadlineExceededException("Deadline exceeded while querying the database"));
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : status.getReasonPhrase();
+        return new ResponseEntity<>(Collections.singletonMap("error", message), status);
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import de.uhh.lt.xpertfinder.finder.DocumentResult;
 import de.uhh.lt.xpertfinder.finder.ExpertQuery;
 import de.uhh.lt.xpertfinder.finder.ExpertRetrievalResult;
+import de.uhh.lt.xpertfinder.finder.Ranking;
 import de.uhh.lt.xpertfinder.methods.DefaultRequest;
 import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
 import de.uhh.lt.xpertfinder.model.graph.Collaboration;
@@ -26,8 +27,6 @@ import org.thymeleaf.util.StringUtils;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalDouble;
-import java.util.stream.Collectors;
 
 @Controller
 @SessionAttributes(value = {"expertTopic", "expertQuery"})
@@ -46,10 +45,10 @@ public class GraphController extends SessionController {
         if(expertTopic.isInitialized() && expertTopic.isFoundResult()) {
             showGraph(expertTopic, expertQuery, model);
         } else if (expertTopic.isInitialized() && !expertTopic.isFoundResult()) {
-            System.out.println("no results!");
+            logger.debug("No results for the query '" + expertQuery.getTopic() + "'");
             model.addAttribute("noresult", "No results for the query '" + expertQuery.getTopic() + "' :(");
         } else {
-            System.out.println("not initialized!");
+            logger.debug("Topic is not initialized");
         }
 
         model.addAttribute("expertfindingmethods", methodService.getAllExpertFindingMethods());
@@ -78,15 +77,13 @@ public class GraphController extends SessionController {
 
         expertRetrievalResult = expertRetrieval.findExperts(expertTopic, expertQuery.getMethod()[0], defaultRequest);
 
-        Map<String, Double> expertRelevanceMap = expertRetrievalResult.getExpertResultList();
-        Map<String, Double> documentRelevanceMap = expertRetrievalResult.getDocumentResultList();
+        Ranking expertRanking = expertRetrievalResult.getExpertRanking();
+        Ranking documentRanking = expertRetrievalResult.getDocumentRanking();
 
-        OptionalDouble mer = expertRelevanceMap.entrySet().stream().mapToDouble(Map.Entry::getValue).max();
-        OptionalDouble mdr = documentRelevanceMap.entrySet().stream().mapToDouble(Map.Entry::getValue).max();
-        double maxExpertRelevance = mer.getAsDouble();
-        double maxDocumentRelevance = mdr.getAsDouble();
+        double maxExpertRelevance = expertRanking.getMaxScore();
+        double maxDocumentRelevance = documentRanking.getMaxScore();
 
-        List<String> fileList = documentRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        List<String> fileList = documentRanking.getTopNodes(0);
         // get document information
         List<Object[]> documentInformationList = aanDao.findDocumentInformationByIds(fileList);
         Map<String, DocumentResult> documentInformationMap = new HashMap<>();
@@ -145,8 +142,8 @@ public class GraphController extends SessionController {
                 /*Cit Desc */ (doc1, doc2) -> "cit",
                 /*Col Desc */ (author1, author2) -> "col",
                 /*Aut Desc */ (doc, author) -> "aut",
-                /*Aut Size */ author -> 5.0 + 10d * (expertRelevanceMap.getOrDefault(author, 0d) / maxExpertRelevance),
-                /*Doc Size */ document -> 5.0 + 10d * (documentRelevanceMap.getOrDefault(document, 0d) / maxDocumentRelevance),
+                /*Aut Size */ author -> 5.0 + 10d * (expertRanking.getScore(author, 0d) / maxExpertRelevance),
+                /*Doc Size */ document -> 5.0 + 10d * (documentRanking.getScore(document, 0d) / maxDocumentRelevance),
                 /*Pub Size */ (author, doc) -> 2.0,
                 /*Cit Size */ (doc1, doc2) -> 2.0,
                 /*Col Size */ (author1, author2) -> 2.0,
@@ -0,0 +1,129 @@
+package de.uhh.lt.xpertfinder.controller;
+
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import de.uhh.lt.xpertfinder.model.api.SearchJob;
+import de.uhh.lt.xpertfinder.service.QueryLog;
+import de.uhh.lt.xpertfinder.service.SearchJobService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Background searches: a submitted query returns a job at once, its progress can be polled or
+ * followed with server-sent events.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@Api(tags = "jobs", description = "Run long searches in the background")
+public class JobController {
+
+    private static Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    // iteration events are sent at most every EVENT_INTERVAL milliseconds, stage changes always
+    private static final long EVENT_INTERVAL = 250;
+
+    @Autowired
+    private SearchJobService searchJobService;
+
+    @Autowired
+    private QueryLog queryLog;
+
+    @ApiOperation("Start a search in the background, an equal running or finished search is returned instead of starting a new one")
+    @PostMapping
+    public ResponseEntity<SearchJob> submit(@RequestBody RankingQuery query) {
+        queryLog.record("POST /api/jobs", query);
+        SearchJob job = searchJobService.submit(query);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @ApiOperation("Stage, iteration and, once finished, the result of a job")
+    @GetMapping("/{id}")
+    public ResponseEntity<SearchJob> job(@PathVariable("id") String id) {
+        SearchJob job = searchJobService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @ApiOperation("Cancel a waiting or running job, it fails at the next point the search checks its deadline")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<SearchJob> cancel(@PathVariable("id") String id) {
+        SearchJob job = searchJobService.cancel(id);
+        return job != null ? ResponseEntity.accepted().body(job) : ResponseEntity.notFound().build();
+    }
+
+    @ApiOperation(value = "Follow a job with server-sent events", notes = "progress events carry the job without result, the final done or failed event carries the finished job")
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable("id") String id) {
+        SearchJob job = searchJobService.getJob(id);
+        if(job == null)
+            return ResponseEntity.notFound().build();
+
+        SseEmitter emitter = new SseEmitter();
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicLong lastEvent = new AtomicLong();
+        AtomicReference<Object> lastStage = new AtomicReference<>();
+
+        Consumer<SearchJob> listener = new Consumer<SearchJob>() {
+            @Override
+            public void accept(SearchJob current) {
+                if(closed.get())
+                    return;
+
+                if(current.isDone()) {
+                    if(closed.compareAndSet(false, true)) {
+                        current.removeListener(this);
+                        send(emitter, current.getError() != null ? "failed" : "done", current);
+                        emitter.complete();
+                    }
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                if(current.getStage() == lastStage.getAndSet(current.getStage()) && now - lastEvent.get() < EVENT_INTERVAL)
+                    return;
+
+                lastEvent.set(now);
+                if(!send(emitter, "progress", current)) {
+                    closed.set(true);
+                    current.removeListener(this);
+                }
+            }
+        };
+
+        Runnable close = () -> {
+            closed.set(true);
+            job.removeListener(listener);
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+
+        job.addListener(listener);
+        // report the current state, finished jobs are completed right away
+        listener.accept(job);
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static boolean send(SseEmitter emitter, String name, SearchJob job) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(job, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Could not send event of job " + job.getId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import de.uhh.lt.xpertfinder.finder.ExpertQuery;
 import de.uhh.lt.xpertfinder.methods.DefaultRequest;
 import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
-import de.uhh.lt.xpertfinder.methods.InfiniteRandomWeightedMethod;
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import de.uhh.lt.xpertfinder.service.AuthorNameIndex;
 import de.uhh.lt.xpertfinder.service.MethodService;
+import de.uhh.lt.xpertfinder.service.QueryLog;
+import de.uhh.lt.xpertfinder.service.TopicService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.view.RedirectView;
 
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @SessionAttributes(value = {"expertTopic", "expertQuery"})
@@ -31,18 +35,27 @@ public class SearchController extends SessionController {
     @Autowired
     MethodService methodService;
 
+    @Autowired
+    AuthorNameIndex authorNameIndex;
+
+    @Autowired
+    TopicService topicService;
+
+    @Autowired
+    QueryLog queryLog;
+
     private Gson gson = new Gson();
 
     @PostMapping("/postExpertQuery")
     public RedirectView postExpertQuery(@RequestParam("redirectTo") String redirectTo, @ModelAttribute("expertQuery") ExpertQuery expertQuery, @ModelAttribute("expertTopic") ExpertTopic expertTopic, RedirectAttributes attributes) {
 
         // handle the special case, that the topic exactly matches one author name
-        List<Long> ids = aanDao.checkExactAuthorMatch(expertTopic.getTopic());
+        List<Long> ids = authorNameIndex.findAuthorsContaining(expertQuery.getTopic());
         if(ids != null && ids.size() == 1) {
             return new RedirectView("/profile/"+ids.get(0), true);
         }
 
-        expertTopic = createExpertTopic(expertQuery, expertTopic);
+        expertTopic = createExpertTopic("POST /postExpertQuery", expertQuery, expertTopic);
 
         attributes.addFlashAttribute("expertTopic", expertTopic);
         attributes.addFlashAttribute("expertQuery", expertQuery);
@@ -52,9 +65,9 @@ public class SearchController extends SessionController {
 
     @GetMapping("/searchTopic/{topic}")
     public ModelAndView searchTopic(@PathVariable("topic") String topic, @ModelAttribute("expertQuery") ExpertQuery expertQuery, @ModelAttribute("expertTopic") ExpertTopic expertTopic, RedirectAttributes attributes) {
-        expertTopic.setTopic(topic);
+        expertQuery.setTopic(topic);
 
-        expertTopic = createExpertTopic(expertQuery, expertTopic);
+        expertTopic = createExpertTopic("GET /searchTopic", expertQuery, expertTopic);
 
         attributes.addFlashAttribute("expertTopic", expertTopic);
         attributes.addFlashAttribute("expertQuery", expertQuery);
@@ -62,21 +75,17 @@ public class SearchController extends SessionController {
         return new ModelAndView("redirect:/ui");
     }
 
-    private ExpertTopic createExpertTopic(ExpertQuery expertQuery, ExpertTopic expertTopic) {
+    private ExpertTopic createExpertTopic(String endpoint, ExpertQuery expertQuery, ExpertTopic expertTopic) {
         logger.debug("Start creating TOPIC");
         long time = System.nanoTime();
 
         ExpertFindingMethod method = methodService.getExpertFindingMethodById(expertQuery.getMethod()[0]);
         if(method != null) {
-            expertTopic = new ExpertTopic(elasticSearch, restService, aanDao);
-            // TODO: THIS IS NOT NICE; FIX IT!
-            if(method instanceof InfiniteRandomWeightedMethod) {
-                InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest request = gson.fromJson(expertQuery.getMethodParamMap().get(0).get(expertQuery.getMethod()[0]), InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest.class);
-                expertTopic.setup(expertQuery.getTopic(), expertQuery.getYearFrom(), expertQuery.getYearTo(), expertQuery.isIncludeTitle(), request.getDocuments(), method.needsPublications(), method.needsCollaborations(), method.needsCitations(), request.getOptions());
-            } else {
-                DefaultRequest request = gson.fromJson(expertQuery.getMethodParamMap().get(0).get(expertQuery.getMethod()[0]), DefaultRequest.class);
-                expertTopic.setup(expertQuery.getTopic(), expertQuery.getYearFrom(), expertQuery.getYearTo(), expertQuery.isIncludeTitle(), request.getDocuments(), method.needsPublications(), method.needsCollaborations(), method.needsCitations(), expertQuery.getOptions());
-            }
+            String params = expertQuery.getMethodParamMap().get(0).get(expertQuery.getMethod()[0]);
+            DefaultRequest request = gson.fromJson(params, method.getRequestObject().getClass());
+            if(queryLog.isEnabled())
+                queryLog.record(endpoint, toRankingQuery(expertQuery, params));
+            expertTopic = topicService.getExpertTopic(expertQuery.getTopic(), expertQuery.getYearFrom(), expertQuery.getYearTo(), expertQuery.isIncludeTitle(), method, request, TopicService.graphOptions(request, expertQuery.getOptions()));
             logger.debug("Finished creating TOPIC after " + (System.nanoTime() - time) + " nanoseconds");
         } else {
             logger.debug("FAILED creating TOPIC: Method is unknown!");
@@ -84,4 +93,20 @@ public class SearchController extends SessionController {
 
         return expertTopic;
     }
+
+    /**
+     * @return the api query that searches like the form, with the parameters of the first method
+     */
+    @SuppressWarnings("unchecked")
+    private RankingQuery toRankingQuery(ExpertQuery expertQuery, String params) {
+        RankingQuery query = new RankingQuery();
+        query.setTopic(expertQuery.getTopic());
+        query.setYearFrom(expertQuery.getYearFrom());
+        query.setYearTo(expertQuery.getYearTo());
+        query.setIncludeTitle(expertQuery.isIncludeTitle());
+        query.setMethod(expertQuery.getMethod()[0]);
+        query.setRequest((Map<String, Object>) gson.fromJson(params, Map.class));
+        query.setOptions(expertQuery.getOptions());
+        return query;
+    }
 }
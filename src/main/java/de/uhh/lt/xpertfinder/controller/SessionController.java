@@ -1,13 +1,21 @@
 package de.uhh.lt.xpertfinder.controller;
 
 import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.GraphDao;
 import de.uhh.lt.xpertfinder.finder.ExpertQuery;
+import de.uhh.lt.xpertfinder.service.AdmissionRejectedException;
 import de.uhh.lt.xpertfinder.service.ElasticSearchService;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
 import de.uhh.lt.xpertfinder.service.MethodService;
-import de.uhh.lt.xpertfinder.service.RestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.SessionAttributes;
 
@@ -19,17 +27,31 @@ public class SessionController {
     protected ElasticSearchService elasticSearch;
 
     @Autowired
-    protected RestService restService;
+    protected AanDao aanDao;
 
     @Autowired
-    protected AanDao aanDao;
+    protected GraphDao graphDao;
 
     @Autowired
     MethodService methodService;
 
+    // expert topics are shared through the TopicService, request parameters must not change them
+    @InitBinder("expertTopic")
+    public void initExpertTopicBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("*");
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> busy(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ApiExceptionHandler.RETRY_AFTER)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("The expert finder is busy, please try again in a moment.");
+    }
+
     @ModelAttribute("expertTopic")
     public ExpertTopic expertTopic() {
-        return new ExpertTopic(elasticSearch, restService, aanDao);
+        return new ExpertTopic(elasticSearch, aanDao, graphDao);
     }
 
     @ModelAttribute("expertQuery")
@@ -0,0 +1,27 @@
+package de.uhh.lt.xpertfinder.controller;
+
+import de.uhh.lt.xpertfinder.model.suggest.Suggestion;
+import de.uhh.lt.xpertfinder.service.SuggestionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class SuggestionController {
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Value("${suggest.limit:10}")
+    private int maxLimit;
+
+    @GetMapping("/api/suggest")
+    public List<Suggestion> suggest(@RequestParam("q") String prefix, @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limit == null ? maxLimit : Math.max(0, Math.min(limit, maxLimit));
+        return suggestionService.suggest(prefix, size);
+    }
+}
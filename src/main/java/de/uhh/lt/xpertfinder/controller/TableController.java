@@ -4,9 +4,12 @@ import com.google.gson.Gson;
 import de.uhh.lt.xpertfinder.finder.*;
 import de.uhh.lt.xpertfinder.methods.DefaultRequest;
 import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.model.api.MethodCost;
 import de.uhh.lt.xpertfinder.model.graph.Collaboration;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,6 +28,8 @@ import java.util.stream.Collectors;
 @SessionAttributes(value = {"expertTopic", "expertQuery"})
 public class TableController extends SessionController {
 
+    private static Logger logger = LoggerFactory.getLogger(TableController.class);
+
     @Autowired
     ExpertRetrieval expertRetrieval;
 
@@ -34,13 +39,20 @@ public class TableController extends SessionController {
     @Autowired
     private MethodService methodService;
 
+    @Autowired
+    private TopicService topicService;
+
+    @Autowired
+    private MethodAccounting methodAccounting;
+
     @RequestMapping(value = "/table", method = RequestMethod.GET)
     public String table(@ModelAttribute("expertQuery") ExpertQuery expertQuery, @ModelAttribute("expertTopic") ExpertTopic expertTopic, BindingResult errors, Model model) {
 
         if(expertTopic.isInitialized() && expertTopic.isFoundResult()) {
-            List<List<ExpertResult>> results = evaluateExpertRetrieval(expertQuery, expertTopic);
+            List<MethodUsage> usages = new ArrayList<>();
+            List<List<ExpertResult>> results = evaluateExpertRetrieval(expertQuery, expertTopic, usages);
             if(results.isEmpty()) {
-                System.out.println("no results!");
+                logger.debug("No results for the query '" + expertQuery.getTopic() + "'");
                 model.addAttribute("noresult", "No results for the query '" + expertQuery.getTopic() + "' :(");
             } else {
                 model.addAttribute("method1name", methodService.getExpertFindingMethodById(expertQuery.getMethod()[0]).getName());
@@ -48,19 +60,29 @@ public class TableController extends SessionController {
                 model.addAttribute("method3name", methodService.getExpertFindingMethodById(expertQuery.getMethod()[2]).getName());
                 model.addAttribute("method4name", methodService.getExpertFindingMethodById(expertQuery.getMethod()[3]).getName());
                 model.addAttribute("result", results);
+
+                // resources of this run and the mean over all runs of every method, in the order of the columns
+                List<MethodCost> costs = new ArrayList<>();
+                for(MethodUsage usage : usages)
+                    costs.add(usage != null ? methodAccounting.getCost(usage.getMethod()) : null);
+                model.addAttribute("usage", usages);
+                model.addAttribute("cost", costs);
             }
         } else if (expertTopic.isInitialized() && !expertTopic.isFoundResult()) {
-            System.out.println("no results!");
+            logger.debug("No results for the query '" + expertQuery.getTopic() + "'");
             model.addAttribute("noresult", "No results for the query '" + expertQuery.getTopic() + "' :(");
         } else {
-            System.out.println("not initialized!");
+            logger.debug("Topic is not initialized");
         }
 
         model.addAttribute("expertfindingmethods", methodService.getAllExpertFindingMethods());
         return "table";
     }
 
-    private List<List<ExpertResult>> evaluateExpertRetrieval(ExpertQuery eq, ExpertTopic et) {
+    /**
+     * @param usages receives the resources every method used, in the order of the results
+     */
+    private List<List<ExpertResult>> evaluateExpertRetrieval(ExpertQuery eq, ExpertTopic et, List<MethodUsage> usages) {
         List<List<ExpertResult>> results = new ArrayList<>();
 
         Gson gson = new Gson();
@@ -74,31 +96,24 @@ public class TableController extends SessionController {
             if(i == 0) {
                 expertTopic = et;
             } else {
-                expertTopic = new ExpertTopic(elasticSearch, restService, aanDao);
-                expertTopic.setup(eq.getTopic(), eq.getYearFrom(), eq.getYearTo(), eq.isIncludeTitle(), defaultRequest.getDocuments(), method.needsPublications(), method.needsCollaborations(), method.needsCitations(), eq.getOptions());
-
+                expertTopic = topicService.getExpertTopic(eq.getTopic(), eq.getYearFrom(), eq.getYearTo(), eq.isIncludeTitle(), method, defaultRequest, eq.getOptions());
             }
             if(!expertTopic.isFoundResult()) {
                 continue;
             }
-            results.add(createExpertResult(expertRetrieval.findExperts(expertTopic, eq.getMethod()[i], defaultRequest), defaultRequest.getResults(), expertTopic.getGraph()));
+            ExpertRetrievalResult retrievalResult = expertRetrieval.findExperts(expertTopic, eq.getMethod()[i], defaultRequest);
+            results.add(createExpertResult(retrievalResult, defaultRequest.getResults(), expertTopic.getGraph()));
+            usages.add(retrievalResult.getUsage());
         }
 
         return results;
     }
 
     private List<ExpertResult> createExpertResult(ExpertRetrievalResult expertRetrieval, int resultCount, Graph graph) {
-        Map<String, Double> authorRelevanceMap = expertRetrieval.getExpertResultList();
-        Map<String, Double> documentRelevanceMap = expertRetrieval.getDocumentResultList();
-        // create author list of author <-> relevance map
-        // and reduce list size to result Count
+        Ranking documentRanking = expertRetrieval.getDocumentRanking();
+        // create author list of the best result count authors
         // treat result count <= 0 in a special way => print all results!
-        List<String> authorList;
-        if (resultCount > 0) {
-            authorList = authorRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList()).subList(0, Math.min(authorRelevanceMap.size(), resultCount));
-        } else {
-            authorList = authorRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList());
-        }
+        List<String> authorList = expertRetrieval.getExpertRanking().getTopNodes(resultCount);
 
 
         // create list of author ids
@@ -157,7 +172,7 @@ public class TableController extends SessionController {
             List<Object[]> documentInformationList = aanDao.findDocumentInformationByIds(fileList);
             List<DocumentResult> documents = new ArrayList<>();
             for(Object[] obj : documentInformationList) {
-                documents.add(new DocumentResult((String) obj[1], (String) obj[0], documentRelevanceMap != null ? documentRelevanceMap.getOrDefault((String) obj[0], 0d) : 0, (String) obj[3], (int) obj[2]));
+                documents.add(new DocumentResult((String) obj[1], (String) obj[0], documentRanking.getScore((String) obj[0], 0d), (String) obj[3], (int) obj[2]));
             }
             // TODO: sort documents
             er.setDocuments(documents);
@@ -57,10 +57,10 @@ public class UIController extends SessionController {
         if(expertTopic.isInitialized() && expertTopic.isFoundResult()) {
             showUi(expertTopic, expertQuery, model);
         } else if (expertTopic.isInitialized() && !expertTopic.isFoundResult()) {
-            System.out.println("no results!");
+            logger.debug("No results for the query '" + expertQuery.getTopic() + "'");
             model.addAttribute("noresult", "No results for the query '" + expertQuery.getTopic() + "' :(");
         } else {
-            System.out.println("not initialized!");
+            logger.debug("Topic is not initialized");
         }
 
         model.addAttribute("expertfindingmethods", methodService.getAllExpertFindingMethods());
@@ -94,15 +94,11 @@ public class UIController extends SessionController {
 
         Graph graph = expertTopic.getGraph();
 
-        // print some statistics
-        System.out.println("Authors:" + graph.getAuthors().size());
-        System.out.println("Documents:" + graph.getDocs().size());
-        System.out.println("Expert Results:" + expertRetrievalResult.getExpertResultList().size());
-        System.out.println("Document Results:" + expertRetrievalResult.getDocumentResultList().size());
-
         // feed results with additional information
-        List<DocumentResult> documentResults = createDocumentResult(expertRetrievalResult.getDocumentResultList(), defaultRequest.getResults());
-        List<ExpertResult> expertResults = createExpertResult(expertRetrievalResult.getExpertResultList(), expertRetrievalResult.getDocumentResultList(), defaultRequest.getResults(), graph);
+        StageMetrics.Sample enrichment = StageMetrics.get().start(StageMetrics.Stage.ENRICHMENT);
+        List<DocumentResult> documentResults = createDocumentResult(expertRetrievalResult.getDocumentRanking(), defaultRequest.getResults());
+        List<ExpertResult> expertResults = createExpertResult(expertRetrievalResult.getExpertRanking(), expertRetrievalResult.getDocumentRanking(), defaultRequest.getResults(), graph);
+        enrichment.stop(documentResults.size() + expertResults.size());
 
         // add experts and documents to the view
         model.addAttribute("result", expertResults);
@@ -119,17 +115,10 @@ public class UIController extends SessionController {
         logger.debug("Finished showing UI after " + (System.nanoTime() - time) + " nanoseconds");
     }
 
-    private List<ExpertResult> createExpertResult(Map<String, Double> authorRelevanceMap, Map<String, Double> documentRelevanceMap, int resultCount, Graph graph) {
-        // create author list of author <-> relevance map
-        // and reduce list size to result Count
-
+    private List<ExpertResult> createExpertResult(Ranking authorRanking, Ranking documentRanking, int resultCount, Graph graph) {
+        // create author list of the best result count authors
         // treat result count <= 0 in a special way => print all results!
-        List<String> authorList;
-        if (resultCount > 0) {
-            authorList = authorRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList()).subList(0, Math.min(authorRelevanceMap.size(), resultCount));
-        } else {
-            authorList = authorRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList());
-        }
+        List<String> authorList = authorRanking.getTopNodes(resultCount);
 
         // create list of author ids
         List<Long> authorIds = authorList.stream().map(result -> graph.getAuthorId(result)).collect(Collectors.toList());
@@ -160,10 +149,11 @@ public class UIController extends SessionController {
 
         // create result
         List<ExpertResult> result = new ArrayList<>();
-        for(String author : authorList) {
+        for(int rank = 0; rank < authorList.size(); rank++) {
+            String author = authorList.get(rank);
             ExpertResult er = new ExpertResult();
             er.setName(author);
-            er.setScore(authorRelevanceMap.getOrDefault(author, 0.0d));
+            er.setScore(authorRanking.getScore(rank));
 
             // set id
             Long id = graph.getAuthorId(author);
@@ -203,7 +193,7 @@ public class UIController extends SessionController {
 
             // set documents
             List<String> fileList =  graph.getAuthorDocumentNeighbors().get(author);
-            er.setDocuments(getDocumentInfo(fileList, documentRelevanceMap));
+            er.setDocuments(getDocumentInfo(fileList, documentRanking));
 
             // set google aanprofile information: image + description
             GoogleScholarAuthor googleProfile = googleMap.get(id);
@@ -225,7 +215,7 @@ public class UIController extends SessionController {
         return result;
     }
 
-    private List<DocumentResult> getDocumentInfo(List<String> fileList, Map<String, Double> documentRelevanceMap) {
+    private List<DocumentResult> getDocumentInfo(List<String> fileList, Ranking documentRanking) {
         List<DocumentResult> result = new ArrayList<>();
 
         if(fileList == null || fileList.size() == 0) {
@@ -273,7 +263,7 @@ public class UIController extends SessionController {
             DocumentResult documentResult = documentInformationMap.getOrDefault(file, new DocumentResult());
             documentResult.setCitations(documentCitationMap.getOrDefault(file, 0));
             documentResult.setAuthors(documentAuthorMap.getOrDefault(file, null));
-            documentResult.setRelevance(documentRelevanceMap.getOrDefault(file, 0d));
+            documentResult.setRelevance(documentRanking.getScore(file, 0d));
             List<String> keywords = documentKeywordMap.getOrDefault(file, new ArrayList<>());
             documentResult.setKeywords(keywords.subList(0, Math.min(10, keywords.size())));
             result.add(documentResult);
@@ -283,17 +273,12 @@ public class UIController extends SessionController {
         return result;
     }
 
-    private List<DocumentResult> createDocumentResult(Map<String, Double> documentRelevanceMap, int resultCount) {
+    private List<DocumentResult> createDocumentResult(Ranking documentRanking, int resultCount) {
         List<DocumentResult> result = new ArrayList<>();
 
-        // create file list of file <-> relevance map
+        // create file list of the best result count documents
         // treat result count <= 0 in a special way => print all results!
-        List<String> fileList;
-        if (resultCount > 0) {
-            fileList = documentRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList()).subList(0, Math.min(documentRelevanceMap.size(), resultCount));
-        } else {
-            fileList = documentRelevanceMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList());
-        }
+        List<String> fileList = documentRanking.getTopNodes(resultCount);
 
         if(fileList.size() == 0) {
             return result;
@@ -340,7 +325,7 @@ public class UIController extends SessionController {
             DocumentResult documentResult = documentInformationMap.getOrDefault(file, new DocumentResult());
             documentResult.setCitations(documentCitationMap.getOrDefault(file, 0));
             documentResult.setAuthors(documentAuthorMap.getOrDefault(file, null));
-            documentResult.setRelevance(documentRelevanceMap.getOrDefault(file, 0d));
+            documentResult.setRelevance(documentRanking.getScore(file, 0d));
             List<String> keywords = documentKeywordMap.getOrDefault(file, new ArrayList<>());
             documentResult.setKeywords(keywords.subList(0, Math.min(10, keywords.size())));
             result.add(documentResult);
@@ -11,22 +11,13 @@ import java.util.Set;
 
 public interface AanDao extends CrudRepository<Keyword, Long> {
 
-    @Query(value = "SELECT p.author, p.document FROM publications_aan p WHERE p.document IN ?1", nativeQuery = true)
-    List<Object[]> findAllPublicationsAAN(List<String> files);
-
-    @Query(value = "SELECT c.outgoing_file, c.incoming_file FROM citations_aan AS c WHERE c.outgoing_file IN ?1 AND c.incoming_file IN ?1", nativeQuery = true)
-    List<Object[]> findAllCitationsAAN(List<String> files);
-
-    @Query(value = "SELECT c.author1, c.author2, c.count FROM collaborations_aan2 as c WHERE c.author1 IN ?1 AND c.author2 IN ?1", nativeQuery = true)
-    List<Object[]> findAllCollaborationsAAN2(List<String> authors);
-
     @Query(value = "SELECT a.name, a.id FROM authors_aan a WHERE a.name IN ?1", nativeQuery = true)
     List<Object[]> findAllAuthorIds(Set<String> authors);
 
-    @Query(value= "SELECT p.author, sub.file, sub.count FROM (SELECT incoming_file as file, COUNT(incoming_file) as count FROM citations_aan GROUP BY incoming_file) as sub JOIN publications_aan as p ON sub.file = p.document", nativeQuery = true)
+    @Query(value= "SELECT p.author, p.document, sub.count FROM (SELECT c.incoming_id, COUNT(*) as count FROM citations_aan AS c GROUP BY c.incoming_id) as sub JOIN publications_aan as p ON p.document_id = sub.incoming_id", nativeQuery = true)
     List<Object[]> findAllDocumentCitations();
 
-    @Query(value ="SELECT a1.name as name1, a2.name as name2, COUNT(*) as count FROM publications_aan as p1, authors_aan as a1, publications_aan as p2, authors_aan as a2 WHERE p1.author = a1.name AND p2.author = a2.name AND p1.document = p2.document AND a1.id != a2.id AND p1.document IN ?1 GROUP BY a1.name, a2.name", nativeQuery = true)
+    @Query(value ="SELECT a1.name as name1, a2.name as name2, COUNT(*) as count FROM publications_aan as p1 JOIN publications_aan as p2 ON p2.document_id = p1.document_id AND p2.author_id != p1.author_id JOIN authors_aan as a1 ON a1.id = p1.author_id JOIN authors_aan as a2 ON a2.id = p2.author_id WHERE p1.document IN ?1 GROUP BY a1.id, a2.id", nativeQuery = true)
     List<Object[]> findLocalCollaborations(List<String> files);
 
     @Query(value ="SELECT d.file, d.year FROM documents_aan as d WHERE d.file IN ?1", nativeQuery = true)
@@ -38,7 +29,7 @@ public interface AanDao extends CrudRepository<Keyword, Long> {
     @Query(value ="SELECT c.incoming_file, COUNT(*) FROM citations_aan AS c WHERE c.incoming_file IN ?1 GROUP BY c.incoming_file", nativeQuery = true)
     List<Object[]> findCitationCountForDocuments(List<String> files);
 
-    @Query(value ="SELECT pa.document, pa.author, a.id FROM documents_aan as d JOIN publications_aan pa ON d.file = pa.document JOIN authors_aan a ON pa.author = a.name WHERE d.file IN ?1", nativeQuery = true)
+    @Query(value ="SELECT pa.document, pa.author, pa.author_id FROM publications_aan pa WHERE pa.document IN ?1", nativeQuery = true)
     List<Object[]> findAuthorsForDocuments(List<String> files);
 
     @Query(value ="SELECT a.name FROM authors_aan a WHERE a.id = ?1", nativeQuery = true)
@@ -49,10 +40,10 @@ public interface AanDao extends CrudRepository<Keyword, Long> {
      * @param id aan authorid
      * @return 0: file (str), 1: title (str), 2: year (int), 3: venue (str)
      */
-    @Query(value = "SELECT d.file, d.title, d.year, d.venue FROM authors_aan a JOIN publications_aan ON a.name = publications_aan.author JOIN documents_aan d ON publications_aan.document = d.file WHERE a.id = ?1 GROUP BY d.file, d.title, d.year, d.venue", nativeQuery = true)
+    @Query(value = "SELECT d.file, d.title, d.year, d.venue FROM publications_aan AS p JOIN documents_aan d ON d.id = p.document_id WHERE p.author_id = ?1", nativeQuery = true)
     List<Object[]> findPublicationsByAuthorId(Long id);
 
-    @Query(value = "SELECT d.year, COUNT(*) AS citations FROM authors_aan a JOIN publications_aan AS p ON a.name = p.author JOIN documents_aan d ON p.document = d.file JOIN citations_aan AS c ON d.file = c.incoming_file WHERE a.id = ?1 GROUP BY d.year ORDER BY year ASC;", nativeQuery = true)
+    @Query(value = "SELECT d.year, COUNT(*) AS citations FROM publications_aan AS p JOIN documents_aan d ON d.id = p.document_id JOIN citations_aan AS c ON c.incoming_id = p.document_id WHERE p.author_id = ?1 GROUP BY d.year ORDER BY d.year ASC;", nativeQuery = true)
     List<Object[]> findCitationsPerYearForAuthorId(Long id);
 
 
@@ -60,13 +51,22 @@ public interface AanDao extends CrudRepository<Keyword, Long> {
      * @param authorname
      * @return 0: author (str), 1: collaboration count (int)
      */
-    @Query(value = "SELECT * FROM (SELECT c.author2 as author, c.count, a.id FROM collaborations_aan2 AS c JOIN authors_aan as a ON c.author2 = a.name WHERE c.author1 = ?1   UNION SELECT c.author1 as author, c.count, a.id FROM collaborations_aan2 as c JOIN authors_aan as a ON c.author1 = a.name WHERE c.author2 = ?1) as mytable ORDER BY mytable.count DESC", nativeQuery = true)
+    @Query(value = "SELECT * FROM (SELECT c.author2 as author, c.count, c.author2_id as id FROM collaborations_aan2 AS c WHERE c.author1 = ?1   UNION SELECT c.author1 as author, c.count, c.author1_id as id FROM collaborations_aan2 as c WHERE c.author2 = ?1) as mytable ORDER BY mytable.count DESC", nativeQuery = true)
     List<Object[]> findCollaborationsForAuthorByName(String authorname);
 
     @Query(value = "SELECT * FROM wikidata w WHERE w.authorid = ?1", nativeQuery = true)
     List<Object[]> findWikidataProfileForAuthorId(Long id);
 
-    @Query(value = "SELECT a.id FROM authors_aan a WHERE (a.name LIKE %?1% OR a.alt_name LIKE %?1%)", nativeQuery = true)
-    List<Long> checkExactAuthorMatch(String topic);
+    /**
+     * @return 0: id (bigint), 1: name (str), 2: alternative name (str)
+     */
+    @Query(value = "SELECT a.id, a.name, a.alt_name FROM authors_aan a", nativeQuery = true)
+    List<Object[]> findAllAuthorNames();
+
+    /**
+     * @return one row: 0: number of authors, 1: highest author id
+     */
+    @Query(value = "SELECT COUNT(*), MAX(a.id) FROM authors_aan a", nativeQuery = true)
+    List<Object[]> findAuthorFingerprint();
 
 }
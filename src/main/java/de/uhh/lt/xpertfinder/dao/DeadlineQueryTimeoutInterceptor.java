@@ -0,0 +1,59 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.DeadlineExceededException;
+import org.apache.tomcat.jdbc.pool.interceptor.AbstractCreateStatementInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Pool interceptor that gives every statement the time left until the deadline of the request that
+ * creates it as query timeout, so the repository queries and the graph queries end with the request.
+ * Statements created outside of a request with a deadline keep the driver default.
+ *
+ * Registered in spring.datasource.tomcat.jdbc-interceptors. JDBC timeouts are whole seconds, the
+ * remaining time is rounded up.
+ */
+public class DeadlineQueryTimeoutInterceptor extends AbstractCreateStatementInterceptor {
+
+    private static Logger logger = LoggerFactory.getLogger(DeadlineQueryTimeoutInterceptor.class);
+
+    @Override
+    public Object createStatement(Object proxy, Method method, Object[] args, Object statement, long time) {
+        Deadline deadline = Deadline.current();
+        if(!deadline.isLimited() || !(statement instanceof Statement))
+            return statement;
+
+        try {
+            deadline.check("querying the database");
+        } catch (DeadlineExceededException e) {
+            // the pool created the statement already, nobody else closes it
+            close((Statement) statement);
+            throw e;
+        }
+
+        long seconds = Math.max(1, (deadline.remainingMillis() + 999) / 1000);
+        try {
+            ((Statement) statement).setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+        } catch (SQLException e) {
+            logger.debug("Could not set query timeout: " + e.getMessage());
+        }
+        return statement;
+    }
+
+    private static void close(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Could not close statement: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void closeInvoked() {
+    }
+}
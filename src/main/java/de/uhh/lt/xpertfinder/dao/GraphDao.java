@@ -0,0 +1,44 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import java.util.Collection;
+
+/**
+ * Access to the relations the topic graph is built from. Instead of materializing
+ * the whole result as a list of object arrays, every row is handed to a consumer.
+ * Rows are never delivered concurrently, so consumers do not need to be thread safe.
+ */
+public interface GraphDao {
+
+    @FunctionalInterface
+    interface PublicationConsumer {
+        void accept(String author, String document);
+    }
+
+    @FunctionalInterface
+    interface CitationConsumer {
+        void accept(String outgoing, String incoming);
+    }
+
+    @FunctionalInterface
+    interface CollaborationConsumer {
+        void accept(String author1, String author2, int count);
+    }
+
+    /**
+     * Streams all (author, document) publications of the given documents.
+     * @return number of rows delivered
+     */
+    int streamPublications(Collection<String> files, PublicationConsumer consumer);
+
+    /**
+     * Streams all citations where both the citing and the cited document are part of the given documents.
+     * @return number of rows delivered
+     */
+    int streamCitations(Collection<String> files, CitationConsumer consumer);
+
+    /**
+     * Streams all collaborations where both authors are part of the given authors.
+     * @return number of rows delivered
+     */
+    int streamCollaborations(Collection<String> authors, CollaborationConsumer consumer);
+}
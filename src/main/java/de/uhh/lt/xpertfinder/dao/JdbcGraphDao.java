@@ -0,0 +1,176 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.DeadlineExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Graph queries for large topics. The key lists are split into chunks of graph.query.chunksize entries,
+ * so a single statement never exceeds max_allowed_packet, the chunks are queried concurrently on a small
+ * pool and the rows are read with a fetch size instead of being materialized by the driver.
+ *
+ * The queries bind the key list only once and check the second side of the relation in memory, e.g.
+ * citations are selected by the cited document and the citing document is filtered against the key set.
+ *
+ * The chunks run with the deadline of the request, so their statements get its query timeout and chunks
+ * that did not start before it expired are not queried at all.
+ */
+@Repository
+@Profile("!synthetic")
+public class JdbcGraphDao implements GraphDao {
+
+    private static Logger logger = LoggerFactory.getLogger(JdbcGraphDao.class);
+
+    private static final String PUBLICATIONS = "SELECT p.author, p.document FROM publications_aan p WHERE p.document IN (:keys)";
+    private static final String CITATIONS = "SELECT c.outgoing_file, c.incoming_file FROM citations_aan AS c WHERE c.incoming_file IN (:keys)";
+    private static final String COLLABORATIONS = "SELECT c.author1, c.author2, c.count FROM collaborations_aan2 AS c WHERE c.author1 IN (:keys)";
+
+    private interface RowHandler {
+        // returns true if the row was handed to the consumer
+        boolean handle(ResultSet rs) throws SQLException;
+    }
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private int chunkSize;
+
+    @Autowired
+    public JdbcGraphDao(DataSource dataSource,
+                        @Value("${graph.query.chunksize:1000}") int chunkSize,
+                        @Value("${graph.query.fetchsize:1000}") int fetchSize,
+                        @Value("${graph.query.threads:4}") int threads) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.chunkSize = Math.max(1, chunkSize);
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "graph-query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public int streamPublications(Collection<String> files, PublicationConsumer consumer) {
+        return query(PUBLICATIONS, files, rs -> {
+            consumer.accept(rs.getString(1), rs.getString(2));
+            return true;
+        });
+    }
+
+    @Override
+    public int streamCitations(Collection<String> files, CitationConsumer consumer) {
+        Set<String> fileSet = files instanceof Set ? (Set<String>) files : new HashSet<>(files);
+        return query(CITATIONS, fileSet, rs -> {
+            String outgoing = rs.getString(1);
+            if(!fileSet.contains(outgoing))
+                return false;
+
+            consumer.accept(outgoing, rs.getString(2));
+            return true;
+        });
+    }
+
+    @Override
+    public int streamCollaborations(Collection<String> authors, CollaborationConsumer consumer) {
+        Set<String> authorSet = authors instanceof Set ? (Set<String>) authors : new HashSet<>(authors);
+        return query(COLLABORATIONS, authorSet, rs -> {
+            String author2 = rs.getString(2);
+            if(!authorSet.contains(author2))
+                return false;
+
+            consumer.accept(rs.getString(1), author2, rs.getInt(3));
+            return true;
+        });
+    }
+
+    private int query(String sql, Collection<String> keys, RowHandler handler) {
+        // duplicate keys in different chunks would return the same rows twice
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        if(distinctKeys.isEmpty())
+            return 0;
+
+        List<List<String>> chunks = new ArrayList<>();
+        for(int i = 0; i < distinctKeys.size(); i += chunkSize) {
+            chunks.add(distinctKeys.subList(i, Math.min(distinctKeys.size(), i + chunkSize)));
+        }
+
+        Deadline deadline = Deadline.current();
+        Object lock = new Object();
+        AtomicInteger rows = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for(List<String> chunk : chunks) {
+            tasks.add(() -> deadline.call(() -> {
+                deadline.check("querying graph relations");
+                jdbcTemplate.query(sql, new MapSqlParameterSource("keys", chunk), (RowCallbackHandler) rs -> {
+                    synchronized (lock) {
+                        if(handler.handle(rs))
+                            rows.incrementAndGet();
+                    }
+                });
+                return null;
+            }));
+        }
+
+        logger.debug("Query " + distinctKeys.size() + " keys in " + chunks.size() + " chunks");
+        if(tasks.size() == 1) {
+            call(tasks.get(0));
+        } else {
+            try {
+                List<Future<Void>> futures = deadline.isLimited() ? executor.invokeAll(tasks, deadline.remainingNanos(), TimeUnit.NANOSECONDS) : executor.invokeAll(tasks);
+                for(Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (CancellationException e) {
+                throw new DeadlineExceededException("Deadline exceeded while querying graph relations");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataRetrievalFailureException("Interrupted while querying graph relations", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            }
+        }
+
+        return rows.get();
+    }
+
+    private static void call(Callable<Void> task) {
+        try {
+            task.call();
+        } catch (Exception e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if(cause instanceof RuntimeException)
+            return (RuntimeException) cause;
+
+        return new DataRetrievalFailureException("Failed to query graph relations", cause);
+    }
+}
@@ -20,5 +20,11 @@ public interface KeywordDao extends CrudRepository<Keyword, Long> {
     @Query(value="SELECT k.word, k.rank, k.file FROM keywords_all AS k WHERE k.file IN ?1 AND (k.word like '% %' OR k.word like '%-%') ORDER BY k.rank ASC", nativeQuery = true)
     List<Object[]> findKeywordsForDocuments(List<String> files);
 
+    @Query(value="SELECT kw.word, COUNT(*) FROM keywords_best AS kw GROUP BY kw.word HAVING COUNT(*) >= ?1", nativeQuery = true)
+    List<Object[]> findKeywordAuthorCounts(int minCount);
+
+    @Query(value="SELECT k.word, COUNT(*) FROM keywords_all AS k GROUP BY k.word HAVING COUNT(*) >= ?1", nativeQuery = true)
+    List<Object[]> findKeywordDocumentCounts(int minCount);
+
 }
 
@@ -0,0 +1,132 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Graph relations of a fixed set of documents, read once from another GraphDao and kept in memory.
+ *
+ * Batches prefetch the union of the documents of all their topics, so the graphs of the single topics
+ * are built from memory instead of querying the same relations for every topic. The stream methods
+ * deliver the same rows as the source would. Requests for documents or authors outside the prefetched
+ * sets are passed on to the source.
+ *
+ * After prefetch returns the instance is only read and can be used by several threads.
+ */
+public class PrefetchedGraphDao implements GraphDao {
+
+    private static Logger logger = LoggerFactory.getLogger(PrefetchedGraphDao.class);
+
+    private static class Collaboration {
+        final String author;
+        final int count;
+
+        Collaboration(String author, int count) {
+            this.author = author;
+            this.count = count;
+        }
+    }
+
+    private GraphDao source;
+
+    private Set<String> files = Collections.emptySet();
+    private Set<String> authors = Collections.emptySet();
+    private boolean citations;
+    private boolean collaborations;
+
+    private Map<String, List<String>> authorsByDocument = new HashMap<>();       // document --> authors
+    private Map<String, List<String>> citingByDocument = new HashMap<>();        // incoming document --> outgoing documents
+    private Map<String, List<Collaboration>> collaborationsByAuthor = new HashMap<>(); // author1 --> author2
+
+    public PrefetchedGraphDao(GraphDao source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads the publications of the documents, their citations and the collaborations of their authors.
+     * Citations and collaborations are only read if they are needed.
+     */
+    public void prefetch(Collection<String> files, boolean citations, boolean collaborations) {
+        Set<String> fileSet = new HashSet<>(files);
+        Set<String> authorSet = new HashSet<>();
+
+        int publicationCount = source.streamPublications(fileSet, (author, document) -> {
+            authorsByDocument.computeIfAbsent(document, k -> new ArrayList<>()).add(author);
+            authorSet.add(author);
+        });
+
+        int citationCount = 0;
+        if(citations) {
+            citationCount = source.streamCitations(fileSet, (outgoing, incoming) ->
+                    citingByDocument.computeIfAbsent(incoming, k -> new ArrayList<>()).add(outgoing));
+        }
+
+        int collaborationCount = 0;
+        if(collaborations) {
+            collaborationCount = source.streamCollaborations(authorSet, (author1, author2, count) ->
+                    collaborationsByAuthor.computeIfAbsent(author1, k -> new ArrayList<>()).add(new Collaboration(author2, count)));
+        }
+
+        this.files = fileSet;
+        this.authors = authorSet;
+        this.citations = citations;
+        this.collaborations = collaborations;
+
+        logger.debug("Prefetched " + publicationCount + " publications, " + citationCount + " citations and " + collaborationCount + " collaborations of " + fileSet.size() + " documents");
+    }
+
+    @Override
+    public int streamPublications(Collection<String> files, PublicationConsumer consumer) {
+        if(!this.files.containsAll(files))
+            return source.streamPublications(files, consumer);
+
+        int rows = 0;
+        for(String document : new LinkedHashSet<>(files)) {
+            for(String author : authorsByDocument.getOrDefault(document, Collections.emptyList())) {
+                consumer.accept(author, document);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int streamCitations(Collection<String> files, CitationConsumer consumer) {
+        if(!citations || !this.files.containsAll(files))
+            return source.streamCitations(files, consumer);
+
+        Set<String> fileSet = new LinkedHashSet<>(files);
+        int rows = 0;
+        for(String incoming : fileSet) {
+            for(String outgoing : citingByDocument.getOrDefault(incoming, Collections.emptyList())) {
+                if(!fileSet.contains(outgoing))
+                    continue;
+
+                consumer.accept(outgoing, incoming);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int streamCollaborations(Collection<String> authors, CollaborationConsumer consumer) {
+        if(!collaborations || !this.authors.containsAll(authors))
+            return source.streamCollaborations(authors, consumer);
+
+        Set<String> authorSet = new LinkedHashSet<>(authors);
+        int rows = 0;
+        for(String author1 : authorSet) {
+            for(Collaboration collaboration : collaborationsByAuthor.getOrDefault(author1, Collections.emptyList())) {
+                if(!authorSet.contains(collaboration.author))
+                    continue;
+
+                consumer.accept(author1, collaboration.author, collaboration.count);
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
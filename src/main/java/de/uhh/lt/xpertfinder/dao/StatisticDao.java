@@ -11,6 +11,9 @@ public interface StatisticDao extends CrudRepository<Keyword, Long> {
     @Query(value = "SELECT p.author, COUNT(p.author) as c FROM publications_aan as p GROUP BY p.author", nativeQuery = true)
     List<Object[]> getPublicationCountPerAuthor();
 
-    @Query(value = "SELECT p.author, COUNT(p.author) as coun FROM publications_aan as p JOIN citations_aan as c ON p.document = c.incoming_file GROUP BY p.author", nativeQuery = true)
+    @Query(value = "SELECT p.author, COUNT(p.author) as coun FROM publications_aan as p JOIN citations_aan as c ON c.incoming_id = p.document_id GROUP BY p.author", nativeQuery = true)
     List<Object[]> getCitationCountPerAuthor();
+
+    @Query(value = "SELECT c.incoming_file, COUNT(*) as count FROM citations_aan as c GROUP BY c.incoming_file", nativeQuery = true)
+    List<Object[]> getCitationCountPerDocument();
 }
@@ -0,0 +1,200 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.model.keyword.Keyword;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Answers the AAN queries from the synthetic corpus, with the rows in the format of the native queries.
+ */
+@Repository
+@Profile("synthetic")
+public class SyntheticAanDao extends SyntheticRepository<Keyword, Long> implements AanDao {
+
+    @Autowired
+    public SyntheticAanDao(SyntheticCorpus corpus) {
+        super(corpus);
+    }
+
+    @Override
+    public List<Object[]> findAllAuthorIds(Set<String> authors) {
+        List<Object[]> rows = new ArrayList<>();
+        for(String name : authors) {
+            int author = corpus.findAuthor(name);
+            if(author >= 0)
+                rows.add(new Object[] { name, BigInteger.valueOf(corpus.getAuthorId(author)) });
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findAllDocumentCitations() {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc = 0; doc < corpus.getDocumentCount(); doc++) {
+            int citations = corpus.getCitationCount(doc);
+            if(citations == 0)
+                continue;
+
+            String file = corpus.getFile(doc);
+            for(int author : corpus.getAuthors(doc))
+                rows.add(new Object[] { corpus.getAuthorName(author), file, BigInteger.valueOf(citations) });
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findLocalCollaborations(List<String> files) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for(int doc : documents(files)) {
+            int[] authors = corpus.getAuthors(doc);
+            for(int author1 : authors) {
+                for(int author2 : authors) {
+                    if(author1 != author2)
+                        counts.merge((long) author1 * corpus.getAuthorCount() + author2, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        for(Map.Entry<Long, Integer> entry : counts.entrySet()) {
+            int author1 = (int) (entry.getKey() / corpus.getAuthorCount());
+            int author2 = (int) (entry.getKey() % corpus.getAuthorCount());
+            rows.add(new Object[] { corpus.getAuthorName(author1), corpus.getAuthorName(author2), BigInteger.valueOf(entry.getValue()) });
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findDocumentYear(List<String> files) {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc : documents(files))
+            rows.add(new Object[] { corpus.getFile(doc), corpus.getYear(doc) });
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findDocumentInformationByIds(List<String> esIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc : documents(esIds))
+            rows.add(documentInformation(doc));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findCitationCountForDocuments(List<String> files) {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc : documents(files)) {
+            int citations = corpus.getCitationCount(doc);
+            if(citations > 0)
+                rows.add(new Object[] { corpus.getFile(doc), BigInteger.valueOf(citations) });
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findAuthorsForDocuments(List<String> files) {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc : documents(files)) {
+            String file = corpus.getFile(doc);
+            for(int author : corpus.getAuthors(doc))
+                rows.add(new Object[] { file, corpus.getAuthorName(author), BigInteger.valueOf(corpus.getAuthorId(author)) });
+        }
+        return rows;
+    }
+
+    @Override
+    public String findAuthorNameById(long id) {
+        int author = corpus.findAuthorById(id);
+        return author >= 0 ? corpus.getAuthorName(author) : null;
+    }
+
+    @Override
+    public List<Object[]> findPublicationsByAuthorId(Long id) {
+        List<Object[]> rows = new ArrayList<>();
+        int author = corpus.findAuthorById(id);
+        if(author < 0)
+            return rows;
+
+        for(int doc : corpus.getDocuments(author))
+            rows.add(documentInformation(doc));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findCitationsPerYearForAuthorId(Long id) {
+        List<Object[]> rows = new ArrayList<>();
+        int author = corpus.findAuthorById(id);
+        if(author < 0)
+            return rows;
+
+        Map<Integer, Integer> citationsPerYear = new TreeMap<>();
+        for(int doc : corpus.getDocuments(author)) {
+            int citations = corpus.getCitationCount(doc);
+            if(citations > 0)
+                citationsPerYear.merge(corpus.getYear(doc), citations, Integer::sum);
+        }
+        for(Map.Entry<Integer, Integer> entry : citationsPerYear.entrySet())
+            rows.add(new Object[] { entry.getKey(), BigInteger.valueOf(entry.getValue()) });
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findCollaborationsForAuthorByName(String authorname) {
+        List<Object[]> rows = new ArrayList<>();
+        int author = corpus.findAuthor(authorname);
+        if(author < 0)
+            return rows;
+
+        for(Map.Entry<Integer, Integer> entry : corpus.getCollaborations(author).entrySet())
+            rows.add(new Object[] { corpus.getAuthorName(entry.getKey()), entry.getValue(), BigInteger.valueOf(corpus.getAuthorId(entry.getKey())) });
+        rows.sort((a, b) -> Integer.compare((int) b[1], (int) a[1]));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findWikidataProfileForAuthorId(Long id) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Object[]> findAllAuthorNames() {
+        List<Object[]> rows = new ArrayList<>(corpus.getAuthorCount());
+        for(int author = 0; author < corpus.getAuthorCount(); author++)
+            rows.add(new Object[] { BigInteger.valueOf(corpus.getAuthorId(author)), corpus.getAuthorName(author), corpus.getAlternativeName(author) });
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findAuthorFingerprint() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { BigInteger.valueOf(corpus.getAuthorCount()), BigInteger.valueOf(corpus.getAuthorCount()) });
+        return rows;
+    }
+
+    private Object[] documentInformation(int doc) {
+        return new Object[] { corpus.getFile(doc), corpus.getTitle(doc), corpus.getYear(doc), corpus.getVenue(doc) };
+    }
+
+    /**
+     * @return the documents of the file ids, unknown ids are left out like in an IN clause
+     */
+    private List<Integer> documents(Collection<String> files) {
+        List<Integer> documents = new ArrayList<>(files.size());
+        for(String file : files) {
+            int doc = corpus.findDocument(file);
+            if(doc >= 0)
+                documents.add(doc);
+        }
+        return documents;
+    }
+}
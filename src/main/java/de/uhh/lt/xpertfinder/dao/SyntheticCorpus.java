@@ -0,0 +1,556 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A generated corpus with the shape of the AAN, served by the synthetic daos and the synthetic elasticsearch
+ * service when the application runs with the "synthetic" profile, e.g. to load test it without MySQL and
+ * elasticsearch at many times the size of the AAN.
+ *
+ * Documents are generated in the order of their year, with exponentially more documents in later years.
+ * Every document has one to six authors and cites earlier documents, both picked mostly by preferential
+ * attachment, which gives the power-law distributions of publications per author and citations per document.
+ * The terms of a document are drawn from a zipf distribution over the vocabulary, half of them from the
+ * documents it cites, so citing documents share their topics.
+ *
+ * All relations are kept in int arrays indexed by document, author and term (offsets into one value array
+ * per relation), names and titles of documents are created when they are asked for.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticCorpus {
+
+    private static Logger logger = LoggerFactory.getLogger(SyntheticCorpus.class);
+
+    private static final int FIRST_YEAR = 1965;
+    private static final int LAST_YEAR = 2015;
+    private static final double YEAR_GROWTH = 0.09;
+
+    private static final String[] VENUES = { "ACL", "EMNLP", "COLING", "NAACL", "EACL", "Computational Linguistics", "Workshop", "LREC" };
+    private static final char[] VENUE_PREFIXES = { 'P', 'D', 'C', 'N', 'E', 'J', 'W', 'L' };
+    private static final double[] VENUE_DISTRIBUTION = cumulate(new double[] { 0.2, 0.12, 0.12, 0.08, 0.05, 0.03, 0.35, 0.05 });
+
+    // authors per document: 1 to 6
+    private static final double[] AUTHOR_COUNT_DISTRIBUTION = cumulate(new double[] { 0.25, 0.33, 0.22, 0.11, 0.06, 0.03 });
+    private static final double NEW_AUTHOR = 0.3;
+    private static final double MEAN_CITATIONS = 5;
+    private static final double PREFERENTIAL_CITATION = 0.6;
+    private static final int MIN_TERMS = 10;
+    private static final int MAX_TERMS = 30;
+    private static final double INHERITED_TERM = 0.5;
+    private static final int MAX_VOCABULARY = 100000;
+
+    private static final String[] WORDS = { "language", "model", "translation", "parsing", "semantic", "word", "sentence",
+            "corpus", "grammar", "speech", "learning", "neural", "machine", "statistical", "dependency", "syntactic",
+            "lexical", "discourse", "dialogue", "information", "extraction", "retrieval", "question", "answering",
+            "summarization", "generation", "annotation", "tagging", "entity", "recognition", "named", "sentiment",
+            "analysis", "classification", "clustering", "alignment", "phrase", "tree", "bank", "embedding", "vector",
+            "network", "attention", "sequence", "decoding", "evaluation", "morphology", "segmentation", "coreference",
+            "resolution", "relation", "knowledge", "ontology", "wordnet", "sense", "disambiguation", "multilingual",
+            "bilingual", "cross", "lingual", "transfer", "domain", "adaptation", "unsupervised", "supervised",
+            "semi", "feature", "kernel", "probabilistic", "bayesian", "markov", "hidden", "conditional", "random",
+            "field", "graph", "inference", "lexicon", "dictionary", "paraphrase", "textual", "entailment", "event",
+            "temporal", "spoken", "acoustic", "prosody", "phonology", "chinese", "arabic", "german", "japanese",
+            "english", "low", "resource", "active", "reinforcement", "structured", "prediction", "compositional",
+            "distributional", "similarity", "topic", "document", "social", "media", "twitter", "opinion", "argument" };
+    private static final String[] SYLLABLES = { "ka", "lo", "mi", "ne", "ra", "to", "vu", "sa", "be", "di", "go", "hu",
+            "ji", "ke", "la", "mo", "nu", "pa", "ri", "se", "ta", "vo", "wa", "ze", "an", "el", "in", "or", "us", "er",
+            "berg", "son", "man", "ski", "ova", "ez", "ini", "ard", "ley", "ton" };
+    private static final String[] FIRST_NAMES = { "Anna", "Ben", "Chen", "Daniel", "Elena", "Fatima", "Georg", "Hiroshi",
+            "Ines", "Jan", "Kim", "Laura", "Mohammed", "Nadia", "Oliver", "Priya", "Quentin", "Rosa", "Stefan", "Tanja",
+            "Umar", "Vera", "Wei", "Xenia", "Yuki", "Zoran", "Alexander", "Barbara", "Carlos", "Dorothea", "Emil",
+            "Fiona", "Gustavo", "Hanna", "Ivan", "Julia", "Kenji", "Lucia", "Martin", "Nora" };
+
+    private final int documentCount;
+    private final int authorCount;
+    private final int[] years;
+    private final byte[] venues;
+
+    private final int[] documentAuthorOffsets;
+    private final int[] documentAuthors;
+    private final int[] authorDocumentOffsets;
+    private final int[] authorDocuments;
+
+    private final int[] citationOffsets;
+    private final int[] citations;
+    private final int[] citedByOffsets;
+    private final int[] citedBy;
+
+    private final int[] documentTermOffsets;
+    private final int[] documentTerms;
+    private final int[] documentTermFrequencies;
+    private final int[] documentLengths;
+    private final long sumLength;
+
+    private final String[] vocabulary;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final int[] postingOffsets;
+    private final int[] postings;
+    private final long[] totalTermFrequencies;
+
+    private final String[] authorNames;
+    private final Map<String, Integer> authorIds;
+
+    /**
+     * @param documentCount number of documents, the AAN has about 18000
+     * @param seed the same seed generates the same corpus
+     */
+    public SyntheticCorpus(@Value("${synthetic.documents:18000}") int documentCount, @Value("${synthetic.seed:42}") long seed) {
+        long time = System.nanoTime();
+        Random random = new Random(seed);
+
+        this.documentCount = documentCount;
+        this.vocabulary = createVocabulary(Math.min(MAX_VOCABULARY, Math.max(WORDS.length, documentCount / 4)), random);
+        for(int t = 0; t < vocabulary.length; t++)
+            termIds.put(vocabulary[t], t);
+        double[] termDistribution = cumulate(zipf(vocabulary.length));
+        double[] yearDistribution = cumulate(yearWeights());
+
+        years = new int[documentCount];
+        venues = new byte[documentCount];
+        documentAuthorOffsets = new int[documentCount + 1];
+        citationOffsets = new int[documentCount + 1];
+        documentTermOffsets = new int[documentCount + 1];
+        documentLengths = new int[documentCount];
+
+        IntArray documentAuthorList = new IntArray(documentCount * 3);
+        IntArray citationList = new IntArray(documentCount * 5);
+        IntArray termList = new IntArray(documentCount * 20);
+        IntArray termFrequencyList = new IntArray(documentCount * 20);
+        int authors = 0;
+        long length = 0;
+
+        int[] documentAuthorsBuffer = new int[AUTHOR_COUNT_DISTRIBUTION.length];
+        int[] citationsBuffer = new int[64];
+        int[] termsBuffer = new int[MAX_TERMS];
+
+        for(int doc = 0; doc < documentCount; doc++) {
+            years[doc] = FIRST_YEAR + sample(yearDistribution, (doc + 0.5) / documentCount);
+            venues[doc] = (byte) sample(VENUE_DISTRIBUTION, random.nextDouble());
+
+            // authors, known authors are picked by their number of publications
+            int authorsOfDocument = 1 + sample(AUTHOR_COUNT_DISTRIBUTION, random.nextDouble());
+            int found = 0;
+            for(int attempt = 0; found < authorsOfDocument && attempt < authorsOfDocument * 4; attempt++) {
+                int author = documentAuthorList.size == 0 || random.nextDouble() < NEW_AUTHOR
+                        ? authors++
+                        : documentAuthorList.values[random.nextInt(documentAuthorList.size)];
+                if(!contains(documentAuthorsBuffer, found, author))
+                    documentAuthorsBuffer[found++] = author;
+            }
+            for(int i = 0; i < found; i++)
+                documentAuthorList.add(documentAuthorsBuffer[i]);
+            documentAuthorOffsets[doc + 1] = documentAuthorList.size;
+
+            // citations of earlier documents, mostly of the ones that are cited often already
+            int citationCount = doc == 0 ? 0 : Math.min(Math.min(doc, citationsBuffer.length), (int) (-Math.log(1 - random.nextDouble()) * MEAN_CITATIONS));
+            found = 0;
+            for(int attempt = 0; found < citationCount && attempt < citationCount * 4; attempt++) {
+                int cited = citationList.size > 0 && random.nextDouble() < PREFERENTIAL_CITATION
+                        ? citationList.values[random.nextInt(citationList.size)]
+                        : random.nextInt(doc);
+                if(!contains(citationsBuffer, found, cited))
+                    citationsBuffer[found++] = cited;
+            }
+            for(int i = 0; i < found; i++)
+                citationList.add(citationsBuffer[i]);
+            citationOffsets[doc + 1] = citationList.size;
+
+            // terms, half of them from the cited documents
+            int termCount = MIN_TERMS + random.nextInt(MAX_TERMS - MIN_TERMS + 1);
+            int terms = 0;
+            int termFrequencies = 0;
+            for(int attempt = 0; terms < termCount && attempt < termCount * 4; attempt++) {
+                int term;
+                if(found > 0 && random.nextDouble() < INHERITED_TERM) {
+                    int cited = citationsBuffer[random.nextInt(found)];
+                    int from = documentTermOffsets[cited];
+                    term = termList.values[from + random.nextInt(documentTermOffsets[cited + 1] - from)];
+                } else {
+                    term = sample(termDistribution, random.nextDouble());
+                }
+                if(contains(termsBuffer, terms, term))
+                    continue;
+
+                termsBuffer[terms++] = term;
+                int tf = 1 + (int) (-Math.log(1 - random.nextDouble()) * 4);
+                termList.add(term);
+                termFrequencyList.add(tf);
+                termFrequencies += tf;
+            }
+            documentTermOffsets[doc + 1] = termList.size;
+            documentLengths[doc] = termFrequencies + 1500 + random.nextInt(6000);
+            length += documentLengths[doc];
+        }
+
+        this.authorCount = authors;
+        this.sumLength = length;
+        this.documentAuthors = documentAuthorList.toArray();
+        this.citations = citationList.toArray();
+        this.documentTerms = termList.toArray();
+        this.documentTermFrequencies = termFrequencyList.toArray();
+
+        // inverted relations
+        authorDocumentOffsets = new int[authorCount + 1];
+        authorDocuments = invert(documentAuthorOffsets, documentAuthors, authorDocumentOffsets);
+        citedByOffsets = new int[documentCount + 1];
+        citedBy = invert(citationOffsets, citations, citedByOffsets);
+        postingOffsets = new int[vocabulary.length + 1];
+        postings = invert(documentTermOffsets, documentTerms, postingOffsets);
+
+        totalTermFrequencies = new long[vocabulary.length];
+        for(int i = 0; i < documentTerms.length; i++)
+            totalTermFrequencies[documentTerms[i]] += documentTermFrequencies[i];
+
+        authorNames = new String[authorCount];
+        authorIds = new HashMap<>(authorCount * 2);
+        for(int author = 0; author < authorCount; author++) {
+            String name = createAuthorName(author);
+            for(int duplicate = 2; authorIds.containsKey(name); duplicate++)
+                name = createAuthorName(author) + " " + duplicate;
+            authorNames[author] = name;
+            authorIds.put(name, author);
+        }
+
+        logger.info("Generated synthetic corpus of " + documentCount + " documents, " + authorCount + " authors, " + documentAuthors.length + " publications, "
+                + citations.length + " citations and " + vocabulary.length + " terms after " + (System.nanoTime() - time) / 1000000 + " ms");
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getAuthorCount() {
+        return authorCount;
+    }
+
+    /**
+     * @return file id in the format of the AAN: venue, year and number of the document, e.g. P05-0001234
+     */
+    public String getFile(int doc) {
+        char[] file = new char[11];
+        file[0] = VENUE_PREFIXES[venues[doc]];
+        file[1] = (char) ('0' + years[doc] % 100 / 10);
+        file[2] = (char) ('0' + years[doc] % 10);
+        file[3] = '-';
+        for(int i = 10, rest = doc; i > 3; i--, rest /= 10)
+            file[i] = (char) ('0' + rest % 10);
+        return new String(file);
+    }
+
+    /**
+     * @return the document of the file id, -1 if there is none
+     */
+    public int findDocument(String file) {
+        if(file == null || file.length() != 11 || file.charAt(3) != '-')
+            return -1;
+
+        try {
+            int doc = Integer.parseInt(file.substring(4));
+            return doc < documentCount && getFile(doc).equals(file) ? doc : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int getYear(int doc) {
+        return years[doc];
+    }
+
+    public String getVenue(int doc) {
+        return VENUES[venues[doc]];
+    }
+
+    /**
+     * @return a title made of the most frequent terms of the document
+     */
+    public String getTitle(int doc) {
+        int[] terms = getTermsByFrequency(doc);
+        StringBuilder title = new StringBuilder();
+        for(int i = 0; i < Math.min(3, terms.length); i++) {
+            String term = vocabulary[terms[i]];
+            if(i == 2)
+                title.append(" for ");
+            else if(i == 1)
+                title.append(' ');
+            title.append(Character.toUpperCase(term.charAt(0))).append(term.substring(1));
+        }
+        return title.toString();
+    }
+
+    public int[] getAuthors(int doc) {
+        return Arrays.copyOfRange(documentAuthors, documentAuthorOffsets[doc], documentAuthorOffsets[doc + 1]);
+    }
+
+    public int[] getDocuments(int author) {
+        return Arrays.copyOfRange(authorDocuments, authorDocumentOffsets[author], authorDocumentOffsets[author + 1]);
+    }
+
+    /**
+     * @return the documents the document cites
+     */
+    public int[] getCitations(int doc) {
+        return Arrays.copyOfRange(citations, citationOffsets[doc], citationOffsets[doc + 1]);
+    }
+
+    /**
+     * @return the documents that cite the document
+     */
+    public int[] getCitedBy(int doc) {
+        return Arrays.copyOfRange(citedBy, citedByOffsets[doc], citedByOffsets[doc + 1]);
+    }
+
+    public int getCitationCount(int doc) {
+        return citedByOffsets[doc + 1] - citedByOffsets[doc];
+    }
+
+    /**
+     * @return name in the format of the AAN: last name, first name
+     */
+    public String getAuthorName(int author) {
+        return authorNames[author];
+    }
+
+    /**
+     * @return alternative name: first name last name
+     */
+    public String getAlternativeName(int author) {
+        String name = authorNames[author];
+        int comma = name.indexOf(", ");
+        return name.substring(comma + 2) + " " + name.substring(0, comma);
+    }
+
+    /**
+     * @return the author of the name, -1 if there is none
+     */
+    public int findAuthor(String name) {
+        return authorIds.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the database id of the author, ids start at 1
+     */
+    public long getAuthorId(int author) {
+        return author + 1L;
+    }
+
+    /**
+     * @return the author of the database id, -1 if there is none
+     */
+    public int findAuthorById(long id) {
+        return id >= 1 && id <= authorCount ? (int) (id - 1) : -1;
+    }
+
+    /**
+     * @return collaborations of the author with the number of shared documents
+     */
+    public Map<Integer, Integer> getCollaborations(int author) {
+        Map<Integer, Integer> collaborations = new HashMap<>();
+        for(int i = authorDocumentOffsets[author]; i < authorDocumentOffsets[author + 1]; i++) {
+            int doc = authorDocuments[i];
+            for(int j = documentAuthorOffsets[doc]; j < documentAuthorOffsets[doc + 1]; j++) {
+                if(documentAuthors[j] != author)
+                    collaborations.merge(documentAuthors[j], 1, Integer::sum);
+            }
+        }
+        return collaborations;
+    }
+
+    public int getVocabularySize() {
+        return vocabulary.length;
+    }
+
+    public String getTerm(int term) {
+        return vocabulary[term];
+    }
+
+    /**
+     * @return the term, -1 if it is not part of the vocabulary
+     */
+    public int findTerm(String term) {
+        return termIds.getOrDefault(term, -1);
+    }
+
+    /**
+     * @return the documents that contain the term, in ascending order
+     */
+    public int[] getPostings(int term) {
+        return Arrays.copyOfRange(postings, postingOffsets[term], postingOffsets[term + 1]);
+    }
+
+    public int getDocumentFrequency(int term) {
+        return postingOffsets[term + 1] - postingOffsets[term];
+    }
+
+    public long getTotalTermFrequency(int term) {
+        return totalTermFrequencies[term];
+    }
+
+    /**
+     * @return frequency of the term in the document, 0 if it does not contain it
+     */
+    public int getTermFrequency(int doc, int term) {
+        for(int i = documentTermOffsets[doc]; i < documentTermOffsets[doc + 1]; i++) {
+            if(documentTerms[i] == term)
+                return documentTermFrequencies[i];
+        }
+        return 0;
+    }
+
+    /**
+     * @return the terms of the document, the most frequent first
+     */
+    public int[] getTermsByFrequency(int doc) {
+        int from = documentTermOffsets[doc];
+        int to = documentTermOffsets[doc + 1];
+        List<Integer> order = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++)
+            order.add(i);
+        order.sort((a, b) -> documentTermFrequencies[b] != documentTermFrequencies[a]
+                ? Integer.compare(documentTermFrequencies[b], documentTermFrequencies[a])
+                : Integer.compare(documentTerms[a], documentTerms[b]));
+
+        int[] terms = new int[order.size()];
+        for(int i = 0; i < terms.length; i++)
+            terms[i] = documentTerms[order.get(i)];
+        return terms;
+    }
+
+    public int getDocumentLength(int doc) {
+        return documentLengths[doc];
+    }
+
+    public long getSumLength() {
+        return sumLength;
+    }
+
+    private String createAuthorName(int author) {
+        String first = FIRST_NAMES[author % FIRST_NAMES.length];
+        int rest = author / FIRST_NAMES.length;
+
+        // two or more syllables, the number is written in base SYLLABLES.length
+        StringBuilder last = new StringBuilder();
+        do {
+            last.append(SYLLABLES[rest % SYLLABLES.length]);
+            rest /= SYLLABLES.length;
+        } while(rest > 0 || last.length() < 4);
+        last.setCharAt(0, Character.toUpperCase(last.charAt(0)));
+
+        return last + ", " + first;
+    }
+
+    /**
+     * The words of the AAN topics are the most frequent terms, followed by generated ones.
+     */
+    private static String[] createVocabulary(int size, Random random) {
+        String[] vocabulary = Arrays.copyOf(WORDS, size);
+        Set<String> known = new HashSet<>(Arrays.asList(WORDS));
+        for(int t = WORDS.length; t < size; t++) {
+            String word;
+            do {
+                StringBuilder generated = new StringBuilder();
+                int syllables = 2 + random.nextInt(3);
+                for(int s = 0; s < syllables; s++)
+                    generated.append(SYLLABLES[random.nextInt(24)]);
+                word = generated.toString();
+            } while(!known.add(word));
+            vocabulary[t] = word;
+        }
+        return vocabulary;
+    }
+
+    private static double[] zipf(int size) {
+        double[] weights = new double[size];
+        for(int i = 0; i < size; i++)
+            weights[i] = 1.0 / (i + 1);
+        return weights;
+    }
+
+    private static double[] yearWeights() {
+        double[] weights = new double[LAST_YEAR - FIRST_YEAR + 1];
+        for(int i = 0; i < weights.length; i++)
+            weights[i] = Math.exp(YEAR_GROWTH * i);
+        return weights;
+    }
+
+    /**
+     * @param cumulative cumulated weights of the values, they do not have to sum to one
+     * @param quantile uniform number in [0, 1)
+     * @return index of the value at the quantile of the distribution
+     */
+    private static int sample(double[] cumulative, double quantile) {
+        int index = Arrays.binarySearch(cumulative, quantile * cumulative[cumulative.length - 1]);
+        index = index < 0 ? -index - 1 : index;
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    private static double[] cumulate(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for(int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for(int i = 0; i < size; i++) {
+            if(values[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Inverts a relation given as offsets and values, e.g. document -> authors into author -> documents.
+     * @param invertedOffsets filled with the offsets of the inverted relation
+     * @return values of the inverted relation, in ascending order per key
+     */
+    private static int[] invert(int[] offsets, int[] values, int[] invertedOffsets) {
+        for(int value : values)
+            invertedOffsets[value + 1]++;
+        for(int i = 1; i < invertedOffsets.length; i++)
+            invertedOffsets[i] += invertedOffsets[i - 1];
+
+        int[] next = Arrays.copyOf(invertedOffsets, invertedOffsets.length - 1);
+        int[] inverted = new int[values.length];
+        for(int key = 0; key < offsets.length - 1; key++) {
+            for(int i = offsets[key]; i < offsets[key + 1]; i++)
+                inverted[next[values[i]]++] = key;
+        }
+        return inverted;
+    }
+
+    private static class IntArray {
+        private int[] values;
+        private int size;
+
+        IntArray(int capacity) {
+            values = new int[Math.max(16, capacity)];
+        }
+
+        void add(int value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.model.profiles.scholar.GoogleScholarAuthor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The synthetic authors have no Google Scholar profiles.
+ */
+@Repository
+@Profile("synthetic")
+public class SyntheticGoogleDao extends SyntheticRepository<GoogleScholarAuthor, Long> implements GoogleDao {
+
+    @Autowired
+    public SyntheticGoogleDao(SyntheticCorpus corpus) {
+        super(corpus);
+    }
+
+    @Override
+    public GoogleScholarAuthor findOneByAuthorId(Long aLong) {
+        return null;
+    }
+
+    @Override
+    public List<GoogleScholarAuthor> findAllByAuthorIdIn(List<Long> ids) {
+        return new ArrayList<>();
+    }
+}
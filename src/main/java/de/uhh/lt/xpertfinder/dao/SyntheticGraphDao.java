@@ -0,0 +1,87 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams the relations of the topic graph from the synthetic corpus. Like collaborations_aan2, every
+ * collaboration is delivered once, not once per direction.
+ */
+@Repository
+@Profile("synthetic")
+public class SyntheticGraphDao implements GraphDao {
+
+    private SyntheticCorpus corpus;
+
+    @Autowired
+    public SyntheticGraphDao(SyntheticCorpus corpus) {
+        this.corpus = corpus;
+    }
+
+    @Override
+    public int streamPublications(Collection<String> files, PublicationConsumer consumer) {
+        int rows = 0;
+        for(int doc : documents(files)) {
+            String file = corpus.getFile(doc);
+            for(int author : corpus.getAuthors(doc)) {
+                consumer.accept(corpus.getAuthorName(author), file);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int streamCitations(Collection<String> files, CitationConsumer consumer) {
+        Set<Integer> documents = documents(files);
+        int rows = 0;
+        for(int doc : documents) {
+            String outgoing = corpus.getFile(doc);
+            for(int cited : corpus.getCitations(doc)) {
+                if(documents.contains(cited)) {
+                    consumer.accept(outgoing, corpus.getFile(cited));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int streamCollaborations(Collection<String> authors, CollaborationConsumer consumer) {
+        Set<Integer> selected = new HashSet<>();
+        for(String name : authors) {
+            int author = corpus.findAuthor(name);
+            if(author >= 0)
+                selected.add(author);
+        }
+
+        int rows = 0;
+        for(int author : selected) {
+            for(Map.Entry<Integer, Integer> collaboration : corpus.getCollaborations(author).entrySet()) {
+                int coauthor = collaboration.getKey();
+                if(author < coauthor && selected.contains(coauthor)) {
+                    consumer.accept(corpus.getAuthorName(author), corpus.getAuthorName(coauthor), collaboration.getValue());
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private Set<Integer> documents(Collection<String> files) {
+        Set<Integer> documents = new HashSet<>();
+        for(String file : files) {
+            int doc = corpus.findDocument(file);
+            if(doc >= 0)
+                documents.add(doc);
+        }
+        return documents;
+    }
+}
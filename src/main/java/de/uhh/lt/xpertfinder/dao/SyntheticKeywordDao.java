@@ -0,0 +1,133 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.model.keyword.Keyword;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keywords of the synthetic corpus. The best keywords of an author are the terms that occur most often in
+ * the documents of the author, the keywords of a document are pairs of its most frequent terms.
+ */
+@Repository
+@Profile("synthetic")
+public class SyntheticKeywordDao extends SyntheticRepository<Keyword, Long> implements KeywordDao {
+
+    private static final int AUTHOR_KEYWORDS = 10;
+    private static final int DOCUMENT_KEYWORDS = 5;
+
+    @Autowired
+    public SyntheticKeywordDao(SyntheticCorpus corpus) {
+        super(corpus);
+    }
+
+    @Override
+    public List<Object[]> findKeywordsForAuthor(String author) {
+        List<Object[]> rows = new ArrayList<>();
+        int id = corpus.findAuthor(author);
+        if(id < 0)
+            return rows;
+
+        for(Map.Entry<Integer, Double> keyword : authorKeywords(id))
+            rows.add(new Object[] { corpus.getTerm(keyword.getKey()), keyword.getValue() });
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findKeywordsForAuthors(List<String> authors) {
+        List<Object[]> rows = new ArrayList<>();
+        for(String author : authors) {
+            int id = corpus.findAuthor(author);
+            if(id < 0)
+                continue;
+
+            for(Map.Entry<Integer, Double> keyword : authorKeywords(id))
+                rows.add(new Object[] { author, corpus.getTerm(keyword.getKey()), keyword.getValue() });
+        }
+        rows.sort((a, b) -> Double.compare((double) b[2], (double) a[2]));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findKeywordsForDocuments(List<String> files) {
+        List<Object[]> rows = new ArrayList<>();
+        for(String file : files) {
+            int doc = corpus.findDocument(file);
+            if(doc < 0)
+                continue;
+
+            List<String> keywords = documentKeywords(doc);
+            for(int rank = 0; rank < keywords.size(); rank++)
+                rows.add(new Object[] { keywords.get(rank), (double) rank + 1, file });
+        }
+        rows.sort((a, b) -> Double.compare((double) a[1], (double) b[1]));
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> findKeywordAuthorCounts(int minCount) {
+        Map<String, Integer> counts = new HashMap<>();
+        for(int author = 0; author < corpus.getAuthorCount(); author++) {
+            for(Map.Entry<Integer, Double> keyword : authorKeywords(author))
+                counts.merge(corpus.getTerm(keyword.getKey()), 1, Integer::sum);
+        }
+        return counts(counts, minCount);
+    }
+
+    @Override
+    public List<Object[]> findKeywordDocumentCounts(int minCount) {
+        Map<String, Integer> counts = new HashMap<>();
+        for(int doc = 0; doc < corpus.getDocumentCount(); doc++) {
+            for(String keyword : documentKeywords(doc))
+                counts.merge(keyword, 1, Integer::sum);
+        }
+        return counts(counts, minCount);
+    }
+
+    /**
+     * @return the most frequent terms of the documents of the author with their share of the frequencies, best first
+     */
+    private List<Map.Entry<Integer, Double>> authorKeywords(int author) {
+        Map<Integer, Double> frequencies = new HashMap<>();
+        double sum = 0;
+        for(int doc : corpus.getDocuments(author)) {
+            for(int term : corpus.getTermsByFrequency(doc)) {
+                int tf = corpus.getTermFrequency(doc, term);
+                frequencies.merge(term, (double) tf, Double::sum);
+                sum += tf;
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> keywords = new ArrayList<>(frequencies.entrySet());
+        keywords.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        keywords = new ArrayList<>(keywords.subList(0, Math.min(AUTHOR_KEYWORDS, keywords.size())));
+        for(Map.Entry<Integer, Double> keyword : keywords)
+            keyword.setValue(keyword.getValue() / sum);
+        return keywords;
+    }
+
+    /**
+     * @return pairs of the most frequent terms of the document, best first
+     */
+    private List<String> documentKeywords(int doc) {
+        int[] terms = corpus.getTermsByFrequency(doc);
+        List<String> keywords = new ArrayList<>();
+        for(int i = 0; i + 1 < terms.length && keywords.size() < DOCUMENT_KEYWORDS; i++)
+            keywords.add(corpus.getTerm(terms[i]) + " " + corpus.getTerm(terms[i + 1]));
+        return keywords;
+    }
+
+    private static List<Object[]> counts(Map<String, Integer> counts, int minCount) {
+        List<Object[]> rows = new ArrayList<>();
+        for(Map.Entry<String, Integer> count : counts.entrySet()) {
+            if(count.getValue() >= minCount)
+                rows.add(new Object[] { count.getKey(), count.getValue() });
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,74 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import org.springframework.data.repository.CrudRepository;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Base of the repositories served by the synthetic corpus. The corpus only answers the native queries,
+ * it has no entities, so there is nothing to find and nothing may be saved or deleted.
+ */
+public abstract class SyntheticRepository<T, ID extends Serializable> implements CrudRepository<T, ID> {
+
+    protected final SyntheticCorpus corpus;
+
+    protected SyntheticRepository(SyntheticCorpus corpus) {
+        this.corpus = corpus;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+
+    @Override
+    public <S extends T> Iterable<S> save(Iterable<S> entities) {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+
+    @Override
+    public T findOne(ID id) {
+        return null;
+    }
+
+    @Override
+    public boolean exists(ID id) {
+        return false;
+    }
+
+    @Override
+    public Iterable<T> findAll() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Iterable<T> findAll(Iterable<ID> ids) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public long count() {
+        return 0;
+    }
+
+    @Override
+    public void delete(ID id) {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+
+    @Override
+    public void delete(T entity) {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+
+    @Override
+    public void delete(Iterable<? extends T> entities) {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+
+    @Override
+    public void deleteAll() {
+        throw new UnsupportedOperationException("The synthetic corpus is read only");
+    }
+}
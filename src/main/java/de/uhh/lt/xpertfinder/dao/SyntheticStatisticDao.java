@@ -0,0 +1,55 @@
+package de.uhh.lt.xpertfinder.dao;
+
+import de.uhh.lt.xpertfinder.model.keyword.Keyword;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers the statistic queries from the synthetic corpus.
+ */
+@Repository
+@Profile("synthetic")
+public class SyntheticStatisticDao extends SyntheticRepository<Keyword, Long> implements StatisticDao {
+
+    @Autowired
+    public SyntheticStatisticDao(SyntheticCorpus corpus) {
+        super(corpus);
+    }
+
+    @Override
+    public List<Object[]> getPublicationCountPerAuthor() {
+        List<Object[]> rows = new ArrayList<>(corpus.getAuthorCount());
+        for(int author = 0; author < corpus.getAuthorCount(); author++)
+            rows.add(new Object[] { corpus.getAuthorName(author), BigInteger.valueOf(corpus.getDocuments(author).length) });
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> getCitationCountPerAuthor() {
+        List<Object[]> rows = new ArrayList<>();
+        for(int author = 0; author < corpus.getAuthorCount(); author++) {
+            long citations = 0;
+            for(int doc : corpus.getDocuments(author))
+                citations += corpus.getCitationCount(doc);
+            if(citations > 0)
+                rows.add(new Object[] { corpus.getAuthorName(author), BigInteger.valueOf(citations) });
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Object[]> getCitationCountPerDocument() {
+        List<Object[]> rows = new ArrayList<>();
+        for(int doc = 0; doc < corpus.getDocumentCount(); doc++) {
+            int citations = corpus.getCitationCount(doc);
+            if(citations > 0)
+                rows.add(new Object[] { corpus.getFile(doc), BigInteger.valueOf(citations) });
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,137 @@
+package de.uhh.lt.xpertfinder.finder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deadline and cancellation token of one request, bound to the threads that work on it.
+ *
+ * Like SearchProgress, the stages do not get the deadline passed, they ask Deadline.current(). Outside
+ * of a request with a budget current() returns a deadline that never expires. Work handed to other
+ * threads takes the deadline along with call() or run().
+ *
+ * A deadline created with within() expires with its parent, so a shorter budget of one stage never
+ * extends the budget of the whole request, and cancelling the request cancels all of its stages.
+ */
+public class Deadline {
+
+    private static final Deadline NONE = new Deadline(null, 0);
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final Deadline parent;
+    private final long nanos; // System.nanoTime(), 0 if none
+    private volatile boolean cancelled;
+
+    private Deadline(Deadline parent, long nanos) {
+        this.parent = parent;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return deadline of the request running on this thread
+     */
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * @return a deadline without time limit that can only be cancelled
+     */
+    public static Deadline cancellable() {
+        return new Deadline(null, 0);
+    }
+
+    /**
+     * @param nanos System.nanoTime() by which the work must be done, 0 for no time limit
+     * @return a deadline that expires at the given time or with this deadline, whatever comes first
+     */
+    public Deadline within(long nanos) {
+        return new Deadline(this == NONE ? null : this, nanos);
+    }
+
+    /**
+     * @return a deadline that expires after the given milliseconds or with this deadline
+     */
+    public Deadline withinMillis(long millis) {
+        return within(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Runs the work with this deadline as current deadline of the thread.
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work with this deadline as current deadline of the thread.
+     * @return the result of the work
+     */
+    public <T> T call(Supplier<T> work) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if(previous != null)
+                CURRENT.set(previous);
+            else
+                CURRENT.remove();
+        }
+    }
+
+    public void cancel() {
+        if(this != NONE)
+            cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * @return true if the deadline has a time limit, here or in a parent
+     */
+    public boolean isLimited() {
+        return nanos != 0 || (parent != null && parent.isLimited());
+    }
+
+    /**
+     * @return true if the time is up or the request was cancelled
+     */
+    public boolean isExpired() {
+        return isCancelled() || remainingNanos() <= 0;
+    }
+
+    /**
+     * @return nanoseconds until the earliest time limit, Long.MAX_VALUE if there is none
+     */
+    public long remainingNanos() {
+        long remaining = nanos != 0 ? nanos - System.nanoTime() : Long.MAX_VALUE;
+        return parent != null ? Math.min(remaining, parent.remainingNanos()) : remaining;
+    }
+
+    /**
+     * @return milliseconds until the earliest time limit, at least 0, Long.MAX_VALUE if there is none
+     */
+    public long remainingMillis() {
+        long remaining = remainingNanos();
+        return remaining == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    /**
+     * Called by the stages between units of work that cannot return partial results.
+     * @param stage what was about to be done, for the message
+     * @throws DeadlineExceededException if the deadline expired
+     */
+    public void check(String stage) {
+        if(isCancelled())
+            throw new DeadlineExceededException("Search was cancelled before " + stage);
+        if(remainingNanos() <= 0)
+            throw new DeadlineExceededException("Deadline exceeded before " + stage);
+    }
+}
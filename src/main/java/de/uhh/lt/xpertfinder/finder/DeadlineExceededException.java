@@ -0,0 +1,12 @@
+package de.uhh.lt.xpertfinder.finder;
+
+/**
+ * Thrown by a stage of a search that cannot go on because the deadline of the request passed or the
+ * request was cancelled.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
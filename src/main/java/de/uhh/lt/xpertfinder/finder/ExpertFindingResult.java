@@ -4,31 +4,65 @@ import java.util.Map;
 
 public class ExpertFindingResult {
 
-    private Map<String, Double> documentRelevanceMap;
-    private Map<String, Double> authorRelevanceMap;
+    private Ranking documentRanking;
+    private Ranking authorRanking;
+    private int iterations = -1;
+    private int savedIterations;
+
+    public ExpertFindingResult(Ranking authorRanking) {
+        this(Ranking.empty(), authorRanking);
+    }
+
+    public ExpertFindingResult(Ranking documentRanking, Ranking authorRanking) {
+        this.documentRanking = documentRanking != null ? documentRanking : Ranking.empty();
+        this.authorRanking = authorRanking != null ? authorRanking : Ranking.empty();
+    }
+
+    // relevance map constructors for methods that do not work on the node ids of the graph
 
     public ExpertFindingResult(Map<String, Double> authorRelevanceMap) {
-        this.authorRelevanceMap = authorRelevanceMap;
+        this(Ranking.empty(), Ranking.fromMap(authorRelevanceMap));
     }
 
     public ExpertFindingResult(Map<String, Double> documentRelevanceMap, Map<String, Double> authorRelevanceMap) {
-        this.documentRelevanceMap = documentRelevanceMap;
-        this.authorRelevanceMap = authorRelevanceMap;
+        this(Ranking.fromMap(documentRelevanceMap), Ranking.fromMap(authorRelevanceMap));
     }
 
-    public Map<String, Double> getDocumentRelevanceMap() {
-        return documentRelevanceMap;
+    public Ranking getDocumentRanking() {
+        return documentRanking;
     }
 
-    public void setDocumentRelevanceMap(Map<String, Double> documentRelevanceMap) {
-        this.documentRelevanceMap = documentRelevanceMap;
+    public Ranking getAuthorRanking() {
+        return authorRanking;
+    }
+
+    public Map<String, Double> getDocumentRelevanceMap() {
+        return documentRanking.toMap();
     }
 
     public Map<String, Double> getAuthorRelevanceMap() {
-        return authorRelevanceMap;
+        return authorRanking.toMap();
+    }
+
+    /**
+     * @return iterations of this result if the method computed several results at once, -1 if the progress counts them
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return estimated iterations the method saved by stopping once the top authors were settled, 0 if it did not
+     */
+    public int getSavedIterations() {
+        return savedIterations;
     }
 
-    public void setAuthorRelevanceMap(Map<String, Double> authorRelevanceMap) {
-        this.authorRelevanceMap = authorRelevanceMap;
+    public void setSavedIterations(int savedIterations) {
+        this.savedIterations = savedIterations;
     }
 }
@@ -4,27 +4,84 @@ import java.util.Map;
 
 public class ExpertRetrievalResult {
 
-    private Map<String, Double> expertResultList;
-    private Map<String, Double> documentResultMap;
+    private Ranking expertRanking;
+    private Ranking documentRanking;
 
-    public ExpertRetrievalResult(Map<String, Double> expertResultList, Map<String, Double> documentResultMap) {
-        this.expertResultList = expertResultList;
-        this.documentResultMap = documentResultMap;
+    // what was actually computed, may differ from the request under a latency budget
+    private String method;
+    private int iterations;
+    private boolean truncated;
+    private int savedIterations;
+    private MethodUsage usage;
+
+    public ExpertRetrievalResult(Ranking expertRanking, Ranking documentRanking) {
+        this.expertRanking = expertRanking;
+        this.documentRanking = documentRanking;
     }
 
-    public Map<String, Double> getExpertResultList() {
-        return expertResultList;
+    public ExpertRetrievalResult(Ranking expertRanking, Ranking documentRanking, String method, int iterations, boolean truncated) {
+        this(expertRanking, documentRanking);
+        this.method = method;
+        this.iterations = iterations;
+        this.truncated = truncated;
     }
 
-    public void setExpertResultList(Map<String, Double> expertResultList) {
-        this.expertResultList = expertResultList;
+    public Ranking getExpertRanking() {
+        return expertRanking;
     }
 
-    public Map<String, Double> getDocumentResultList() {
-        return documentResultMap;
+    public Ranking getDocumentRanking() {
+        return documentRanking;
+    }
+
+    /**
+     * @return id of the method that computed the rankings
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return iterations of the method, 0 if it does not iterate
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return true if the method was stopped before it converged because the budget ran out
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return estimated iterations the method saved by stopping once the top authors were settled
+     */
+    public int getSavedIterations() {
+        return savedIterations;
     }
 
-    public void setDocumentResultList(Map<String, Double> documentResultMap) {
-        this.documentResultMap = documentResultMap;
+    public void setSavedIterations(int savedIterations) {
+        this.savedIterations = savedIterations;
+    }
+
+    /**
+     * @return resources the method used, null if they were not measured
+     */
+    public MethodUsage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(MethodUsage usage) {
+        this.usage = usage;
+    }
+
+    public Map<String, Double> getExpertResultList() {
+        return expertRanking.toMap();
+    }
+
+    public Map<String, Double> getDocumentResultList() {
+        return documentRanking.toMap();
     }
 }
@@ -1,12 +1,11 @@
 package de.uhh.lt.xpertfinder.finder;
 
-import com.google.gson.Gson;
 import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.GraphDao;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
 import de.uhh.lt.xpertfinder.service.ElasticSearchService;
 import de.uhh.lt.xpertfinder.service.HindexService;
-import de.uhh.lt.xpertfinder.service.RestService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,12 +17,14 @@ import java.util.stream.Collectors;
 public class ExpertTopic {
 
     private ElasticSearchService elasticSearch;
-    private RestService restService;
     private AanDao aanDao;
+    private GraphDao graphDao;
 
     private static Logger logger = LoggerFactory.getLogger(ExpertTopic.class);
 
     private String topic;
+    private String[] terms;
+    private List<String> topDocuments;
 
     // graph
     private Graph graph;
@@ -32,6 +33,7 @@ public class ExpertTopic {
     private CorpusStatistic corpusStatistic;
     private Map<String,int[]> documentStatistics;
     private Map<String, Double> documentRelevance;
+    private Ranking documentRanking;
     private double sumDocumentRelevance;
 
     private int relevantDocuments; // not important!
@@ -41,41 +43,65 @@ public class ExpertTopic {
     private Map<String, Integer>  globalhindex;
     private int sumHindex; // both: hindex + globalHindex
 
+    // precomputed global hindex of all authors, null if every graph computes it
+    private Map<String, Integer> globalHindex;
+
     private boolean initialized = false;
     private boolean foundResult = true;
 
-    public ExpertTopic(ElasticSearchService elasticSearch, RestService restService, AanDao aanDao) {
+    public ExpertTopic(ElasticSearchService elasticSearch, AanDao aanDao, GraphDao graphDao) {
         this.elasticSearch = elasticSearch;
-        this.restService = restService;
         this.aanDao = aanDao;
+        this.graphDao = graphDao;
+    }
+
+    public ExpertTopic(ElasticSearchService elasticSearch, AanDao aanDao, GraphDao graphDao, Map<String, Integer> globalHindex) {
+        this(elasticSearch, aanDao, graphDao);
+        this.globalHindex = globalHindex;
     }
 
     public void setup(String topic, int yearFrom, int yearTo, boolean includeTitle, int count, boolean publication, boolean collaboration, boolean citation, GraphOptions options) {
+        if(!selectDocuments(topic, yearFrom, yearTo, includeTitle, count))
+            return;
+
+        createGraph(publication, collaboration, citation, options);
+    }
+
+    /**
+     * First part of the setup: queries elasticsearch, filters the documents and collects the statistics.
+     * @return false if no documents were found, then the topic is not set up any further
+     */
+    public boolean selectDocuments(String topic, int yearFrom, int yearTo, boolean includeTitle, int count) {
         if(initialized) {
             logger.error("ALREADY INITIALIZED");
-            return;
+            return false;
         }
 
         initialized = true;
 
         logger.debug("Setting up expert topic");
+        SearchProgress.current().stage(SearchProgress.Stage.RETRIEVAL);
 
         // extract terms from search topic
         this.topic = topic.toLowerCase();
-        String[] terms = this.topic.replaceAll("\\+", "").replaceAll("\\s+", " ").trim().split(" ");
+        terms = this.topic.replaceAll("\\+", "").replaceAll("\\s+", " ").trim().split(" ");
 
         // get related documents and statistics
         logger.debug("Get relevant documents");
+        StageMetrics.Sample retrieval = StageMetrics.get().start(StageMetrics.Stage.RETRIEVAL);
         ElasticSearchService.MyResult result = elasticSearch.getDocumentIdsByTopicAAN(topic);
+        retrieval.stop(result.documents.size());
 
         if(result.documents.isEmpty() && result.info.isEmpty()) {
             logger.error("NO DOCUMENTS");
             foundResult = false;
-            return;
+            return false;
         }
         foundResult = true;
 
         // Filter by year, title, venue
+        Deadline.current().check("filtering the documents");
+        StageMetrics.Sample filter = StageMetrics.get().start(StageMetrics.Stage.FILTER);
         List<Object[]> documentInformation = aanDao.findDocumentInformationByIds(result.documents);
         Map<String, String> documentTitleMap = new HashMap<>();
         Map<String, Integer> documentYearMap = new HashMap<>();
@@ -86,43 +112,57 @@ public class ExpertTopic {
             documentVenueMap.put((String) docInfo[0], (String) docInfo[3]);
         }
 
-        System.out.println("BEFORE YEAR FILTER: " + result.documents.size());
+        int found = result.documents.size();
         result.documents = result.documents.stream().filter(s -> documentYearMap.getOrDefault(s, 0) <= yearTo).collect(Collectors.toList());
         result.documents = result.documents.stream().filter(s -> documentYearMap.getOrDefault(s, 0) >= yearFrom).collect(Collectors.toList());
-        System.out.println("AFTER YEAR FILTER: " + result.documents.size());
-
+        logger.debug("Year filter kept " + result.documents.size() + " of " + found + " documents");
 
         if(includeTitle) {
-            System.out.println("BEFORE TITLE FILTER: " + result.documents.size());
+            int beforeTitle = result.documents.size();
             result.documents = result.documents.stream().filter(s -> {
                 String title = documentTitleMap.getOrDefault(s, "");
                 return containsAllWords(title.toLowerCase(), terms);
             }).collect(Collectors.toList());
-            System.out.println("AFTER TITLE FILTER: " + result.documents.size());
+            logger.debug("Title filter kept " + result.documents.size() + " of " + beforeTitle + " documents");
         }
+        filter.stop(result.documents.size());
 
         if(result.documents.isEmpty()) {
             logger.error("NO DOCUMENTS");
             initialized = false;
-            return;
+            return false;
         }
 
-        System.out.println(result.documents.size());
         relevantDocuments = result.documents.size();
-        List<String> topDocs = result.documents.size() > count ? result.documents.subList(0, count) : result.documents;
+        topDocuments = result.documents.size() > count ? result.documents.subList(0, count) : result.documents;
 
         // get document statistics
         documentStatistics = result.info;
 
         // get corpus statistics
-        corpusStatistic = getCorpusStatistic(result.documents.get(0), terms);
+        Deadline.current().check("collecting corpus statistics");
+        StageMetrics.Sample statistics = StageMetrics.get().start(StageMetrics.Stage.CORPUS_STATISTICS);
+        corpusStatistic = elasticSearch.getCorpusStatistic(result.documents.get(0), terms);
+        statistics.stop(terms.length);
+        return true;
+    }
+
+    /**
+     * Second part of the setup: builds the graph from the selected documents.
+     */
+    public void createGraph(boolean publication, boolean collaboration, boolean citation, GraphOptions options) {
+        Deadline.current().check("building the graph");
+        SearchProgress.current().stage(SearchProgress.Stage.GRAPH);
 
         // create graph
-        graph = new Graph(aanDao, topDocs, publication, citation, collaboration, options);
+        graph = new Graph(aanDao, graphDao, topDocuments, publication, citation, collaboration, options, globalHindex);
 
         // calculate document relevance
+        StageMetrics.Sample relevance = StageMetrics.get().start(StageMetrics.Stage.RELEVANCE);
         calculateDocumentRelevance(terms);
         calculateSumDocRelevance();
+        relevance.stop(documentRelevance.size());
+        documentRanking = graph.createDocumentRanking(documentRelevance);
 
         // get hindex
         HindexService hindexService = graph.getHindexService();
@@ -131,6 +171,23 @@ public class ExpertTopic {
         sumHindex = hindexService.getSumHindex();
     }
 
+    /**
+     * @return a topic that is not set up yet but shares the documents and statistics selected for this topic,
+     * so the same documents can be used for a graph with other relations or options
+     */
+    public ExpertTopic copySelection() {
+        ExpertTopic copy = new ExpertTopic(elasticSearch, aanDao, graphDao, globalHindex);
+        copy.initialized = initialized;
+        copy.foundResult = foundResult;
+        copy.topic = topic;
+        copy.terms = terms;
+        copy.relevantDocuments = relevantDocuments;
+        copy.topDocuments = topDocuments;
+        copy.documentStatistics = documentStatistics;
+        copy.corpusStatistic = corpusStatistic;
+        return copy;
+    }
+
     private void calculateDocumentRelevance(String[] terms) {
         documentRelevance = new HashMap<>();
 
@@ -171,40 +228,6 @@ public class ExpertTopic {
         sumDocumentRelevance = sum;
     }
 
-    private CorpusStatistic getCorpusStatistic(String esId, String[] terms) {
-        logger.debug("Get corpus statistics");
-
-        String result = restService.sendPostRequest("http://"+elasticSearch.elastichostname+":"+elasticSearch.elasticport+"/aan/_doc/"+esId+"/_termvectors", "{ \"fields\": [ \"text\" ], \"term_statistics\": true, \"field_statistics\": true }");
-        if(result == null)
-            return null;
-
-        Map<String,Object> text = ((Map<String,Object>) ((Map<String,Object>) new Gson().fromJson(result, Map.class).get("term_vectors")).get("text"));
-        Map<String,Object> fieldStatistics = (Map<String,Object>) text.get("field_statistics");
-        Map<String,Object> termStatistics = (Map<String,Object>) text.get("terms");
-
-        double docCount = (Double) fieldStatistics.get("doc_count");
-        double sumTtf = (Double) fieldStatistics.get("sum_ttf");
-        double avgDocLength = sumTtf / docCount;
-
-        Map<String,Integer> totalTermFrequencies = new HashMap<>();
-        Map<String,Double> pts = new HashMap<>();
-        for(String term : terms) {
-            Map<String,Object> terminfo = (Map<String,Object>) termStatistics.get(term);
-            if(terminfo == null) {
-                System.out.println("Term doesn't exist in this document");
-                return null;
-            }
-
-            int ttf = ((Double)  terminfo.get("ttf")).intValue();
-            double pt = Math.log(ttf) - Math.log(sumTtf);
-
-            totalTermFrequencies.put(term, ((Double)  terminfo.get("ttf")).intValue());
-            pts.put(term, pt);
-        }
-
-        return new CorpusStatistic(docCount, sumTtf, avgDocLength, totalTermFrequencies, pts);
-    }
-
     public Graph getGraph() {
         return graph;
     }
@@ -213,6 +236,10 @@ public class ExpertTopic {
         return documentRelevance;
     }
 
+    public Ranking getDocumentRanking() {
+        return documentRanking;
+    }
+
     public double getSumDocumentRelevance() {
         return sumDocumentRelevance;
     }
@@ -237,6 +264,10 @@ public class ExpertTopic {
         return topic;
     }
 
+    public List<String> getTopDocuments() {
+        return topDocuments;
+    }
+
     public int getRelevantDocuments() {
         return relevantDocuments;
     }
@@ -0,0 +1,66 @@
+package de.uhh.lt.xpertfinder.finder;
+
+/**
+ * Resources one execution of an expert finding method used.
+ */
+public class MethodUsage {
+
+    private final String method;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final int iterations;
+    private final long graphSize;
+
+    /**
+     * @param cpuNanos cpu time of the executing thread, -1 if the jvm does not measure it
+     * @param allocatedBytes bytes allocated by the executing thread, -1 if the jvm does not measure them
+     */
+    public MethodUsage(String method, long wallNanos, long cpuNanos, long allocatedBytes, int iterations, long graphSize) {
+        this.method = method;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.iterations = iterations;
+        this.graphSize = graphSize;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return nodes and edges of the graph the method ran on
+     */
+    public long getGraphSize() {
+        return graphSize;
+    }
+
+    public double getWallMillis() {
+        return wallNanos / 1e6;
+    }
+
+    public double getCpuMillis() {
+        return cpuNanos < 0 ? -1 : cpuNanos / 1e6;
+    }
+
+    public double getAllocatedMegabytes() {
+        return allocatedBytes < 0 ? -1 : allocatedBytes / 1048576.0;
+    }
+}
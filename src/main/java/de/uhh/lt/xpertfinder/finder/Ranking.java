@@ -0,0 +1,184 @@
+package de.uhh.lt.xpertfinder.finder;
+
+import java.util.*;
+
+/**
+ * Scores of the author or document nodes of a graph, ordered by decreasing score.
+ *
+ * Node ids are the positions in the node array of the graph, the scores are stored in a double array
+ * indexed by node id and the order is computed once on construction. Nodes with a NaN score are not
+ * ranked, they behave like nodes that are missing from a relevance map.
+ */
+public class Ranking {
+
+    private static final Ranking EMPTY = new Ranking(new String[0], Collections.emptyMap(), new double[0]);
+
+    private final String[] nodes;
+    private final Map<String, Integer> ids;
+    private final double[] scores;
+    private final int[] order;
+
+    /**
+     * @param nodes node names indexed by node id
+     * @param ids node id of every node name
+     * @param scores node scores indexed by node id, NaN for nodes without score
+     */
+    public Ranking(String[] nodes, Map<String, Integer> ids, double[] scores) {
+        if(nodes.length != scores.length)
+            throw new IllegalArgumentException("Got " + scores.length + " scores for " + nodes.length + " nodes");
+
+        this.nodes = nodes;
+        this.ids = ids;
+        this.scores = scores;
+        this.order = sort(scores);
+    }
+
+    public static Ranking empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Adapter for methods that still produce relevance maps.
+     */
+    public static Ranking fromMap(Map<String, Double> map) {
+        if(map == null || map.isEmpty())
+            return EMPTY;
+
+        String[] nodes = new String[map.size()];
+        double[] scores = new double[map.size()];
+        Map<String, Integer> ids = new HashMap<>(map.size() * 2);
+        int id = 0;
+        for(Map.Entry<String, Double> entry : map.entrySet()) {
+            nodes[id] = entry.getKey();
+            scores[id] = entry.getValue() != null ? entry.getValue() : Double.NaN;
+            ids.put(entry.getKey(), id);
+            id++;
+        }
+
+        return new Ranking(nodes, ids, scores);
+    }
+
+    /**
+     * @return number of ranked nodes
+     */
+    public int size() {
+        return order.length;
+    }
+
+    public boolean isEmpty() {
+        return order.length == 0;
+    }
+
+    /**
+     * @return node id at the given rank
+     */
+    public int getId(int rank) {
+        return order[rank];
+    }
+
+    /**
+     * @return node name at the given rank
+     */
+    public String getNode(int rank) {
+        return nodes[order[rank]];
+    }
+
+    /**
+     * @return score at the given rank
+     */
+    public double getScore(int rank) {
+        return scores[order[rank]];
+    }
+
+    /**
+     * @return score of the node or the default value if the node is not ranked
+     */
+    public double getScore(String node, double defaultValue) {
+        Integer id = ids.get(node);
+        if(id == null || Double.isNaN(scores[id]))
+            return defaultValue;
+
+        return scores[id];
+    }
+
+    /**
+     * @return highest score or 0 if nothing is ranked
+     */
+    public double getMaxScore() {
+        return order.length > 0 ? scores[order[0]] : 0;
+    }
+
+    /**
+     * @return names of the best count nodes, or of all ranked nodes if count <= 0
+     */
+    public List<String> getTopNodes(int count) {
+        int size = count > 0 ? Math.min(count, order.length) : order.length;
+        List<String> result = new ArrayList<>(size);
+        for(int rank = 0; rank < size; rank++) {
+            result.add(nodes[order[rank]]);
+        }
+        return result;
+    }
+
+    /**
+     * @return node names indexed by node id
+     */
+    public String[] getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return scores indexed by node id
+     */
+    public double[] getScores() {
+        return scores;
+    }
+
+    /**
+     * @return ranked nodes and their scores in rank order
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> result = new LinkedHashMap<>(order.length * 2);
+        for(int id : order) {
+            result.put(nodes[id], scores[id]);
+        }
+        return result;
+    }
+
+    // stable merge sort of the scored node ids by decreasing score, ties keep the id order
+    private static int[] sort(double[] scores) {
+        int size = 0;
+        for(double score : scores) {
+            if(!Double.isNaN(score))
+                size++;
+        }
+
+        int[] order = new int[size];
+        int position = 0;
+        for(int id = 0; id < scores.length; id++) {
+            if(!Double.isNaN(scores[id]))
+                order[position++] = id;
+        }
+
+        int[] buffer = new int[size];
+        for(int width = 1; width < size; width *= 2) {
+            for(int from = 0; from < size; from += 2 * width) {
+                int middle = Math.min(from + width, size);
+                int to = Math.min(from + 2 * width, size);
+                int left = from, right = middle, target = from;
+                while(left < middle && right < to) {
+                    buffer[target++] = scores[order[right]] > scores[order[left]] ? order[right++] : order[left++];
+                }
+                while(left < middle)
+                    buffer[target++] = order[left++];
+                while(right < to)
+                    buffer[target++] = order[right++];
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+
+        return order;
+    }
+}
@@ -0,0 +1,145 @@
+package de.uhh.lt.xpertfinder.finder;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Progress of one search, reported by the stages of the search on the thread that runs it.
+ *
+ * The stages do not know who is interested in the progress, they report to SearchProgress.current().
+ * Outside of a job nobody is, then current() returns an instance that ignores all reports.
+ *
+ * The iteration report is also the point where methods ask whether to go on: once Deadline.current()
+ * expired, iteration() returns false and the method stops with its current scores.
+ */
+public class SearchProgress {
+
+    public enum Stage {
+        QUEUED, RETRIEVAL, GRAPH, HINDEX, RANKING, DONE, FAILED
+    }
+
+    private static final SearchProgress NONE = new SearchProgress(null);
+    private static final ThreadLocal<SearchProgress> CURRENT = new ThreadLocal<>();
+
+    private final Consumer<SearchProgress> listener;
+
+    private volatile Stage stage = Stage.QUEUED;
+    private volatile long stageStarted = System.currentTimeMillis();
+    private volatile int iteration;
+    private volatile double residual = Double.NaN;
+    private volatile boolean truncated;
+    private long iterationStarted = System.nanoTime(); // only used by the reporting thread
+
+    /**
+     * @param listener called after every report on the reporting thread, may be null
+     */
+    public SearchProgress(Consumer<SearchProgress> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return progress of the search running on this thread
+     */
+    public static SearchProgress current() {
+        SearchProgress progress = CURRENT.get();
+        return progress != null ? progress : NONE;
+    }
+
+    /**
+     * @return true if this progress belongs to a search, false for the instance that ignores all reports
+     */
+    public boolean isTracked() {
+        return this != NONE;
+    }
+
+    /**
+     * Runs the search with this progress as current progress of the thread.
+     */
+    public void run(Runnable search) {
+        call(() -> {
+            search.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the search with this progress as current progress of the thread.
+     * @return the result of the search
+     */
+    public <T> T call(Supplier<T> search) {
+        SearchProgress previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return search.get();
+        } finally {
+            if(previous != null)
+                CURRENT.set(previous);
+            else
+                CURRENT.remove();
+        }
+    }
+
+    public void stage(Stage stage) {
+        if(this == NONE)
+            return;
+
+        this.stage = stage;
+        this.stageStarted = System.currentTimeMillis();
+        this.iteration = 0;
+        this.residual = Double.NaN;
+        this.truncated = false;
+        this.iterationStarted = System.nanoTime();
+        notifyListener();
+    }
+
+    /**
+     * @param residual distance to the previous iteration, NaN if the method does not iterate until convergence
+     * @return false if the method should stop iterating because the deadline has passed
+     */
+    public boolean iteration(int iteration, double residual) {
+        if(this == NONE)
+            return !Deadline.current().isExpired();
+
+        long now = System.nanoTime();
+        StageMetrics.get().record(StageMetrics.Stage.ITERATION, StageMetrics.currentMethod(), now - iterationStarted, iteration);
+        iterationStarted = now;
+
+        this.iteration = iteration;
+        this.residual = residual;
+        notifyListener();
+
+        if(Deadline.current().isExpired()) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the method of the current stage stopped iterating because of the deadline
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public long getStageStarted() {
+        return stageStarted;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public double getResidual() {
+        return residual;
+    }
+
+    private void notifyListener() {
+        if(listener != null)
+            listener.accept(this);
+    }
+}
@@ -0,0 +1,156 @@
+package de.uhh.lt.xpertfinder.finder;
+
+import de.uhh.lt.xpertfinder.model.api.StageStatus;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency and size of the stages of all searches, per stage and method.
+ *
+ * Like SearchProgress, the stages do not get the metrics passed: they take a sample with
+ * StageMetrics.get().start(stage) and stop it with the number of items they produced. The method a
+ * stage works for is bound to the thread with withMethod(), stages outside of it count for no method.
+ */
+public class StageMetrics {
+
+    public enum Stage {
+        RETRIEVAL,              // elasticsearch, size: documents found
+        FILTER,                 // year and title filter, size: documents kept
+        CORPUS_STATISTICS,      // term vectors of the corpus, size: terms
+        PUBLICATIONS,           // graph query, size: rows
+        COLLABORATIONS,         // graph query, size: rows
+        CITATIONS,              // graph query, size: rows
+        AUTHOR_IDS,             // graph query, size: rows
+        LOCAL_COLLABORATIONS,   // graph query, size: rows
+        DOCUMENT_YEARS,         // graph query, size: rows
+        HINDEX,                 // size: authors
+        WEIGHTING,              // edge weights of the graph, size: edges
+        RELEVANCE,              // document relevance, size: documents
+        RANKING,                // the method, size: iterations
+        ITERATION,              // one iteration of the method, size: number of the iteration
+        ENRICHMENT              // result nodes with names and counts, size: experts and documents returned
+    }
+
+    // upper bounds of the latency histogram in milliseconds, the last bucket takes the rest
+    private static final long[] BUCKETS = {1, 10, 100, 1000, 10000};
+
+    private static final StageMetrics INSTANCE = new StageMetrics();
+    private static final ThreadLocal<String> METHOD = new ThreadLocal<>();
+
+    private static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+        private final LongAdder size = new LongAdder();
+        private final AtomicLong maxSize = new AtomicLong();
+
+        void record(long elapsed, long items) {
+            count.increment();
+            nanos.add(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            size.add(items);
+            maxSize.accumulateAndGet(items, Math::max);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            int bucket = 0;
+            while(bucket < BUCKETS.length && millis >= BUCKETS[bucket])
+                bucket++;
+            histogram.incrementAndGet(bucket);
+        }
+    }
+
+    /**
+     * A running measurement of one stage.
+     */
+    public class Sample {
+        private final Stage stage;
+        private final String method;
+        private final long start = System.nanoTime();
+
+        private Sample(Stage stage, String method) {
+            this.stage = stage;
+            this.method = method;
+        }
+
+        /**
+         * @param size number of items the stage produced
+         * @return elapsed nanoseconds
+         */
+        public long stop(long size) {
+            long elapsed = System.nanoTime() - start;
+            record(stage, method, elapsed, size);
+            return elapsed;
+        }
+    }
+
+    private final Map<Stage, Map<String, Timer>> timers = new EnumMap<>(Stage.class);
+
+    private StageMetrics() {
+        for(Stage stage : Stage.values())
+            timers.put(stage, new ConcurrentHashMap<>());
+    }
+
+    public static StageMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the work with the stages it measures counted for the method.
+     */
+    public static <T> T withMethod(String method, Supplier<T> work) {
+        String previous = METHOD.get();
+        METHOD.set(method);
+        try {
+            return work.get();
+        } finally {
+            if(previous != null)
+                METHOD.set(previous);
+            else
+                METHOD.remove();
+        }
+    }
+
+    /**
+     * @return method the stages of this thread are counted for, null if none
+     */
+    public static String currentMethod() {
+        return METHOD.get();
+    }
+
+    public Sample start(Stage stage) {
+        return new Sample(stage, METHOD.get());
+    }
+
+    /**
+     * @param method method the stage worked for, null if none
+     */
+    public void record(Stage stage, String method, long nanos, long size) {
+        timers.get(stage).computeIfAbsent(method != null ? method : "", k -> new Timer()).record(nanos, size);
+    }
+
+    public List<StageStatus> getStatus() {
+        List<StageStatus> status = new ArrayList<>();
+        for(Map.Entry<Stage, Map<String, Timer>> stage : timers.entrySet()) {
+            for(Map.Entry<String, Timer> entry : new TreeMap<>(stage.getValue()).entrySet()) {
+                Timer timer = entry.getValue();
+                Map<String, Long> histogram = new LinkedHashMap<>();
+                for(int bucket = 0; bucket <= BUCKETS.length; bucket++) {
+                    histogram.put(bucket < BUCKETS.length ? "<" + BUCKETS[bucket] : ">=" + BUCKETS[BUCKETS.length - 1], timer.histogram.get(bucket));
+                }
+
+                long count = timer.count.sum();
+                status.add(new StageStatus(stage.getKey().name().toLowerCase(), entry.getKey().isEmpty() ? null : entry.getKey(), count,
+                        count > 0 ? timer.nanos.sum() / 1e6 / count : 0, timer.maxNanos.get() / 1e6, histogram,
+                        count > 0 ? (double) timer.size.sum() / count : 0, timer.maxSize.get()));
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,65 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import de.uhh.lt.xpertfinder.model.graph.GraphAdjacency;
+
+import java.util.Map;
+
+/**
+ * Scores of the baseline methods over the node ids of the graph. Values of documents are added to their authors
+ * along the authorship edges by node ids of the graph, one pass over the edges without any map lookups. The edges
+ * are built once per graph, so all methods on a topic graph share them.
+ */
+class AuthorAggregation {
+
+    private AuthorAggregation() {
+    }
+
+    /**
+     * @param nodes document or author nodes of the graph
+     * @param values values by node, e.g. the global citation counts of the StatisticService
+     * @param missing value of the nodes without a value
+     * @return the values by node id
+     */
+    static double[] byNode(String[] nodes, Map<String, ? extends Number> values, double missing) {
+        double[] result = new double[nodes.length];
+        for(int id = 0; id < nodes.length; id++) {
+            Number value = values.get(nodes[id]);
+            result[id] = value != null ? value.doubleValue() : missing;
+        }
+        return result;
+    }
+
+    /**
+     * @param documentValues values by document id, NaN for documents that are left out
+     * @param none value of the authors without any document that was added
+     * @return the sum of the values of the documents of each author by author id
+     */
+    static double[] sumDocuments(Graph graph, double[] documentValues, double none) {
+        GraphAdjacency adjacency = graph.getAdjacency();
+        int[] start = adjacency.documentAuthorStart;
+        int[] authorIds = adjacency.documentAuthor;
+        double[] result = new double[graph.getAuthorNodes().length];
+        boolean[] added = new boolean[result.length];
+
+        for(int doc = 0; doc < documentValues.length; doc++) {
+            double value = documentValues[doc];
+            if(Double.isNaN(value))
+                continue;
+
+            for(int e = start[doc]; e < start[doc + 1]; e++) {
+                int author = authorIds[e];
+                if(author < 0)
+                    continue;
+                result[author] += value;
+                added[author] = true;
+            }
+        }
+
+        for(int author = 0; author < result.length; author++) {
+            if(!added[author])
+                result[author] = none;
+        }
+        return result;
+    }
+}
@@ -1,16 +1,13 @@
 package de.uhh.lt.xpertfinder.methods;
 
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
-import de.uhh.lt.xpertfinder.model.graph.Authorship;
+import de.uhh.lt.xpertfinder.finder.Ranking;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.service.ElasticSearchService;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @Service
 public class ElasticMethod implements ExpertFindingMethod<DefaultRequest> {
 
@@ -49,40 +46,17 @@ public class ElasticMethod implements ExpertFindingMethod<DefaultRequest> {
 
     @Override
     public ExpertFindingResult findExperts(DefaultRequest request, ExpertTopic expertTopic) {
-        Map<String, Double> authorRelevanceMap;
-        Map<String, Double> documentRelevanceMap;
+        Graph graph = expertTopic.getGraph();
 
         // Get scores for documents from elasticsearch
         ElasticSearchService.ScoredDocumentResult result = elasticSearch.getScoredDocumentsForTopic(expertTopic.getTopic());
 
         // sum document scores for each author to get an author ranking
-        authorRelevanceMap = sumDocumentScores(expertTopic.getGraph(), result.scores);
-
-        // use the document scores for the document ranking
-        documentRelevanceMap = result.scores;
-
-        return new ExpertFindingResult(documentRelevanceMap, authorRelevanceMap);
-    }
-
-    private Map<String, Double> sumDocumentScores(Graph graph, Map<String, Double> documentScoreMap) {
-        Map<String, Double> result = new HashMap<>();
-
-        for(Map.Entry<String, Double> entry : documentScoreMap.entrySet()) {
-
-            if(!graph.getDocumentAuthorNeighbors().containsKey(entry.getKey()))
-                continue;
-
-            for(Authorship authorship : graph.getDocumentAuthorNeighbors().get(entry.getKey())) {
-                String author = authorship.getAuthor();
-                if(!result.containsKey(author)) {
-                    result.put(author, entry.getValue());
-                } else {
-                    result.put(author, result.get(author) + entry.getValue());
-                }
-            }
-        }
+        double[] documentScores = AuthorAggregation.byNode(graph.getDocumentNodes(), result.scores, Double.NaN);
+        double[] authorScores = AuthorAggregation.sumDocuments(graph, documentScores, Double.NaN);
 
-        return result;
+        // use the document scores for the document ranking, they also contain documents outside of the graph
+        return new ExpertFindingResult(Ranking.fromMap(result.scores), graph.createAuthorRanking(authorScores));
     }
 
 }
@@ -13,4 +13,11 @@ public interface ExpertFindingMethod<T extends DefaultRequest> {
 
     T getRequestObject();
     ExpertFindingResult findExperts(T request, ExpertTopic expertTopic);
+
+    /**
+     * @return number of threads the method keeps busy for the request, the admission charges its cost per thread
+     */
+    default int getThreads(T request) {
+        return 1;
+    }
 }
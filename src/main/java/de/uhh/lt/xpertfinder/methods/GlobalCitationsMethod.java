@@ -1,6 +1,5 @@
 package de.uhh.lt.xpertfinder.methods;
 
-import de.uhh.lt.xpertfinder.dao.AanDao;
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
@@ -10,20 +9,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 @Service
 public class GlobalCitationsMethod implements ExpertFindingMethod<DefaultRequest> {
 
     private static Logger logger = LoggerFactory.getLogger(GlobalCitationsMethod.class);
 
-    @Autowired
-    AanDao aanDao;
-
     @Autowired
     StatisticService statisticService;
 
@@ -61,32 +51,16 @@ public class GlobalCitationsMethod implements ExpertFindingMethod<DefaultRequest
     public ExpertFindingResult findExperts(DefaultRequest request, ExpertTopic expertTopic) {
         Graph graph = expertTopic.getGraph();
 
-        Map<String, Double> authorRelevanceMap = new HashMap<>();
-        Map<String, Double> documentRelevanceMap = new HashMap<>();
-
         logger.debug("Find experts by global citations");
 
         // Associate each expert from the graph with her global citation count
         // This is the expert ranking
-        Map<String, Integer> citations = statisticService.getAuthorCitations();
-        for(String author : graph.getAuthors()) {
-            authorRelevanceMap.put(author, (double) citations.getOrDefault(author, -1));
-        }
-
-        // get document citations
-        // this is needed to rank the documents
-        List<Object[]> documentCitationList = aanDao.findCitationCountForDocuments(new ArrayList<>(graph.getDocs()));
-        Map<String, Integer> documentCitationMap = new HashMap<>();
-        for(Object[] obj : documentCitationList) {
-            documentCitationMap.put((String) obj[0], ((BigInteger) obj[1]).intValue());
-        }
+        double[] authorScores = AuthorAggregation.byNode(graph.getAuthorNodes(), statisticService.getAuthorCitations(), -1);
 
-        // Associate each document from the graph with its global citation count
+        // Associate each document from the graph with its global citation count, loaded once at startup
         // This is the document ranking
-        for(String doc : graph.getDocs()) {
-            documentRelevanceMap.put(doc, (double) documentCitationMap.getOrDefault(doc, 0));
-        }
+        double[] documentScores = AuthorAggregation.byNode(graph.getDocumentNodes(), statisticService.getDocumentCitations(), 0);
 
-        return new ExpertFindingResult(documentRelevanceMap, authorRelevanceMap);
+        return new ExpertFindingResult(graph.createDocumentRanking(documentScores), graph.createAuthorRanking(authorScores));
     }
 }
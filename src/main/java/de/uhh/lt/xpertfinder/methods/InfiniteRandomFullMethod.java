@@ -5,22 +5,27 @@ import de.uhh.lt.xpertfinder.model.graph.Authorship;
 import de.uhh.lt.xpertfinder.model.graph.Collaboration;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.service.SolutionCache;
 import de.uhh.lt.xpertfinder.utils.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
-public class InfiniteRandomFullMethod implements ExpertFindingMethod<InfiniteRandomFullMethod.InfiniteRandomFullRequest> {
+public class InfiniteRandomFullMethod implements MultiParameterMethod<InfiniteRandomFullMethod.InfiniteRandomFullRequest> {
 
     public class InfiniteRandomFullRequest extends DefaultRequest {
         private double lambda;
         private double epsilon;
         private double md;
         private double mca;
+        private int stableIterations;
 
         public InfiniteRandomFullRequest() {
         }
@@ -72,10 +77,26 @@ public class InfiniteRandomFullMethod implements ExpertFindingMethod<InfiniteRan
         public void setMca(double mca) {
             this.mca = mca;
         }
+
+        /**
+         * @return iterations the top results authors must keep their order before the walk stops early, 0 to
+         * iterate until epsilon
+         */
+        public int getStableIterations() {
+            return stableIterations;
+        }
+
+        public void setStableIterations(int stableIterations) {
+            this.stableIterations = stableIterations;
+        }
     }
 
     private static Logger logger = LoggerFactory.getLogger(InfiniteRandomFullMethod.class);
 
+    // not set outside of the application, e.g. in the benchmarks, then every walk starts cold
+    @Autowired(required = false)
+    private SolutionCache solutionCache;
+
     @Override
     public String getId() {
         return "inifiniterandomfull";
@@ -130,17 +151,33 @@ public class InfiniteRandomFullMethod implements ExpertFindingMethod<InfiniteRan
         // init variables t = 0
         // iteration 0
         int i = 0;
-        pd[0] = documentRelevance;
-        for(String author : graph.getAuthors()) {
-            pca[0].put(author, 0d);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null) {
+            // warm start from the last converged scores on this graph
+            logger.debug("Start from cached solution");
+            pd[0] = solution.getDocumentScores();
+            pca[0] = solution.getAuthorScores();
+        } else {
+            pd[0] = documentRelevance;
+            for(String author : graph.getAuthors()) {
+                pca[0].put(author, 0d);
+            }
         }
 
         // calculate random walk
         logger.debug("Calculate infinite random walk full graph");
+        double residual;
+        SearchProgress progress = SearchProgress.current();
+        TopKStop topK = TopKStop.create(request.getResults(), request.getStableIterations(), 1 - lambda, TopKStop.documentWeight(md, mca));
+        topK.start(graph, pd[0], pca[0]);
+        int saved = 0;
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
         do {
             i++;
 
-            for(String doc : graph.getDocs()) {
+            for(int id = 0; id < documentNodes.length; id++) {
+                String doc = documentNodes[id];
                 double score = Math.exp( Math.log(lambda) + Math.log(documentRelevance.get(doc)));
                 double score2 = 0;
                 double score3 = 0;
@@ -173,9 +210,11 @@ public class InfiniteRandomFullMethod implements ExpertFindingMethod<InfiniteRan
                 );
 
                 pd[i].put(doc, score);
+                topK.document(id, score);
             }
 
-            for(String author : graph.getAuthors()) {
+            for(int id = 0; id < authorNodes.length; id++) {
+                String author = authorNodes[id];
                 double score = Math.exp(Math.log(lambda) + Math.log( graph.getAuthorDocumentNeighbors().containsKey(author) ? (double) graph.getAuthorDocumentNeighbors().get(author).size() / (double) graph.getDocs().size() : 0.0d / (double) graph.getDocs().size()));
                 double score2 = 0;
                 double score3 = 0;
@@ -209,15 +248,59 @@ public class InfiniteRandomFullMethod implements ExpertFindingMethod<InfiniteRan
                 );
 
                 pca[i].put(author, score);
+                topK.author(id, score);
+            }
+
+            residual = MathUtils.residual(pca[i], pca[i-1]);
+            // the norms of a cached solution can match long before the scores of these parameters do
+            if(solution != null)
+                residual = Math.max(residual, MathUtils.maxDifference(pca[i], pca[i-1]));
+            if(!progress.iteration(i, residual))
+                break;
+
+            if(topK.stop()) {
+                saved = topK.remainingIterations(residual, epsilon, i, maxIterations);
+                logger.debug("Top " + request.getResults() + " authors are stable, stopped about " + saved + " iterations early");
+                break;
             }
 
             if(i == maxIterations - 1) {
                 break;
             }
 
-        } while(!MathUtils.checkConvergence(pca[i], pca[i-1], epsilon));
-        System.out.println(i + " Iterations");
+        } while(!MathUtils.isConverged(residual, epsilon));
+        logger.debug(i + " iterations");
+
+        if(solutionCache != null && MathUtils.isConverged(residual, epsilon))
+            solutionCache.put(graph, getId(), pd[i], pca[i]);
+
+        ExpertFindingResult result = new ExpertFindingResult(graph.createDocumentRanking(pd[i]), graph.createAuthorRanking(pca[i]));
+        result.setSavedIterations(saved);
+        return result;
+    }
 
-        return new ExpertFindingResult(pd[i], pca[i]);
+    @Override
+    public List<ExpertFindingResult> findExperts(List<InfiniteRandomFullRequest> requests, ExpertTopic expertTopic) {
+        double[] lambda = new double[requests.size()];
+        double[] md = new double[requests.size()];
+        double[] mca = new double[requests.size()];
+        double[] epsilon = new double[requests.size()];
+        TopKStop[] stops = new TopKStop[requests.size()];
+        for(int i = 0; i < requests.size(); i++) {
+            lambda[i] = requests.get(i).getLambda();
+            md[i] = requests.get(i).getMd();
+            mca[i] = requests.get(i).getMca();
+            epsilon[i] = requests.get(i).getEpsilon();
+            stops[i] = TopKStop.create(requests.get(i).getResults(), requests.get(i).getStableIterations(), 1 - lambda[i], TopKStop.documentWeight(md[i], mca[i]));
+        }
+
+        logger.debug("Calculate infinite random walk full graph for " + requests.size() + " parameter settings");
+        Graph graph = expertTopic.getGraph();
+        RandomWalkMatrix matrix = RandomWalkMatrix.create(graph, expertTopic.getDocumentRelevance(), false);
+        MultiParameterWalk walk = new MultiParameterWalk(graph, matrix, lambda, md, mca, epsilon, stops);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null)
+            walk.startFrom(solution.getDocumentScores(), solution.getAuthorScores());
+        return walk.walk();
     }
 }
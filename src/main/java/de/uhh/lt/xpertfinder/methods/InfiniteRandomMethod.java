@@ -4,9 +4,12 @@ import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
 import de.uhh.lt.xpertfinder.model.graph.Authorship;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.service.SolutionCache;
 import de.uhh.lt.xpertfinder.utils.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -18,6 +21,7 @@ public class InfiniteRandomMethod implements ExpertFindingMethod<InfiniteRandomM
     public class InfiniteRandomRequest extends DefaultRequest {
         private double lambda;
         private double epsilon;
+        private int stableIterations;
 
         public InfiniteRandomRequest() {
         }
@@ -49,10 +53,26 @@ public class InfiniteRandomMethod implements ExpertFindingMethod<InfiniteRandomM
         public void setEpsilon(double epsilon) {
             this.epsilon = epsilon;
         }
+
+        /**
+         * @return iterations the top results authors must keep their order before the walk stops early, 0 to
+         * iterate until epsilon
+         */
+        public int getStableIterations() {
+            return stableIterations;
+        }
+
+        public void setStableIterations(int stableIterations) {
+            this.stableIterations = stableIterations;
+        }
     }
 
     private static Logger logger = LoggerFactory.getLogger(InfiniteRandomMethod.class);
 
+    // not set outside of the application, e.g. in the benchmarks, then every walk starts cold
+    @Autowired(required = false)
+    private SolutionCache solutionCache;
+
     @Override
     public String getId() {
         return "infiniterandom";
@@ -103,18 +123,34 @@ public class InfiniteRandomMethod implements ExpertFindingMethod<InfiniteRandomM
             pca[i] = new HashMap<>();
         }
         // init variables t = 0
-        pd[0] = documentRelevance;
-        for(String author : graph.getAuthors()) {
-            pca[0].put(author, 0d);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null) {
+            // warm start from the last converged scores on this graph
+            logger.debug("Start from cached solution");
+            pd[0] = solution.getDocumentScores();
+            pca[0] = solution.getAuthorScores();
+        } else {
+            pd[0] = documentRelevance;
+            for(String author : graph.getAuthors()) {
+                pca[0].put(author, 0d);
+            }
         }
 
         // calculate random walk
         logger.debug("Calculate infinite random walk");
         int i = 0;
+        double residual;
+        SearchProgress progress = SearchProgress.current();
+        TopKStop topK = TopKStop.create(request.getResults(), request.getStableIterations(), 1 - lambda, 1);
+        topK.start(graph, pd[0], pca[0]);
+        int saved = 0;
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
         do {
             i++;
 
-            for(String doc : graph.getDocs()) {
+            for(int id = 0; id < documentNodes.length; id++) {
+                String doc = documentNodes[id];
                 double score = Math.exp( Math.log(lambda) + Math.log(documentRelevance.get(doc)));
                 double score2 = 0;
 
@@ -125,13 +161,15 @@ public class InfiniteRandomMethod implements ExpertFindingMethod<InfiniteRandomM
                                         + Math.log(1.0d / graph.getAuthorDocumentNeighbors().get(authorship.getAuthor()).size()));
                     }
 
-                    pd[i].put(doc, score + Math.exp(Math.log(1 - lambda) + Math.log(score2)));
-                } else {
-                    pd[i].put(doc, score);
+                    score = score + Math.exp(Math.log(1 - lambda) + Math.log(score2));
                 }
+
+                pd[i].put(doc, score);
+                topK.document(id, score);
             }
 
-            for(String author : graph.getAuthors()) {
+            for(int id = 0; id < authorNodes.length; id++) {
+                String author = authorNodes[id];
                 double score = Math.exp(Math.log(lambda) + Math.log( graph.getAuthorDocumentNeighbors().containsKey(author) ? (double) graph.getAuthorDocumentNeighbors().get(author).size() / (double) graph.getDocs().size() : 0.0d));
                 double score2 = 0;
 
@@ -142,19 +180,38 @@ public class InfiniteRandomMethod implements ExpertFindingMethod<InfiniteRandomM
                                         + Math.log(1.0d / graph.getDocumentAuthorNeighbors().get(document).size())
                         );
                     }
-                    pca[i].put(author, score + Math.exp(Math.log(1 - lambda) + Math.log(score2)));
-                } else {
-                    pca[i].put(author, score);
+                    score = score + Math.exp(Math.log(1 - lambda) + Math.log(score2));
                 }
+
+                pca[i].put(author, score);
+                topK.author(id, score);
+            }
+
+            residual = MathUtils.residual(pca[i], pca[i-1]);
+            // the norms of a cached solution can match long before the scores of these parameters do
+            if(solution != null)
+                residual = Math.max(residual, MathUtils.maxDifference(pca[i], pca[i-1]));
+            if(!progress.iteration(i, residual))
+                break;
+
+            if(topK.stop()) {
+                saved = topK.remainingIterations(residual, epsilon, i, maxIterations);
+                logger.debug("Top " + request.getResults() + " authors are stable, stopped about " + saved + " iterations early");
+                break;
             }
 
             if(i == maxIterations - 1) {
                 break;
             }
 
-        } while(!MathUtils.checkConvergence(pca[i], pca[i-1], epsilon));
-        System.out.println(i + " Iterations");
+        } while(!MathUtils.isConverged(residual, epsilon));
+        logger.debug(i + " iterations");
+
+        if(solutionCache != null && MathUtils.isConverged(residual, epsilon))
+            solutionCache.put(graph, getId(), pd[i], pca[i]);
 
-        return new ExpertFindingResult(pd[i], pca[i]);
+        ExpertFindingResult result = new ExpertFindingResult(graph.createDocumentRanking(pd[i]), graph.createAuthorRanking(pca[i]));
+        result.setSavedIterations(saved);
+        return result;
     }
 }
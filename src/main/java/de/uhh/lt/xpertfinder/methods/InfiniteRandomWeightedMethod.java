@@ -3,16 +3,20 @@ package de.uhh.lt.xpertfinder.methods;
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
 import de.uhh.lt.xpertfinder.model.graph.*;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.service.SolutionCache;
 import de.uhh.lt.xpertfinder.utils.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
-public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest> {
+public class InfiniteRandomWeightedMethod implements MultiParameterMethod<InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest> {
 
     public class InfiniteRandomWeightedRequest extends DefaultRequest {
         private double lambda;
@@ -20,6 +24,7 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
         private double md;
         private double mca;
         private GraphOptions options;
+        private int stableIterations;
 
         public InfiniteRandomWeightedRequest() {
         }
@@ -80,12 +85,25 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
         public void setOptions(GraphOptions options) {
             this.options = options;
         }
+
+        /**
+         * @return iterations the top results authors must keep their order before the walk stops early, 0 to
+         * iterate until epsilon
+         */
+        public int getStableIterations() {
+            return stableIterations;
+        }
+
+        public void setStableIterations(int stableIterations) {
+            this.stableIterations = stableIterations;
+        }
     }
     
     private static Logger logger = LoggerFactory.getLogger(InfiniteRandomWeightedMethod.class);
 
-    private Graph graph;
-    private Map<String, Double> documentRelevance;
+    // not set outside of the application, e.g. in the benchmarks, then every walk starts cold
+    @Autowired(required = false)
+    private SolutionCache solutionCache;
 
     @Override
     public String getId() {
@@ -123,8 +141,8 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
         double epsilon = request.getEpsilon();
         double md = request.getMd();
         double mca = request.getMca();
-        graph = expertTopic.getGraph();
-        documentRelevance = expertTopic.getDocumentRelevance();
+        Graph graph = expertTopic.getGraph();
+        Map<String, Double> documentRelevance = expertTopic.getDocumentRelevance();
 
         int maxIterations = 500;
 
@@ -142,25 +160,41 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
         // init variables t = 0
         // iteration 0
         int i = 0;
-        pd[0] = documentRelevance;
-        for(String author : graph.getAuthors()) {
-            pca[0].put(author, 0d);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null) {
+            // warm start from the last converged scores on this graph
+            logger.debug("Start from cached solution");
+            pd[0] = solution.getDocumentScores();
+            pca[0] = solution.getAuthorScores();
+        } else {
+            pd[0] = documentRelevance;
+            for(String author : graph.getAuthors()) {
+                pca[0].put(author, 0d);
+            }
         }
 
         // calculate random walk
         logger.debug("Calculate infinite random walk full weighted graph");
+        double residual;
+        SearchProgress progress = SearchProgress.current();
+        TopKStop topK = TopKStop.create(request.getResults(), request.getStableIterations(), 1 - lambda, TopKStop.documentWeight(md, mca));
+        topK.start(graph, pd[0], pca[0]);
+        int saved = 0;
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
         do {
             i++;
 
-            for(String doc : graph.getDocs()) {
-                double score = Math.exp( Math.log(lambda) + Math.log(pj(doc)));
+            for(int id = 0; id < documentNodes.length; id++) {
+                String doc = documentNodes[id];
+                double score = Math.exp( Math.log(lambda) + Math.log(documentRelevance.get(doc)));
                 double score2 = 0;
                 double score3 = 0;
 
                 if(graph.getDocumentAuthorNeighbors().containsKey(doc)) {
                     for(Authorship authorship : graph.getDocumentAuthorNeighbors().get(doc)) {
                         score2 = score2 + Math.exp(
-                                Math.log(pca2d(authorship.getAuthor(), doc))
+                                Math.log(pca2d(graph, authorship.getAuthor(), doc))
                                         + Math.log(pca[i-1].get(authorship.getAuthor()))
                         );
                     }
@@ -169,7 +203,7 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
                 if(graph.getDocumentDocumentInNeighbors().containsKey(doc)) {
                     for(String document : graph.getDocumentDocumentInNeighbors().get(doc)) {
                         score3 = score3 + Math.exp(
-                                Math.log(pd2d(document, doc))
+                                Math.log(pd2d(graph, document, doc))
                                         + Math.log(pd[i-1].get(document))
                         );
                     }
@@ -185,17 +219,19 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
                 );
 
                 pd[i].put(doc, score);
+                topK.document(id, score);
             }
 
-            for(String author : graph.getAuthors()) {
-                double score = Math.exp(Math.log(lambda) + Math.log(pjca(author)));
+            for(int id = 0; id < authorNodes.length; id++) {
+                String author = authorNodes[id];
+                double score = Math.exp(Math.log(lambda) + Math.log(pjca(graph, author)));
                 double score2 = 0;
                 double score3 = 0;
 
                 if(graph.getAuthorDocumentNeighbors().containsKey(author)) {
                     for(String document : graph.getAuthorDocumentNeighbors().get(author)) {
                         score2 = score2 + Math.exp(
-                                Math.log(pd2ca(document, author))
+                                Math.log(pd2ca(graph, document, author))
                                         + Math.log(pd[i-1].get(document))
                         );
                     }
@@ -204,7 +240,7 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
                 if(graph.getAuthorAuthorNeighbors().containsKey(author)) {
                     for(Collaboration coll : graph.getAuthorAuthorNeighbors().get(author)) {
                         score3 = score3 + Math.exp(
-                                Math.log(pca2ca(coll.getAuthor(), author))
+                                Math.log(pca2ca(graph, coll.getAuthor(), author))
 //                                        Math.log(coll.getWeight())
                                         + Math.log(pca[i-1].get(coll.getAuthor()))
                         );
@@ -221,64 +257,103 @@ public class InfiniteRandomWeightedMethod implements ExpertFindingMethod<Infinit
                 );
 
                 pca[i].put(author, score);
+                topK.author(id, score);
+            }
+
+            residual = MathUtils.residual(pca[i], pca[i-1]);
+            // the norms of a cached solution can match long before the scores of these parameters do
+            if(solution != null)
+                residual = Math.max(residual, MathUtils.maxDifference(pca[i], pca[i-1]));
+            if(!progress.iteration(i, residual))
+                break;
+
+            if(topK.stop()) {
+                saved = topK.remainingIterations(residual, epsilon, i, maxIterations);
+                logger.debug("Top " + request.getResults() + " authors are stable, stopped about " + saved + " iterations early");
+                break;
             }
 
             if(i == maxIterations - 1) {
                 break;
             }
 
-        } while(!MathUtils.checkConvergence(pca[i], pca[i-1], epsilon));
-        System.out.println(i + " Iterations");
+        } while(!MathUtils.isConverged(residual, epsilon));
+        logger.debug(i + " iterations");
 
-        return new ExpertFindingResult(pd[i], pca[i]);
+        if(solutionCache != null && MathUtils.isConverged(residual, epsilon))
+            solutionCache.put(graph, getId(), pd[i], pca[i]);
+
+        ExpertFindingResult result = new ExpertFindingResult(graph.createDocumentRanking(pd[i]), graph.createAuthorRanking(pca[i]));
+        result.setSavedIterations(saved);
+        return result;
     }
 
-    // model 2 document relevance
-    private double pj(String doc) {
-        return documentRelevance.get(doc);
+    @Override
+    public List<ExpertFindingResult> findExperts(List<InfiniteRandomWeightedRequest> requests, ExpertTopic expertTopic) {
+        double[] lambda = new double[requests.size()];
+        double[] md = new double[requests.size()];
+        double[] mca = new double[requests.size()];
+        double[] epsilon = new double[requests.size()];
+        TopKStop[] stops = new TopKStop[requests.size()];
+        for(int i = 0; i < requests.size(); i++) {
+            lambda[i] = requests.get(i).getLambda();
+            md[i] = requests.get(i).getMd();
+            mca[i] = requests.get(i).getMca();
+            epsilon[i] = requests.get(i).getEpsilon();
+            stops[i] = TopKStop.create(requests.get(i).getResults(), requests.get(i).getStableIterations(), 1 - lambda[i], TopKStop.documentWeight(md[i], mca[i]));
+        }
+
+        logger.debug("Calculate infinite random walk full weighted graph for " + requests.size() + " parameter settings");
+        Graph graph = expertTopic.getGraph();
+        RandomWalkMatrix matrix = RandomWalkMatrix.create(graph, expertTopic.getDocumentRelevance(), true);
+        MultiParameterWalk walk = new MultiParameterWalk(graph, matrix, lambda, md, mca, epsilon, stops);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null)
+            walk.startFrom(solution.getDocumentScores(), solution.getAuthorScores());
+        return walk.walk();
     }
 
-    private double pca2d(String author, String doc) {
+    private double pca2d(Graph graph, String author, String doc) {
         return 1.0d / graph.getAuthorDocumentNeighbors().get(author).size();
     }
 
     // recency
-    private double pd2d(String doc1, String doc2) {
+    private double pd2d(Graph graph, String doc1, String doc2) {
         for (Citation citation : graph.getDocumentDocumentOutNeighbors().get(doc1)) {
             if(citation.getDocument().equals(doc2)) {
                 return citation.getWeight();
             }
         }
 
-        System.out.println("LOL WHY?!");
+        logger.warn("No citation from " + doc1 + " to " + doc2);
         return 0;
     }
 
     // written top docs / top docs
-    private double pjca(String author) {
+    private double pjca(Graph graph, String author) {
         return graph.getAuthorDocumentNeighbors().containsKey(author) ? (double) graph.getAuthorDocumentNeighbors().get(author).size() / (double) graph.getDocs().size() : 0.0d;
     }
 
-    private double pd2ca(String document, String author) {
+    private double pd2ca(Graph graph, String document, String author) {
         for (Authorship authorship : graph.getDocumentAuthorNeighbors().get(document)) {
             if(authorship.getAuthor().equals(author)) {
                 return authorship.getWeight();
             }
         }
 
-        System.out.println("LOL WHY?!");
+        logger.warn("No authorship of " + author + " for " + document);
         return 0;
     }
 
     // local & global collaboration count
-    private double pca2ca(String author1, String author2) {
+    private double pca2ca(Graph graph, String author1, String author2) {
         for (Collaboration collaboration : graph.getAuthorAuthorNeighbors().get(author1)) {
             if(collaboration.getAuthor().equals(author2)) {
                 return collaboration.getWeight();
             }
         }
 
-        System.out.println("LOL WHY?!");
+        logger.warn("No collaboration of " + author1 + " with " + author2);
         return 0;
     }
 }
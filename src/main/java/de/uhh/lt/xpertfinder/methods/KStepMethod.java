@@ -1,18 +1,21 @@
 package de.uhh.lt.xpertfinder.methods;
 
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
-import de.uhh.lt.xpertfinder.model.graph.Authorship;
-import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * The k-step random walk of Serdyukov et al. A step moves the score of a document by its relevance back to the
+ * document and otherwise to its authors, an author passes its score on to its documents. The ranking of k are the
+ * scores after k - 1 steps, computed by KStepWalk, which answers requests for several k in one walk.
+ */
 @Service
-public class KStepMethod implements ExpertFindingMethod<KStepMethod.KStepRequest> {
+public class KStepMethod implements MultiParameterMethod<KStepMethod.KStepRequest> {
 
     public class KStepRequest extends DefaultRequest {
         private int k;
@@ -73,57 +76,19 @@ public class KStepMethod implements ExpertFindingMethod<KStepMethod.KStepRequest
 
     @Override
     public ExpertFindingResult findExperts(KStepRequest request, ExpertTopic expertTopic) {
-        int k = request.getK();
-        Graph graph = expertTopic.getGraph();
-        Map<String, Double> documentRelevance = expertTopic.getDocumentRelevance();
-
-        logger.debug("Init " + k + "-step random walk");
-        // create variables
-        Map<String, Double>[] pd = new Map[k];
-        for(int i = 0; i < pd.length ; i++) {
-            pd[i] = new HashMap<>();
-        }
-        Map<String, Double>[] pca = new Map[k];
-        for(int i = 0; i < pd.length ; i++) {
-            pca[i] = new HashMap<>();
-        }
-        // init variables t = 0
-        pd[0] = documentRelevance;
-        for(String author : graph.getAuthors()) {
-            pca[0].put(author, 0d);
-        }
-
-        // calculate random walk
-        logger.debug("Calculate random walk");
-        for(int i = 1; i < k; i++) {
-            for(String doc : graph.getDocs()) {
-                double score = Math.exp(Math.log(pd[i-1].get(doc)) + Math.log(documentRelevance.get(doc)));
-
-                if(graph.getDocumentAuthorNeighbors().containsKey(doc)) {
-                    for(Authorship authorship : graph.getDocumentAuthorNeighbors().get(doc)) {
-                        score = score + Math.exp(
-                                Math.log(pca[i-1].get(authorship.getAuthor()))
-                                        + Math.log(1.0d / graph.getAuthorDocumentNeighbors().get(authorship.getAuthor()).size()));
-                    }
-                }
-                pd[i].put(doc, score);
-            }
-
-            for(String author : graph.getAuthors()) {
-                double score = 0;
-
-                if(graph.getAuthorDocumentNeighbors().containsKey(author)) {
-                    for(String doc : graph.getAuthorDocumentNeighbors().get(author)) {
-                        score = score + Math.exp(
-                                Math.log(1 - documentRelevance.get(doc))
-                                        + Math.log(1.0d / graph.getDocumentAuthorNeighbors().get(doc).size())
-                                        + Math.log(pd[i-1].get(doc)));
-                    }
-                }
-                pca[i].put(author, score);
-            }
-        }
+        logger.debug("Calculate " + request.getK() + "-step random walk");
+        KStepWalk walk = new KStepWalk(expertTopic.getGraph(), expertTopic.getDocumentRelevance());
+        return walk.walk(new int[] { request.getK() }).get(0);
+    }
 
-        return new ExpertFindingResult(pd[k-1], pca[k-1]);
+    @Override
+    public List<ExpertFindingResult> findExperts(List<KStepRequest> requests, ExpertTopic expertTopic) {
+        int[] ks = new int[requests.size()];
+        for(int i = 0; i < ks.length; i++)
+            ks[i] = requests.get(i).getK();
+
+        logger.debug("Calculate k-step random walk for k = " + Arrays.toString(ks));
+        KStepWalk walk = new KStepWalk(expertTopic.getGraph(), expertTopic.getDocumentRelevance());
+        return walk.walk(ks);
     }
 }
@@ -0,0 +1,135 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import de.uhh.lt.xpertfinder.model.graph.GraphAdjacency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The k-step random walk of KStepMethod over the node ids of the graph. The transitions between documents and
+ * authors, including the relevance of the documents, are computed once on the GraphAdjacency of the graph, every
+ * step reads the scores of the last step from one pair of buffers and writes them to the other.
+ *
+ * The walk for the largest k passes the states of all smaller k, so several k are computed in one run.
+ */
+class KStepWalk {
+
+    private final Graph graph;
+    private final GraphAdjacency adjacency;
+    private final double[] relevance;
+
+    // weights of the edges of the adjacency in the other direction: a document gets 1 / documents of the author
+    // from each of its authors, an author gets (1 - relevance) / authors of the document from each of its documents
+    private final double[] documentAuthorWeight;
+    private final double[] authorDocumentWeight;
+
+    KStepWalk(Graph graph, Map<String, Double> documentRelevance) {
+        this.graph = graph;
+        GraphAdjacency adjacency = graph.getAdjacency();
+        this.adjacency = adjacency;
+
+        String[] documentNodes = graph.getDocumentNodes();
+        relevance = new double[adjacency.documents];
+        for(int doc = 0; doc < adjacency.documents; doc++)
+            relevance[doc] = documentRelevance.getOrDefault(documentNodes[doc], 0d);
+
+        // edges to nodes outside of the graph carry nothing, the walk skips them
+        documentAuthorWeight = new double[adjacency.documentAuthor.length];
+        for(int doc = 0; doc < adjacency.documents; doc++) {
+            for(int e = adjacency.documentAuthorStart[doc]; e < adjacency.documentAuthorStart[doc + 1]; e++) {
+                int author = adjacency.documentAuthor[e];
+                if(author < 0)
+                    continue;
+                documentAuthorWeight[e] = 1.0d / (adjacency.authorDocumentStart[author + 1] - adjacency.authorDocumentStart[author]);
+            }
+        }
+
+        authorDocumentWeight = new double[adjacency.authorDocument.length];
+        for(int author = 0; author < adjacency.authors; author++) {
+            for(int e = adjacency.authorDocumentStart[author]; e < adjacency.authorDocumentStart[author + 1]; e++) {
+                int doc = adjacency.authorDocument[e];
+                if(doc < 0)
+                    continue;
+                authorDocumentWeight[e] = (1 - relevance[doc]) / (adjacency.documentAuthorStart[doc + 1] - adjacency.documentAuthorStart[doc]);
+            }
+        }
+    }
+
+    /**
+     * @param ks the numbers of steps, like in KStepMethod the result of k are the scores after k - 1 steps
+     * @return one result per k, in the order of the ks, with the steps that were actually made
+     */
+    List<ExpertFindingResult> walk(int[] ks) {
+        int steps = 0;
+        for(int k : ks)
+            steps = Math.max(steps, k - 1);
+
+        int documents = adjacency.documents;
+        int authors = adjacency.authors;
+        int[] documentAuthorStart = adjacency.documentAuthorStart;
+        int[] documentAuthor = adjacency.documentAuthor;
+        int[] authorDocumentStart = adjacency.authorDocumentStart;
+        int[] authorDocument = adjacency.authorDocument;
+
+        double[] pd = Arrays.copyOf(relevance, documents);
+        double[] pca = new double[authors];
+        double[] nextPd = new double[documents];
+        double[] nextPca = new double[authors];
+
+        ExpertFindingResult[] results = new ExpertFindingResult[ks.length];
+        collect(ks, results, 0, pd, pca, false);
+
+        SearchProgress progress = SearchProgress.current();
+        for(int i = 1; i <= steps; i++) {
+            for(int doc = 0; doc < documents; doc++) {
+                double score = pd[doc] * relevance[doc];
+                for(int e = documentAuthorStart[doc]; e < documentAuthorStart[doc + 1]; e++) {
+                    int author = documentAuthor[e];
+                    if(author >= 0)
+                        score += documentAuthorWeight[e] * pca[author];
+                }
+                nextPd[doc] = score;
+            }
+
+            for(int author = 0; author < authors; author++) {
+                double score = 0;
+                for(int e = authorDocumentStart[author]; e < authorDocumentStart[author + 1]; e++) {
+                    int doc = authorDocument[e];
+                    if(doc >= 0)
+                        score += authorDocumentWeight[e] * pd[doc];
+                }
+                nextPca[author] = score;
+            }
+
+            double[] swap = pd;
+            pd = nextPd;
+            nextPd = swap;
+            swap = pca;
+            pca = nextPca;
+            nextPca = swap;
+
+            // a stopped walk answers every k it did not reach with the last step
+            boolean stopped = !progress.iteration(i, Double.NaN);
+            collect(ks, results, i, pd, pca, stopped);
+            if(stopped)
+                break;
+        }
+
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private void collect(int[] ks, ExpertFindingResult[] results, int step, double[] pd, double[] pca, boolean all) {
+        for(int r = 0; r < ks.length; r++) {
+            if(results[r] != null || (!all && Math.max(0, ks[r] - 1) != step))
+                continue;
+
+            results[r] = new ExpertFindingResult(graph.createDocumentRanking(pd.clone()), graph.createAuthorRanking(pca.clone()));
+            results[r].setIterations(step);
+        }
+    }
+}
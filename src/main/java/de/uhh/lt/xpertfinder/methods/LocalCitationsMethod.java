@@ -1,14 +1,14 @@
 package de.uhh.lt.xpertfinder.methods;
 
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.Ranking;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 @Service
 public class LocalCitationsMethod implements ExpertFindingMethod<DefaultRequest> {
@@ -49,23 +49,16 @@ public class LocalCitationsMethod implements ExpertFindingMethod<DefaultRequest>
     public ExpertFindingResult findExperts(DefaultRequest request, ExpertTopic expertTopic) {
         Graph graph = expertTopic.getGraph();
 
-        Map<String, Double> authorRelevanceMap = new HashMap<>();
-        Map<String, Double> documentRelevanceMap = new HashMap<>();
-
         logger.debug("Init experts by local citations");
-        for(String author : graph.getAuthors()) {
-            int citations = 0;
-            if(graph.getAuthorDocumentNeighbors().containsKey(author)) {
-                for(String document : graph.getAuthorDocumentNeighbors().get(author)) {
-
-                    if(graph.getDocumentDocumentInNeighbors().containsKey(document)) {
-                        citations += graph.getDocumentDocumentInNeighbors().get(document).size();
-                    }
-                }
-            }
-            authorRelevanceMap.put(author, (double) citations);
+        // the local citations of every document once, then summed for its authors
+        String[] documents = graph.getDocumentNodes();
+        double[] citations = new double[documents.length];
+        for(int doc = 0; doc < documents.length; doc++) {
+            List<String> citing = graph.getDocumentDocumentInNeighbors().get(documents[doc]);
+            citations[doc] = citing != null ? citing.size() : 0;
         }
+        double[] authorScores = AuthorAggregation.sumDocuments(graph, citations, 0);
 
-        return new ExpertFindingResult(documentRelevanceMap, authorRelevanceMap);
+        return new ExpertFindingResult(Ranking.empty(), graph.createAuthorRanking(authorScores));
     }
 }
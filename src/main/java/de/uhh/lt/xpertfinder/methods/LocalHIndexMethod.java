@@ -1,13 +1,13 @@
 package de.uhh.lt.xpertfinder.methods;
 
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.Ranking;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -50,14 +50,13 @@ public class LocalHIndexMethod implements ExpertFindingMethod<DefaultRequest> {
         Graph graph = expertTopic.getGraph();
         Map<String, Integer> hindex = expertTopic.getHindex();
 
-        Map<String, Double> authorRelevanceMap = new HashMap<>();
-        Map<String, Double> documentRelevanceMap = new HashMap<>();
-
         logger.debug("Init experts by local hindex");
-        for(String author : graph.getAuthors()) {
-            authorRelevanceMap.put(author, (double) hindex.getOrDefault(author, -1));
+        String[] authors = graph.getAuthorNodes();
+        double[] authorScores = new double[authors.length];
+        for(int author = 0; author < authors.length; author++) {
+            authorScores[author] = hindex.getOrDefault(authors[author], -1);
         }
 
-        return new ExpertFindingResult(documentRelevanceMap, authorRelevanceMap);
+        return new ExpertFindingResult(Ranking.empty(), graph.createAuthorRanking(authorScores));
     }
 }
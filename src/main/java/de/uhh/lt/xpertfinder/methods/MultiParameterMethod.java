@@ -0,0 +1,18 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+
+import java.util.List;
+
+/**
+ * A method that ranks a topic for several requests in one run, cheaper than one run per request.
+ * Batches and evaluations use it for requests of the method that share a topic, e.g. a grid of parameters.
+ */
+public interface MultiParameterMethod<T extends DefaultRequest> extends ExpertFindingMethod<T> {
+
+    /**
+     * @return one result per request, in the order of the requests, each with its iterations
+     */
+    List<ExpertFindingResult> findExperts(List<T> requests, ExpertTopic expertTopic);
+}
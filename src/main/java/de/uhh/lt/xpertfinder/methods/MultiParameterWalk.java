@@ -0,0 +1,251 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the infinite random walk for several settings of lambda, md and mca at once. The transitions are the same
+ * for all settings, only the mixing weights differ, so the scores of all settings are kept side by side per node,
+ * scores[node * settings + setting], and every edge is read once per iteration for all of them.
+ *
+ * Every setting stops at its own epsilon, or its own TopKStop, with the scores a walk of its own would have,
+ * settings that are done are not computed any further.
+ */
+class MultiParameterWalk {
+
+    static final int MAX_ITERATIONS = 500;
+
+    private final Graph graph;
+    private final RandomWalkMatrix matrix;
+    private final double[] lambda;
+    private final double[] md;
+    private final double[] mca;
+    private final double[] epsilon;
+    private final TopKStop[] stops;
+    private final int settings;
+
+    // scores of iteration 0, null for the document relevance and no author scores
+    private double[] startDocuments;
+    private double[] startAuthors;
+
+    /**
+     * @param stops optional early stop of every setting once its top authors are settled
+     */
+    MultiParameterWalk(Graph graph, RandomWalkMatrix matrix, double[] lambda, double[] md, double[] mca, double[] epsilon, TopKStop[] stops) {
+        this.graph = graph;
+        this.matrix = matrix;
+        this.lambda = lambda;
+        this.md = md;
+        this.mca = mca;
+        this.epsilon = epsilon;
+        this.stops = stops;
+        this.settings = lambda.length;
+    }
+
+    /**
+     * Starts all settings from the converged scores of an earlier walk on the graph. The settings then converge on
+     * the change of their scores, the norm of the scores of other parameters can be close long before.
+     */
+    void startFrom(Map<String, Double> documentScores, Map<String, Double> authorScores) {
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
+        startDocuments = new double[documentNodes.length];
+        for(int doc = 0; doc < documentNodes.length; doc++)
+            startDocuments[doc] = documentScores.getOrDefault(documentNodes[doc], 0d);
+        startAuthors = new double[authorNodes.length];
+        for(int author = 0; author < authorNodes.length; author++)
+            startAuthors[author] = authorScores.getOrDefault(authorNodes[author], 0d);
+    }
+
+    /**
+     * @return one result per setting, in the order of the settings, with the iterations of the setting
+     */
+    List<ExpertFindingResult> walk() {
+        int documents = matrix.documents;
+        int authors = matrix.authors;
+
+        double[] pd = new double[documents * settings];
+        double[] pca = new double[authors * settings];
+        double[] nextPd = new double[pd.length];
+        double[] nextPca = new double[pca.length];
+
+        // iteration 0 starts at the document relevance, authors at 0, or at the scores of an earlier walk
+        double[] startPd = startDocuments != null ? startDocuments : matrix.relevance;
+        for(int doc = 0; doc < documents; doc++) {
+            for(int s = 0; s < settings; s++)
+                pd[doc * settings + s] = startPd[doc];
+        }
+        if(startAuthors != null) {
+            for(int author = 0; author < authors; author++) {
+                for(int s = 0; s < settings; s++)
+                    pca[author * settings + s] = startAuthors[author];
+            }
+        }
+
+        double[] norm = new double[settings];
+        if(startAuthors != null)
+            Arrays.fill(norm, norm(startAuthors));
+
+        int[] active = new int[settings];
+        for(int s = 0; s < settings; s++)
+            active[s] = s;
+        int activeCount = settings;
+
+        double[] residual = new double[settings];
+        double[] fromAuthors = new double[settings];
+        double[] fromDocuments = new double[settings];
+        double[][] documentScores = new double[settings][];
+        double[][] authorScores = new double[settings][];
+        int[] iterations = new int[settings];
+        int[] saved = new int[settings];
+        boolean[] settled = new boolean[settings];
+        double[] authorColumn = new double[authors];
+
+        SearchProgress progress = SearchProgress.current();
+        int i = 0;
+        while(activeCount > 0) {
+            i++;
+
+            for(int doc = 0; doc < documents; doc++) {
+                for(int k = 0; k < activeCount; k++) {
+                    fromAuthors[active[k]] = 0;
+                    fromDocuments[active[k]] = 0;
+                }
+                for(int e = matrix.documentAuthorStart[doc]; e < matrix.documentAuthorStart[doc + 1]; e++) {
+                    int from = matrix.documentAuthor[e] * settings;
+                    double weight = matrix.documentAuthorWeight[e];
+                    for(int k = 0; k < activeCount; k++)
+                        fromAuthors[active[k]] += weight * pca[from + active[k]];
+                }
+                for(int e = matrix.documentCitingStart[doc]; e < matrix.documentCitingStart[doc + 1]; e++) {
+                    int from = matrix.documentCiting[e] * settings;
+                    double weight = matrix.documentCitingWeight[e];
+                    for(int k = 0; k < activeCount; k++)
+                        fromDocuments[active[k]] += weight * pd[from + active[k]];
+                }
+
+                int row = doc * settings;
+                for(int k = 0; k < activeCount; k++) {
+                    int s = active[k];
+                    nextPd[row + s] = lambda[s] * matrix.relevance[doc] + (1 - lambda[s]) * ((1 - md[s]) * fromAuthors[s] + md[s] * fromDocuments[s]);
+                }
+            }
+
+            for(int author = 0; author < authors; author++) {
+                for(int k = 0; k < activeCount; k++) {
+                    fromDocuments[active[k]] = 0;
+                    fromAuthors[active[k]] = 0;
+                }
+                for(int e = matrix.authorDocumentStart[author]; e < matrix.authorDocumentStart[author + 1]; e++) {
+                    int from = matrix.authorDocument[e] * settings;
+                    double weight = matrix.authorDocumentWeight[e];
+                    for(int k = 0; k < activeCount; k++)
+                        fromDocuments[active[k]] += weight * pd[from + active[k]];
+                }
+                for(int e = matrix.authorCoauthorStart[author]; e < matrix.authorCoauthorStart[author + 1]; e++) {
+                    int from = matrix.authorCoauthor[e] * settings;
+                    double weight = matrix.authorCoauthorWeight[e];
+                    for(int k = 0; k < activeCount; k++)
+                        fromAuthors[active[k]] += weight * pca[from + active[k]];
+                }
+
+                int row = author * settings;
+                for(int k = 0; k < activeCount; k++) {
+                    int s = active[k];
+                    nextPca[row + s] = lambda[s] * matrix.prior[author] + (1 - lambda[s]) * ((1 - mca[s]) * fromDocuments[s] + mca[s] * fromAuthors[s]);
+                }
+            }
+
+            double[] swap = pd;
+            pd = nextPd;
+            nextPd = swap;
+            swap = pca;
+            pca = nextPca;
+            nextPca = swap;
+
+            // like MathUtils.residual: the difference of the norms of the author scores of two iterations, after
+            // a start from an earlier walk at least the largest change of a score, like MathUtils.maxDifference
+            double maxResidual = 0;
+            for(int k = 0; k < activeCount; k++) {
+                int s = active[k];
+                double squareSum = 0;
+                double difference = 0;
+                for(int author = 0; author < authors; author++) {
+                    double score = pca[author * settings + s];
+                    squareSum += score * score;
+                    if(startAuthors != null)
+                        difference = Math.max(difference, Math.abs(score - nextPca[author * settings + s]));
+                }
+                double current = Math.sqrt(squareSum);
+                residual[s] = Math.max(Math.abs(current - norm[s]), difference);
+                norm[s] = current;
+                maxResidual = Math.max(maxResidual, residual[s]);
+            }
+
+            // the top authors of a setting may be settled before its residual is below epsilon
+            for(int k = 0; k < activeCount; k++) {
+                int s = active[k];
+                if(!stops[s].isEnabled())
+                    continue;
+
+                double change = 0;
+                for(int author = 0; author < authors; author++) {
+                    authorColumn[author] = pca[author * settings + s];
+                    change += Math.abs(authorColumn[author] - nextPca[author * settings + s]);
+                }
+                if(stops[s].isBounded()) {
+                    double documentWeight = stops[s].getDocumentWeight();
+                    for(int doc = 0; doc < documents; doc++)
+                        change += documentWeight * Math.abs(pd[doc * settings + s] - nextPd[doc * settings + s]);
+                }
+                settled[s] = stops[s].stop(authorColumn, change);
+            }
+
+            boolean proceed = progress.iteration(i, maxResidual) && i < MAX_ITERATIONS - 1;
+            int remaining = 0;
+            for(int k = 0; k < activeCount; k++) {
+                int s = active[k];
+                if(proceed && residual[s] >= epsilon[s] && !settled[s]) {
+                    active[remaining++] = s;
+                    continue;
+                }
+
+                documentScores[s] = column(pd, documents, s);
+                authorScores[s] = column(pca, authors, s);
+                iterations[s] = i;
+                if(settled[s])
+                    saved[s] = stops[s].remainingIterations(residual[s], epsilon[s], i, MAX_ITERATIONS);
+            }
+            activeCount = remaining;
+        }
+
+        List<ExpertFindingResult> results = new ArrayList<>(settings);
+        for(int s = 0; s < settings; s++) {
+            ExpertFindingResult result = new ExpertFindingResult(graph.createDocumentRanking(documentScores[s]), graph.createAuthorRanking(authorScores[s]));
+            result.setIterations(iterations[s]);
+            result.setSavedIterations(saved[s]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static double norm(double[] scores) {
+        double squareSum = 0;
+        for(double score : scores)
+            squareSum += score * score;
+        return Math.sqrt(squareSum);
+    }
+
+    private double[] column(double[] scores, int nodes, int setting) {
+        double[] column = new double[nodes];
+        for(int node = 0; node < nodes; node++)
+            column[node] = scores[node * settings + setting];
+        return column;
+    }
+}
@@ -5,9 +5,12 @@ import de.uhh.lt.xpertfinder.model.graph.Authorship;
 import de.uhh.lt.xpertfinder.model.graph.Collaboration;
 import de.uhh.lt.xpertfinder.model.graph.Graph;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.service.SolutionCache;
 import de.uhh.lt.xpertfinder.utils.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -21,6 +24,7 @@ public class PageRankMethod implements ExpertFindingMethod<PageRankMethod.PageRa
 
         private double lambda;
         private double epsilon;
+        private int stableIterations;
 
         public PageRankRequest() {
             super();
@@ -53,10 +57,26 @@ public class PageRankMethod implements ExpertFindingMethod<PageRankMethod.PageRa
         public void setEpsilon(double epsilon) {
             this.epsilon = epsilon;
         }
+
+        /**
+         * @return iterations the top results authors must keep their order before the walk stops early, 0 to
+         * iterate until epsilon
+         */
+        public int getStableIterations() {
+            return stableIterations;
+        }
+
+        public void setStableIterations(int stableIterations) {
+            this.stableIterations = stableIterations;
+        }
     }
 
     private static Logger logger = LoggerFactory.getLogger(PageRankMethod.class);
 
+    // not set outside of the application, e.g. in the benchmarks, then every walk starts cold
+    @Autowired(required = false)
+    private SolutionCache solutionCache;
+
     @Override
     public String getId() {
         return "pagerank";
@@ -112,19 +132,35 @@ public class PageRankMethod implements ExpertFindingMethod<PageRankMethod.PageRa
 
         // iteration 0
         int i = 0;
-        for(String doc : docs) {
-            pd[i].put(doc, 1.0d / n);
-        }
-        for(String author : authors) {
-            pa[i].put(author, 1.0d / n);
+        SolutionCache.Solution solution = solutionCache != null ? solutionCache.get(graph, getId()) : null;
+        if(solution != null) {
+            // warm start from the last converged scores on this graph
+            logger.debug("Start from cached solution");
+            pd[i] = solution.getDocumentScores();
+            pa[i] = solution.getAuthorScores();
+        } else {
+            for(String doc : docs) {
+                pd[i].put(doc, 1.0d / n);
+            }
+            for(String author : authors) {
+                pa[i].put(author, 1.0d / n);
+            }
         }
 
         double d = lambda;
 
+        double residual;
+        SearchProgress progress = SearchProgress.current();
+        TopKStop topK = TopKStop.create(request.getResults(), request.getStableIterations(), d, 1);
+        topK.start(graph, pd[0], pa[0]);
+        int saved = 0;
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
         do {
             i++;
 
-            for(String doc : docs) {
+            for(int id = 0; id < documentNodes.length; id++) {
+                String doc = documentNodes[id];
 
                 double score = (1 - d) / n;
                 double sum1 = 0;
@@ -143,10 +179,13 @@ public class PageRankMethod implements ExpertFindingMethod<PageRankMethod.PageRa
                     }
                 }
 
-                pd[i].put(doc, score + d * (sum1 + sum2));
+                score = score + d * (sum1 + sum2);
+                pd[i].put(doc, score);
+                topK.document(id, score);
             }
 
-            for(String author : authors) {
+            for(int id = 0; id < authorNodes.length; id++) {
+                String author = authorNodes[id];
 
                 double score = (1 - d) / n;
                 double sum1 = 0;
@@ -165,16 +204,36 @@ public class PageRankMethod implements ExpertFindingMethod<PageRankMethod.PageRa
                     }
                 }
 
-                pa[i].put(author, score + d * (sum1 +sum2));
+                score = score + d * (sum1 +sum2);
+                pa[i].put(author, score);
+                topK.author(id, score);
+            }
+
+            residual = MathUtils.residual(pa[i], pa[i-1]);
+            // the norms of a cached solution can match long before the scores of these parameters do
+            if(solution != null)
+                residual = Math.max(residual, MathUtils.maxDifference(pa[i], pa[i-1]));
+            if(!progress.iteration(i, residual))
+                break;
+
+            if(topK.stop()) {
+                saved = topK.remainingIterations(residual, epsilon, i, maxIterations);
+                logger.debug("Top " + request.getResults() + " authors are stable, stopped about " + saved + " iterations early");
+                break;
             }
 
             if(i == maxIterations - 1)
                 break;
 
-        } while(!MathUtils.checkConvergence(pa[i], pa[i-1], epsilon));
+        } while(!MathUtils.isConverged(residual, epsilon));
+
+        logger.debug(i + " iterations");
 
-        System.out.println("Iterations: " + i);
+        if(solutionCache != null && MathUtils.isConverged(residual, epsilon))
+            solutionCache.put(graph, getId(), pd[i], pa[i]);
 
-        return new ExpertFindingResult(pd[i], pa[i]);
+        ExpertFindingResult result = new ExpertFindingResult(graph.createDocumentRanking(pd[i]), graph.createAuthorRanking(pa[i]));
+        result.setSavedIterations(saved);
+        return result;
     }
 }
@@ -0,0 +1,248 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.model.graph.Authorship;
+import de.uhh.lt.xpertfinder.model.graph.Citation;
+import de.uhh.lt.xpertfinder.model.graph.Collaboration;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PageRank on the graph of PageRankMethod, but every jump goes back to the documents by their relevance instead of
+ * to all nodes alike. The scores are approximated by forward pushes: every node keeps a score and a residual, the
+ * residual starts at the relevance of the documents. A node whose residual exceeds epsilon times its out degree
+ * keeps 1 - lambda of it as score and passes lambda of it on to its neighbors, nodes with small residuals are never
+ * visited. The work depends on epsilon and lambda, not on the size of the graph, and the score of every node is
+ * below its exact score by at most epsilon times its out degree.
+ */
+@Service
+public class PersonalizedPageRankMethod implements ExpertFindingMethod<PersonalizedPageRankMethod.PersonalizedPageRankRequest> {
+
+    public class PersonalizedPageRankRequest extends DefaultRequest {
+
+        private double lambda;
+        private double epsilon;
+
+        public PersonalizedPageRankRequest() {
+            super();
+        }
+
+        public PersonalizedPageRankRequest(int documents, int results, double lambda, double epsilon) {
+            super(documents, results);
+            this.lambda = lambda;
+            this.epsilon = epsilon;
+        }
+
+        /**
+         * @return probability to follow an edge instead of jumping back to the relevant documents
+         */
+        public double getLambda() {
+            return lambda;
+        }
+
+        public void setLambda(double lambda) {
+            this.lambda = lambda;
+        }
+
+        /**
+         * @return residual per out edge below which a node is not pushed, the relevance of a document is about
+         * 1 / documents, so epsilon must stay well below that
+         */
+        public double getEpsilon() {
+            return epsilon;
+        }
+
+        public void setEpsilon(double epsilon) {
+            this.epsilon = epsilon;
+        }
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(PersonalizedPageRankMethod.class);
+
+    @Override
+    public String getId() {
+        return "personalizedpagerank";
+    }
+
+    @Override
+    public String getName() {
+        return "Personalized Page Rank";
+    }
+
+    @Override
+    public boolean needsCollaborations() {
+        return true;
+    }
+
+    @Override
+    public boolean needsCitations() {
+        return true;
+    }
+
+    @Override
+    public boolean needsPublications() {
+        return true;
+    }
+
+    @Override
+    public PersonalizedPageRankRequest getRequestObject() {
+        return new PersonalizedPageRankRequest(1000, 25, 0.5, 0.0000001);
+    }
+
+    @Override
+    public ExpertFindingResult findExperts(PersonalizedPageRankRequest request, ExpertTopic expertTopic) {
+        double lambda = request.getLambda();
+        Graph graph = expertTopic.getGraph();
+        Push push = new Push(graph, request.getEpsilon());
+
+        double sumRelevance = 0;
+        for(double relevance : expertTopic.getDocumentRelevance().values())
+            sumRelevance += relevance;
+        for(Map.Entry<String, Double> entry : expertTopic.getDocumentRelevance().entrySet()) {
+            if(entry.getValue() > 0)
+                push.add(graph.getDocumentNodeId(entry.getKey()), entry.getValue() / sumRelevance);
+        }
+
+        logger.debug("Push personalized page rank from " + push.size + " documents");
+        long pushes = 0;
+        double remaining = 1;
+        int round = 0;
+        SearchProgress progress = SearchProgress.current();
+        while(push.size > 0) {
+            int node = push.poll();
+            double pushed = push.residual[node];
+            push.residual[node] = 0;
+            push.score[node] += (1 - lambda) * pushed;
+            remaining -= (1 - lambda) * pushed;
+            pushes++;
+
+            // nodes without edges keep nothing of the rest, like in PageRankMethod
+            int degree = push.degree(node);
+            if(degree > 0)
+                push.spread(node, lambda * pushed / degree);
+
+            // one round is as much work as one iteration of PageRankMethod, it reports the residual mass left
+            if(pushes % push.score.length == 0 && !progress.iteration(++round, remaining))
+                break;
+        }
+        logger.debug(pushes + " pushes");
+
+        int documents = push.documents;
+        double[] documentScores = new double[documents];
+        double[] authorScores = new double[push.score.length - documents];
+        System.arraycopy(push.score, 0, documentScores, 0, documents);
+        System.arraycopy(push.score, documents, authorScores, 0, authorScores.length);
+        return new ExpertFindingResult(graph.createDocumentRanking(documentScores), graph.createAuthorRanking(authorScores));
+    }
+
+    /**
+     * Scores, residuals and the queue of the nodes to push. Node ids are the document ids followed by the author ids,
+     * neighbors and degrees are only looked up for nodes that are pushed or reached.
+     */
+    private static class Push {
+
+        private final Graph graph;
+        private final double epsilon;
+        private final String[] documentNodes;
+        private final String[] authorNodes;
+        private final int documents;
+
+        private final double[] score;
+        private final double[] residual;
+        // out degree + 1, 0 if not looked up yet
+        private final int[] degrees;
+        private final int[] queue;
+        private final boolean[] queued;
+        private int head;
+        private int size;
+
+        Push(Graph graph, double epsilon) {
+            this.graph = graph;
+            this.epsilon = epsilon;
+            this.documentNodes = graph.getDocumentNodes();
+            this.authorNodes = graph.getAuthorNodes();
+            this.documents = documentNodes.length;
+
+            int nodes = documents + authorNodes.length;
+            this.score = new double[nodes];
+            this.residual = new double[nodes];
+            this.degrees = new int[nodes];
+            this.queue = new int[nodes];
+            this.queued = new boolean[nodes];
+        }
+
+        int poll() {
+            int node = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[node] = false;
+            return node;
+        }
+
+        /**
+         * Adds to the residual of the node and queues it once the residual exceeds epsilon per out edge.
+         */
+        void add(int node, double mass) {
+            // neighbors outside of the graph take their share with them
+            if(node < 0)
+                return;
+
+            residual[node] += mass;
+            if(queued[node] || residual[node] <= epsilon || residual[node] <= epsilon * degree(node))
+                return;
+
+            queue[(head + size) % queue.length] = node;
+            queued[node] = true;
+            size++;
+        }
+
+        int degree(int node) {
+            if(degrees[node] == 0)
+                degrees[node] = 1 + (node < documents ? graph.getOutDegDocument(documentNodes[node]) : graph.getOutDegAuthor(authorNodes[node - documents]));
+            return degrees[node] - 1;
+        }
+
+        /**
+         * Adds the share to the residual of every neighbor, the edges of PageRankMethod.
+         */
+        void spread(int node, double share) {
+            if(node < documents) {
+                String document = documentNodes[node];
+                List<Citation> cited = graph.getDocumentDocumentOutNeighbors().get(document);
+                if(cited != null) {
+                    for(Citation citation : cited)
+                        add(graph.getDocumentNodeId(citation.getDocument()), share);
+                }
+                List<Authorship> authorships = graph.getDocumentAuthorNeighbors().get(document);
+                if(authorships != null) {
+                    for(Authorship authorship : authorships)
+                        add(author(authorship.getAuthor()), share);
+                }
+            } else {
+                String author = authorNodes[node - documents];
+                List<Collaboration> collaborations = graph.getAuthorAuthorNeighbors().get(author);
+                if(collaborations != null) {
+                    for(Collaboration collaboration : collaborations)
+                        add(author(collaboration.getAuthor()), share);
+                }
+                List<String> written = graph.getAuthorDocumentNeighbors().get(author);
+                if(written != null) {
+                    for(String document : written)
+                        add(graph.getDocumentNodeId(document), share);
+                }
+            }
+        }
+
+        private int author(String author) {
+            int id = graph.getAuthorNodeId(author);
+            return id < 0 ? -1 : documents + id;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.model.graph.Authorship;
+import de.uhh.lt.xpertfinder.model.graph.Citation;
+import de.uhh.lt.xpertfinder.model.graph.Collaboration;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The transition probabilities of the infinite random walks over the node ids of the graph, as compressed rows:
+ * the edges of row i are start[i] until start[i + 1] in the column and weight arrays. Every row lists the nodes a
+ * node receives its score from, so an iteration reads every edge once and writes every score once.
+ *
+ * The full walk moves uniformly over the edges, the weighted walk uses the citation, authorship and collaboration
+ * weights of the graph.
+ */
+class RandomWalkMatrix {
+
+    int documents;
+    int authors;
+
+    // jump probabilities
+    double[] relevance;
+    double[] prior;
+
+    // document <- author
+    int[] documentAuthorStart;
+    int[] documentAuthor;
+    double[] documentAuthorWeight;
+
+    // document <- citing document
+    int[] documentCitingStart;
+    int[] documentCiting;
+    double[] documentCitingWeight;
+
+    // author <- document
+    int[] authorDocumentStart;
+    int[] authorDocument;
+    double[] authorDocumentWeight;
+
+    // author <- coauthor
+    int[] authorCoauthorStart;
+    int[] authorCoauthor;
+    double[] authorCoauthorWeight;
+
+    private RandomWalkMatrix() {
+    }
+
+    /**
+     * @param weighted true for the transitions of the weighted walk, false for the uniform ones of the full walk
+     */
+    static RandomWalkMatrix create(Graph graph, Map<String, Double> documentRelevance, boolean weighted) {
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
+        Map<String, List<Authorship>> documentAuthors = graph.getDocumentAuthorNeighbors();
+        Map<String, List<String>> authorDocuments = graph.getAuthorDocumentNeighbors();
+        Map<String, List<String>> citing = graph.getDocumentDocumentInNeighbors();
+        Map<String, List<Citation>> cited = graph.getDocumentDocumentOutNeighbors();
+        Map<String, List<Collaboration>> coauthors = graph.getAuthorAuthorNeighbors();
+
+        RandomWalkMatrix matrix = new RandomWalkMatrix();
+        matrix.documents = documentNodes.length;
+        matrix.authors = authorNodes.length;
+        matrix.relevance = new double[matrix.documents];
+        matrix.prior = new double[matrix.authors];
+        matrix.documentAuthorStart = new int[matrix.documents + 1];
+        matrix.documentCitingStart = new int[matrix.documents + 1];
+        matrix.authorDocumentStart = new int[matrix.authors + 1];
+        matrix.authorCoauthorStart = new int[matrix.authors + 1];
+
+        // count the edges of every row
+        for(int doc = 0; doc < matrix.documents; doc++) {
+            matrix.relevance[doc] = documentRelevance.getOrDefault(documentNodes[doc], 0d);
+            matrix.documentAuthorStart[doc + 1] = matrix.documentAuthorStart[doc] + size(documentAuthors.get(documentNodes[doc]));
+            matrix.documentCitingStart[doc + 1] = matrix.documentCitingStart[doc] + size(citing.get(documentNodes[doc]));
+        }
+        for(int author = 0; author < matrix.authors; author++) {
+            int written = size(authorDocuments.get(authorNodes[author]));
+            matrix.prior[author] = (double) written / matrix.documents;
+            matrix.authorDocumentStart[author + 1] = matrix.authorDocumentStart[author] + written;
+            matrix.authorCoauthorStart[author + 1] = matrix.authorCoauthorStart[author] + size(coauthors.get(authorNodes[author]));
+        }
+
+        matrix.documentAuthor = new int[matrix.documentAuthorStart[matrix.documents]];
+        matrix.documentAuthorWeight = new double[matrix.documentAuthor.length];
+        matrix.documentCiting = new int[matrix.documentCitingStart[matrix.documents]];
+        matrix.documentCitingWeight = new double[matrix.documentCiting.length];
+        matrix.authorDocument = new int[matrix.authorDocumentStart[matrix.authors]];
+        matrix.authorDocumentWeight = new double[matrix.authorDocument.length];
+        matrix.authorCoauthor = new int[matrix.authorCoauthorStart[matrix.authors]];
+        matrix.authorCoauthorWeight = new double[matrix.authorCoauthor.length];
+
+        for(int doc = 0; doc < matrix.documents; doc++) {
+            String document = documentNodes[doc];
+
+            int edge = matrix.documentAuthorStart[doc];
+            if(documentAuthors.containsKey(document)) {
+                for(Authorship authorship : documentAuthors.get(document)) {
+                    // an author moves to each of its documents alike
+                    edge = set(matrix.documentAuthor, matrix.documentAuthorWeight, edge, graph.getAuthorNodeId(authorship.getAuthor()), 1.0d / authorDocuments.get(authorship.getAuthor()).size());
+                }
+            }
+
+            edge = matrix.documentCitingStart[doc];
+            if(citing.containsKey(document)) {
+                for(String citingDocument : citing.get(document)) {
+                    double weight = weighted ? citationWeight(cited.get(citingDocument), document) : 1.0d / cited.get(citingDocument).size();
+                    edge = set(matrix.documentCiting, matrix.documentCitingWeight, edge, graph.getDocumentNodeId(citingDocument), weight);
+                }
+            }
+        }
+
+        for(int author = 0; author < matrix.authors; author++) {
+            String name = authorNodes[author];
+
+            int edge = matrix.authorDocumentStart[author];
+            if(authorDocuments.containsKey(name)) {
+                for(String document : authorDocuments.get(name)) {
+                    List<Authorship> authorships = documentAuthors.get(document);
+                    double weight = weighted ? authorshipWeight(authorships, name) : 1.0d / authorships.size();
+                    edge = set(matrix.authorDocument, matrix.authorDocumentWeight, edge, graph.getDocumentNodeId(document), weight);
+                }
+            }
+
+            edge = matrix.authorCoauthorStart[author];
+            if(coauthors.containsKey(name)) {
+                for(Collaboration collaboration : coauthors.get(name)) {
+                    List<Collaboration> ofCoauthor = coauthors.get(collaboration.getAuthor());
+                    double weight = weighted ? collaborationWeight(ofCoauthor, name) : 1.0d / ofCoauthor.size();
+                    edge = set(matrix.authorCoauthor, matrix.authorCoauthorWeight, edge, graph.getAuthorNodeId(collaboration.getAuthor()), weight);
+                }
+            }
+        }
+
+        return matrix;
+    }
+
+    /**
+     * @return number of edges, the size of the walk
+     */
+    long size() {
+        return documentAuthor.length + documentCiting.length + authorDocument.length + authorCoauthor.length;
+    }
+
+    private static int set(int[] columns, double[] weights, int edge, int column, double weight) {
+        // edges to nodes outside of the graph carry nothing
+        columns[edge] = Math.max(0, column);
+        weights[edge] = column < 0 ? 0 : weight;
+        return edge + 1;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private static double citationWeight(List<Citation> citations, String document) {
+        for(Citation citation : citations) {
+            if(citation.getDocument().equals(document))
+                return citation.getWeight();
+        }
+        return 0;
+    }
+
+    private static double authorshipWeight(List<Authorship> authorships, String author) {
+        for(Authorship authorship : authorships) {
+            if(authorship.getAuthor().equals(author))
+                return authorship.getWeight();
+        }
+        return 0;
+    }
+
+    private static double collaborationWeight(List<Collaboration> collaborations, String author) {
+        for(Collaboration collaboration : collaborations) {
+            if(collaboration.getAuthor().equals(author))
+                return collaboration.getWeight();
+        }
+        return 0;
+    }
+}
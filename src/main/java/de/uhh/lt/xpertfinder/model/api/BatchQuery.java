@@ -0,0 +1,80 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query of the batch api: every topic is ranked with every method configuration.
+ * Year range, title filter and graph options apply to all of them.
+ */
+public class BatchQuery {
+
+    private List<String> topics = new ArrayList<>();
+    private List<MethodConfiguration> methods = new ArrayList<>();
+    private int yearFrom = 1965;
+    private int yearTo = 2016;
+    private boolean includeTitle;
+    private GraphOptions options;
+    private boolean includeDocuments;
+
+    public BatchQuery() {
+    }
+
+    public List<String> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(List<String> topics) {
+        this.topics = topics;
+    }
+
+    public List<MethodConfiguration> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<MethodConfiguration> methods) {
+        this.methods = methods;
+    }
+
+    public int getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(int yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public int getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(int yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public boolean isIncludeTitle() {
+        return includeTitle;
+    }
+
+    public void setIncludeTitle(boolean includeTitle) {
+        this.includeTitle = includeTitle;
+    }
+
+    public GraphOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(GraphOptions options) {
+        this.options = options;
+    }
+
+    public boolean isIncludeDocuments() {
+        return includeDocuments;
+    }
+
+    public void setIncludeDocuments(boolean includeDocuments) {
+        this.includeDocuments = includeDocuments;
+    }
+}
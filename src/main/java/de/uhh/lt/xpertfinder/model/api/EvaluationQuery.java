@@ -0,0 +1,97 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query of the offline evaluation: every topic is ranked with every combination of every method grid.
+ * With judgments the rankings of the experts are scored against them.
+ */
+public class EvaluationQuery {
+
+    private List<String> topics = new ArrayList<>();
+    private List<MethodGrid> methods = new ArrayList<>();
+    private int yearFrom = 1965;
+    private int yearTo = 2016;
+    private boolean includeTitle;
+    private GraphOptions options;
+    private Map<String, Map<String, Integer>> judgments;
+    private int cutoff = 10;
+
+    public EvaluationQuery() {
+    }
+
+    public List<String> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(List<String> topics) {
+        this.topics = topics;
+    }
+
+    public List<MethodGrid> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<MethodGrid> methods) {
+        this.methods = methods;
+    }
+
+    public int getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(int yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public int getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(int yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public boolean isIncludeTitle() {
+        return includeTitle;
+    }
+
+    public void setIncludeTitle(boolean includeTitle) {
+        this.includeTitle = includeTitle;
+    }
+
+    public GraphOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(GraphOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * @return relevance grades of the authors per topic, e.g. {"parsing": {"Collins, Michael": 2}}, authors
+     * without a grade are not relevant, null to write the rankings without scoring them
+     */
+    public Map<String, Map<String, Integer>> getJudgments() {
+        return judgments;
+    }
+
+    public void setJudgments(Map<String, Map<String, Integer>> judgments) {
+        this.judgments = judgments;
+    }
+
+    /**
+     * @return rank up to which precision, recall and ndcg are computed
+     */
+    public int getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(int cutoff) {
+        this.cutoff = cutoff;
+    }
+}
@@ -0,0 +1,123 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One run of the evaluation, a method configuration on a topic, or the summary of a method configuration
+ * over all topics. Summaries have no topic and no ranking, their metrics and latency are the means of the runs.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EvaluationResult {
+
+    private String topic;
+    private String method;
+    private Map<String, Object> request;
+    private String error;
+    private Integer runs;
+    private Double millis;
+    private Integer iterations;
+    private Integer documentCount;
+    private Integer authorCount;
+    private Map<String, Double> metrics;
+    private List<RankedNode> experts;
+
+    public EvaluationResult(String topic, String method, Map<String, Object> request) {
+        this.topic = topic;
+        this.method = method;
+        this.request = request;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the parameters of the configuration that differ from the defaults of the method
+     */
+    public Map<String, Object> getRequest() {
+        return request;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return number of successful runs of a summary, null for a run
+     */
+    public Integer getRuns() {
+        return runs;
+    }
+
+    public void setRuns(Integer runs) {
+        this.runs = runs;
+    }
+
+    /**
+     * @return wall time of the method in milliseconds
+     */
+    public Double getMillis() {
+        return millis;
+    }
+
+    public void setMillis(Double millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * @return iterations of the method, the mean over the runs that iterated in a summary, null if it did not iterate
+     */
+    public Integer getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(Integer iterations) {
+        this.iterations = iterations;
+    }
+
+    public Integer getDocumentCount() {
+        return documentCount;
+    }
+
+    public void setDocumentCount(Integer documentCount) {
+        this.documentCount = documentCount;
+    }
+
+    public Integer getAuthorCount() {
+        return authorCount;
+    }
+
+    public void setAuthorCount(Integer authorCount) {
+        this.authorCount = authorCount;
+    }
+
+    /**
+     * @return quality of the expert ranking, null without judgments for the topic
+     */
+    public Map<String, Double> getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Map<String, Double> metrics) {
+        this.metrics = metrics;
+    }
+
+    public List<RankedNode> getExperts() {
+        return experts;
+    }
+
+    public void setExperts(List<RankedNode> experts) {
+        this.experts = experts;
+    }
+}
@@ -0,0 +1,82 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import java.util.Map;
+
+/**
+ * Load and queue wait statistics of one admission lane.
+ */
+public class LaneStatus {
+
+    private String name;
+    private int capacity;
+    private int available;
+    private int waiting;
+    private int maxQueue;
+    private long admitted;
+    private long rejected;
+    private double meanWaitMillis;
+    private double maxWaitMillis;
+    private Map<String, Long> waitHistogram;
+
+    public LaneStatus(String name, int capacity, int available, int waiting, int maxQueue, long admitted, long rejected, double meanWaitMillis, double maxWaitMillis, Map<String, Long> waitHistogram) {
+        this.name = name;
+        this.capacity = capacity;
+        this.available = available;
+        this.waiting = waiting;
+        this.maxQueue = maxQueue;
+        this.admitted = admitted;
+        this.rejected = rejected;
+        this.meanWaitMillis = meanWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.waitHistogram = waitHistogram;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return cost units that may run at the same time
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return cost units that are not in use
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public double getMeanWaitMillis() {
+        return meanWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * @return number of admissions per queue wait bucket, keyed by the upper bound of the bucket in milliseconds
+     */
+    public Map<String, Long> getWaitHistogram() {
+        return waitHistogram;
+    }
+}
@@ -0,0 +1,36 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import java.util.Map;
+
+/**
+ * Method id and request parameters of a batch, missing parameters keep the defaults of the method.
+ */
+public class MethodConfiguration {
+
+    private String method = "inifiniterandomfull";
+    private Map<String, Object> request;
+
+    public MethodConfiguration() {
+    }
+
+    public MethodConfiguration(String method, Map<String, Object> request) {
+        this.method = method;
+        this.request = request;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Map<String, Object> getRequest() {
+        return request;
+    }
+
+    public void setRequest(Map<String, Object> request) {
+        this.request = request;
+    }
+}
@@ -0,0 +1,63 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+/**
+ * Resources the executions of one expert finding method used, as means over all executions.
+ * Cpu time and allocation are -1 if the jvm does not measure them.
+ */
+public class MethodCost {
+
+    private String method;
+    private long invocations;
+    private double meanWallMillis;
+    private double maxWallMillis;
+    private double meanCpuMillis;
+    private double meanAllocatedMegabytes;
+    private double meanIterations;
+    private double meanGraphSize;
+
+    public MethodCost(String method, long invocations, double meanWallMillis, double maxWallMillis, double meanCpuMillis, double meanAllocatedMegabytes, double meanIterations, double meanGraphSize) {
+        this.method = method;
+        this.invocations = invocations;
+        this.meanWallMillis = meanWallMillis;
+        this.maxWallMillis = maxWallMillis;
+        this.meanCpuMillis = meanCpuMillis;
+        this.meanAllocatedMegabytes = meanAllocatedMegabytes;
+        this.meanIterations = meanIterations;
+        this.meanGraphSize = meanGraphSize;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public double getMeanWallMillis() {
+        return meanWallMillis;
+    }
+
+    public double getMaxWallMillis() {
+        return maxWallMillis;
+    }
+
+    public double getMeanCpuMillis() {
+        return meanCpuMillis;
+    }
+
+    public double getMeanAllocatedMegabytes() {
+        return meanAllocatedMegabytes;
+    }
+
+    public double getMeanIterations() {
+        return meanIterations;
+    }
+
+    /**
+     * @return mean number of nodes and edges of the graphs the method ran on
+     */
+    public double getMeanGraphSize() {
+        return meanGraphSize;
+    }
+}
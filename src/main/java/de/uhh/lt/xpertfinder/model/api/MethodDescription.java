@@ -0,0 +1,26 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+public class MethodDescription {
+
+    private String id;
+    private String name;
+    private Object request;
+
+    public MethodDescription(String id, String name, Object request) {
+        this.id = id;
+        this.name = name;
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getRequest() {
+        return request;
+    }
+}
@@ -0,0 +1,45 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A method with a grid of request parameters for the evaluation: the method runs once for every combination
+ * of the values in the grid, the parameters in request apply to all of them, the others keep their defaults.
+ */
+public class MethodGrid {
+
+    private String method = "inifiniterandomfull";
+    private Map<String, Object> request;
+    private Map<String, List<Object>> grid;
+
+    public MethodGrid() {
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Map<String, Object> getRequest() {
+        return request;
+    }
+
+    public void setRequest(Map<String, Object> request) {
+        this.request = request;
+    }
+
+    /**
+     * @return the values of every varied parameter, e.g. {"lambda": [0.5, 0.7, 0.9]}
+     */
+    public Map<String, List<Object>> getGrid() {
+        return grid;
+    }
+
+    public void setGrid(Map<String, List<Object>> grid) {
+        this.grid = grid;
+    }
+}
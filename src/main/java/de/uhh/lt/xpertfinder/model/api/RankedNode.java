@@ -0,0 +1,29 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankedNode {
+
+    private String name;
+    private Long id;
+    private double score;
+
+    public RankedNode(String name, Long id, double score) {
+        this.name = name;
+        this.id = id;
+        this.score = score;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
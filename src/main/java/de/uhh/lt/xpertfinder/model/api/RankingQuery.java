@@ -0,0 +1,101 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+
+import java.util.Map;
+
+/**
+ * Query of the ranking api. Parameters missing from the method request are taken from the
+ * default request object of the method.
+ */
+public class RankingQuery {
+
+    private String topic;
+    private int yearFrom = 1965;
+    private int yearTo = 2016;
+    private boolean includeTitle;
+    private String method = "inifiniterandomfull";
+    private Map<String, Object> request;
+    private GraphOptions options;
+    private boolean includeDocuments = true;
+    private Long budget;
+
+    public RankingQuery() {
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public int getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(int yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public int getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(int yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public boolean isIncludeTitle() {
+        return includeTitle;
+    }
+
+    public void setIncludeTitle(boolean includeTitle) {
+        this.includeTitle = includeTitle;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Map<String, Object> getRequest() {
+        return request;
+    }
+
+    public void setRequest(Map<String, Object> request) {
+        this.request = request;
+    }
+
+    public GraphOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(GraphOptions options) {
+        this.options = options;
+    }
+
+    public boolean isIncludeDocuments() {
+        return includeDocuments;
+    }
+
+    public void setIncludeDocuments(boolean includeDocuments) {
+        this.includeDocuments = includeDocuments;
+    }
+
+    /**
+     * @return milliseconds the query may take, null for no limit. Under a budget a cheaper method may
+     * be used and iterating methods stop when it runs out.
+     */
+    public Long getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Long budget) {
+        this.budget = budget;
+    }
+}
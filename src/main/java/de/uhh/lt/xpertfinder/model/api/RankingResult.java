@@ -0,0 +1,177 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankingResult {
+
+    private Integer index;
+    private String topic;
+    private String method;
+    private String requestedMethod;
+    private Integer iterations;
+    private Double millis;
+    private Integer sharedRun;
+    private Boolean truncated;
+    private Integer savedIterations;
+    private String error;
+    private String degraded;
+    private boolean foundResult;
+    private int documentCount;
+    private int authorCount;
+    private List<RankedNode> experts;
+    private List<RankedNode> documents;
+
+    public RankingResult(String topic, String method, boolean foundResult) {
+        this.topic = topic;
+        this.method = method;
+        this.foundResult = foundResult;
+    }
+
+    /**
+     * @return position of the topic and method in a batch, null outside of batches
+     */
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * @return the method of the query if another method was used to meet the budget, null otherwise
+     */
+    public String getRequestedMethod() {
+        return requestedMethod;
+    }
+
+    public void setRequestedMethod(String requestedMethod) {
+        this.requestedMethod = requestedMethod;
+    }
+
+    /**
+     * @return iterations of the used method, 0 if it does not iterate
+     */
+    public Integer getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(Integer iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return wall time of the used method in milliseconds, without the selection of the documents and the graph
+     */
+    public Double getMillis() {
+        return millis;
+    }
+
+    public void setMillis(Double millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * @return number of requests ranked in the same run of the method, e.g. the settings of a grid, their millis are
+     * an equal share of that run, null if the request was ranked alone
+     */
+    public Integer getSharedRun() {
+        return sharedRun;
+    }
+
+    public void setSharedRun(Integer sharedRun) {
+        this.sharedRun = sharedRun;
+    }
+
+    /**
+     * @return true if the method stopped before convergence because the budget ran out, null otherwise
+     */
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * @return estimated iterations the method saved by stopping once the top experts were settled, null if it did not
+     */
+    public Integer getSavedIterations() {
+        return savedIterations;
+    }
+
+    public void setSavedIterations(Integer savedIterations) {
+        this.savedIterations = savedIterations;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return why and how the result was computed with less effort than requested, null if it was not
+     */
+    public String getDegraded() {
+        return degraded;
+    }
+
+    public void setDegraded(String degraded) {
+        this.degraded = degraded;
+    }
+
+    public boolean isFoundResult() {
+        return foundResult;
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public void setDocumentCount(int documentCount) {
+        this.documentCount = documentCount;
+    }
+
+    public int getAuthorCount() {
+        return authorCount;
+    }
+
+    public void setAuthorCount(int authorCount) {
+        this.authorCount = authorCount;
+    }
+
+    public List<RankedNode> getExperts() {
+        return experts;
+    }
+
+    public void setExperts(List<RankedNode> experts) {
+        this.experts = experts;
+    }
+
+    public List<RankedNode> getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(List<RankedNode> documents) {
+        this.documents = documents;
+    }
+}
@@ -0,0 +1,156 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A ranking query that runs in the background. The job reports the stage of the search, the iterations
+ * of the method and, once it is done, the result or the error.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchJob {
+
+    private final String id;
+    private final RankingQuery query;
+    private final SearchProgress progress;
+    private final Deadline deadline = Deadline.cancellable();
+    private final List<Consumer<SearchJob>> listeners = new CopyOnWriteArrayList<>();
+
+    private final long submitted = System.currentTimeMillis();
+    private volatile Long started;
+    private volatile Long finished;
+    private volatile RankingResult result;
+    private volatile String error;
+
+    public SearchJob(String id, RankingQuery query) {
+        this.id = id;
+        this.query = query;
+        this.progress = new SearchProgress(p -> notifyListeners());
+    }
+
+    public void start() {
+        started = System.currentTimeMillis();
+    }
+
+    public void complete(RankingResult result) {
+        this.result = result;
+        this.finished = System.currentTimeMillis();
+        progress.stage(SearchProgress.Stage.DONE);
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finished = System.currentTimeMillis();
+        progress.stage(SearchProgress.Stage.FAILED);
+    }
+
+    /**
+     * Stops the search at the next check of its deadline, the job then fails.
+     */
+    public void cancel() {
+        deadline.cancel();
+    }
+
+    /**
+     * @param listener called on the job thread whenever the job makes progress
+     */
+    public void addListener(Consumer<SearchJob> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<SearchJob> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners() {
+        for(Consumer<SearchJob> listener : listeners)
+            listener.accept(this);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTopic() {
+        return query.getTopic();
+    }
+
+    public String getMethod() {
+        return query.getMethod();
+    }
+
+    @JsonIgnore
+    public RankingQuery getQuery() {
+        return query;
+    }
+
+    @JsonIgnore
+    public SearchProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return the cancellation token the search of the job runs with
+     */
+    @JsonIgnore
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return true if the job was cancelled, null otherwise
+     */
+    public Boolean getCancelled() {
+        return deadline.isCancelled() ? true : null;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return finished != null;
+    }
+
+    public SearchProgress.Stage getStage() {
+        return progress.getStage();
+    }
+
+    public long getStageStarted() {
+        return progress.getStageStarted();
+    }
+
+    public int getIteration() {
+        return progress.getIteration();
+    }
+
+    /**
+     * @return residual of the last iteration, null if the method does not report one
+     */
+    public Double getResidual() {
+        return Double.isNaN(progress.getResidual()) ? null : progress.getResidual();
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public Long getStarted() {
+        return started;
+    }
+
+    public Long getFinished() {
+        return finished;
+    }
+
+    public RankingResult getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
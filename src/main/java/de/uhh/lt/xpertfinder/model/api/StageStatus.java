@@ -0,0 +1,73 @@
+package de.uhh.lt.xpertfinder.model.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Latency and size statistics of one stage of the searches, for one method.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StageStatus {
+
+    private String stage;
+    private String method;
+    private long count;
+    private double meanMillis;
+    private double maxMillis;
+    private Map<String, Long> histogram;
+    private double meanSize;
+    private long maxSize;
+
+    public StageStatus(String stage, String method, long count, double meanMillis, double maxMillis, Map<String, Long> histogram, double meanSize, long maxSize) {
+        this.stage = stage;
+        this.method = method;
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.maxMillis = maxMillis;
+        this.histogram = histogram;
+        this.meanSize = meanSize;
+        this.maxSize = maxSize;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return id of the method the stage worked for, null for stages outside of a method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * @return number of measurements per latency bucket, keyed by the upper bound of the bucket in milliseconds
+     */
+    public Map<String, Long> getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return mean number of items the stage produced, e.g. documents, rows or iterations
+     */
+    public double getMeanSize() {
+        return meanSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
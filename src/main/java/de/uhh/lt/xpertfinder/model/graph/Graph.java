@@ -1,6 +1,11 @@
 package de.uhh.lt.xpertfinder.model.graph;
 
 import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.GraphDao;
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.Ranking;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.finder.StageMetrics;
 import de.uhh.lt.xpertfinder.model.d3js.Link;
 import de.uhh.lt.xpertfinder.model.d3js.Miserables;
 import de.uhh.lt.xpertfinder.model.d3js.Node;
@@ -19,6 +24,7 @@ public class Graph {
 
     // dependencies
     private AanDao aanDao;
+    private GraphDao graphDao;
 
     // parameters
     private boolean publication;
@@ -30,6 +36,12 @@ public class Graph {
     private Set<String> authors = new HashSet<>();
     private Set<String> docs = new HashSet<>();
 
+    // node ids: position of the author / document in the node array
+    private String[] authorNodes;
+    private String[] documentNodes;
+    private Map<String, Integer> authorNodeIds;
+    private Map<String, Integer> documentNodeIds;
+
     // maps
     private Map<String, Long> authorIdMap = new HashMap<>();
 
@@ -40,6 +52,7 @@ public class Graph {
     private Map<String, List<Citation>> documentDocumentOutNeighbors = new HashMap<>();  // document1 --> document2: outgoing document 1
     private Map<String, List<String>> documentDocumentInNeighbors = new HashMap<>();  // document1 --> document2: incoming document 2
     private Map<String, List<Collaboration>> authorAuthorNeighbors = new HashMap<>();      // author1 <--> author2
+    private volatile GraphAdjacency adjacency;  // all edges by node ids, built on first use
 
     // stats
     private int numDocDoc;
@@ -51,8 +64,16 @@ public class Graph {
     private Map<String, Integer> localCollaborations = new HashMap<>();
     private Map<String, Integer> documentYear = new HashMap<>();
 
-    public Graph(AanDao aanDao, List<String> topDocuments, boolean publication, boolean collaboration, boolean citation, GraphOptions options) {
+    public Graph(AanDao aanDao, GraphDao graphDao, List<String> topDocuments, boolean publication, boolean collaboration, boolean citation, GraphOptions options) {
+        this(aanDao, graphDao, topDocuments, publication, collaboration, citation, options, null);
+    }
+
+    /**
+     * @param globalHindex global hindex of all authors, e.g. from the StatisticService, or null to compute it for this graph
+     */
+    public Graph(AanDao aanDao, GraphDao graphDao, List<String> topDocuments, boolean publication, boolean collaboration, boolean citation, GraphOptions options, Map<String, Integer> globalHindex) {
         this.aanDao = aanDao;
+        this.graphDao = graphDao;
         this.publication = publication;
         this.collaboration = collaboration;
         this.citation = citation;
@@ -61,29 +82,62 @@ public class Graph {
         // all top documents are nodes in the graph
         docs.addAll(topDocuments);
 
-        // extract nodes & edges from top docs
+        // extract nodes & edges from top docs, a graph without some of its relations is of no use, so the
+        // deadline ends the construction instead of returning a partial graph
+        Deadline deadline = Deadline.current();
         extractPublications();
+        deadline.check("extracting collaborations");
         extractCollaborations();
+        deadline.check("extracting citations");
         extractCitations();
 
+        // number the nodes
+        createNodeIds();
+
         // create author <--> id map
         createAuthorIdMap();
 
         // get additional information from db
+        deadline.check("pulling collaborations and years");
         pullLocalCollaborations();
         pullDocumentYear();
 
         // calculate additional information
-        hindexService = new HindexService(aanDao, this);
+        deadline.check("computing the hindex");
+        SearchProgress.current().stage(SearchProgress.Stage.HINDEX);
+        StageMetrics.Sample hindex = StageMetrics.get().start(StageMetrics.Stage.HINDEX);
+        hindexService = new HindexService(aanDao, this, globalHindex);
+        hindex.stop(authors.size());
 
         // calculate graph
+        StageMetrics.Sample weighting = StageMetrics.get().start(StageMetrics.Stage.WEIGHTING);
         calculateCollaborationWeights(options.isCollaborationTF(), options.isCollaborationIDF());
         calculateCitationWeights(options.isCitationTF() , options.isCitationIDF());
         calculateAuthorshipWeights(options.isAuthorshipTF());
+        weighting.stop(numAuthDoc + numDocDoc + numAuthAuth);
+    }
+
+    private void createNodeIds() {
+        // the edges by node ids are built again for the new nodes
+        adjacency = null;
+
+        authorNodes = authors.toArray(new String[0]);
+        authorNodeIds = new HashMap<>(authorNodes.length * 2);
+        for(int i = 0; i < authorNodes.length; i++) {
+            authorNodeIds.put(authorNodes[i], i);
+        }
+
+        documentNodes = docs.toArray(new String[0]);
+        documentNodeIds = new HashMap<>(documentNodes.length * 2);
+        for(int i = 0; i < documentNodes.length; i++) {
+            documentNodeIds.put(documentNodes[i], i);
+        }
     }
 
     private void createAuthorIdMap() {
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.AUTHOR_IDS);
         List<Object[]> authorIdMapping = aanDao.findAllAuthorIds(authors);
+        sample.stop(authorIdMapping.size());
         for(Object[] mapping : authorIdMapping) {
             authorIdMap.put((String) mapping[0], ((BigInteger)mapping[1]).longValue());
         }
@@ -97,7 +151,9 @@ public class Graph {
 
         // get authors -> author relations from top relevant authors
         logger.debug("Pull Local Collaborations");
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.LOCAL_COLLABORATIONS);
         List<Object[]> collaborations = aanDao.findLocalCollaborations(new ArrayList<>(docs));
+        sample.stop(collaborations.size());
         for(Object[] info : collaborations) {
             localCollaborations.put(info[0] + " " + info[1], ((BigInteger) info[2]).intValue());
         }
@@ -105,27 +161,27 @@ public class Graph {
 
     private void pullDocumentYear() {
         logger.debug("Pull Document Year");
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.DOCUMENT_YEARS);
         List<Object[]> list = aanDao.findDocumentYear(new ArrayList<>(docs));
+        sample.stop(list.size());
         for(Object[] info : list) {
             documentYear.put((String) info[0], (int) info[1]);
         }
     }
 
-    private <T> void fillMap(Map<String, List<T>> map, Object[] data, boolean swapped) {
-        Object data0 = swapped ? data[1] : data[0];
-        Object data1 = swapped ? data[0] : data[1];
+    // the construction stages are package-private so the benchmarks can run them on their own, they can run
+    // again on a built graph, the extract stages replace the edges and the weight stages the weights
 
-        if (!map.containsKey(data0)) {
-            List<T> list = new ArrayList<>();
-            list.add((T) data1);
-            map.put((String) data0, list);
-        } else {
-            List<T> documents = map.get(data0);
-            documents.add((T) data1);
+    <T> void fillMap(Map<String, List<T>> map, String key, T value) {
+        List<T> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
         }
+        list.add(value);
     }
 
-    private void extractPublications() {
+    void extractPublications() {
         if(!(publication || collaboration))
             return;
 
@@ -134,39 +190,20 @@ public class Graph {
 
         // get authors -> document relations from top relevant documents
         logger.debug("Get author - document relations");
-        List<Object[]> publications = aanDao.findAllPublicationsAAN(topDocuments);
-        System.out.println(publications.size());
-        this.numAuthDoc = publications.size();
-
-        for(Object[] info : publications) { // info[0] = author; info[1] = document
-
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.PUBLICATIONS);
+        this.numAuthDoc = graphDao.streamPublications(topDocuments, (author, document) -> {
             if (publication) {
-               if (!documentAuthorNeighbors.containsKey(info[1])) {
-                    List<Authorship> as = new ArrayList<>();
-                    as.add(new Authorship((String) info[0]));
-                    documentAuthorNeighbors.put((String) info[1], as);
-                } else {
-                    List<Authorship> as = documentAuthorNeighbors.get(info[1]);
-                    as.add(new Authorship((String) info[0]));
-                }
-
-                fillMap(authorDocumentNeighbors, info, false);
-//
-//                if (!authorDocumentNeighbors.containsKey(info[0])) {
-//                    List<String> documents = new ArrayList<>();
-//                    documents.add((String) info[1]);
-//                    authorDocumentNeighbors.put((String) info[0], documents);
-//                } else {
-//                    List<String> documents = authorDocumentNeighbors.get(info[0]);
-//                    documents.add((String) info[1]);
-//                }
-                docs.add((String) info[1]);
+                fillMap(documentAuthorNeighbors, document, new Authorship(author));
+                fillMap(authorDocumentNeighbors, author, document);
+                docs.add(document);
             }
-            authors.add((String) info[0]);
-        }
+            authors.add(author);
+        });
+        sample.stop(numAuthDoc);
+        logger.debug(numAuthDoc + " author - document relations");
     }
 
-    private void extractCollaborations() {
+    void extractCollaborations() {
         if(!collaboration)
             return;
 
@@ -174,95 +211,43 @@ public class Graph {
 
         // get authors -> author relations from top relevant authors
         logger.debug("Get author - author relations");
-        List<Object[]> collaborations = aanDao.findAllCollaborationsAAN2(new ArrayList<>(authors));
-        System.out.println(collaborations.size());
-        this.numAuthAuth = collaborations.size();
-
-        for(Object[] info : collaborations) { // info[0] = author1; info[1] = author2
-
-            if(!authorAuthorNeighbors.containsKey(info[0])) {
-                List<Collaboration> collaborations1 = new ArrayList<>();
-                collaborations1.add(new Collaboration((String) info[1], (int) info[2]));
-                authorAuthorNeighbors.put((String) info[0], collaborations1);
-            } else {
-                List<Collaboration> collaborations1 = authorAuthorNeighbors.get(info[0]);
-                collaborations1.add(new Collaboration((String) info[1], (int) info[2]));
-            }
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.COLLABORATIONS);
+        this.numAuthAuth = graphDao.streamCollaborations(new ArrayList<>(authors), (author1, author2, count) -> {
+            fillMap(authorAuthorNeighbors, author1, new Collaboration(author2, count));
+            fillMap(authorAuthorNeighbors, author2, new Collaboration(author1, count));
 
-            if(!authorAuthorNeighbors.containsKey(info[1])) {
-                List<Collaboration> collaborations1 = new ArrayList<>();
-                collaborations1.add(new Collaboration((String) info[0], (int) info[2]));
-                authorAuthorNeighbors.put((String) info[1], collaborations1);
-            } else {
-                List<Collaboration> collaborations1 = authorAuthorNeighbors.get(info[1]);
-                collaborations1.add(new Collaboration((String) info[0], (int) info[2]));
-            }
-
-            authors.add((String) info[0]);
-            authors.add((String) info[1]);
-        }
+            authors.add(author1);
+            authors.add(author2);
+        });
+        sample.stop(numAuthAuth);
+        logger.debug(numAuthAuth + " author - author relations");
     }
 
-    private void extractCitations() {
+    void extractCitations() {
         if(!citation)
             return;
 
         documentDocumentOutNeighbors.clear();
         documentDocumentInNeighbors.clear();
+        documentDocumentNeighbors.clear();
 
         // get document -> document relations from top relevant documents
         logger.debug("Get document - document relations");
-        List<Object[]> citations = aanDao.findAllCitationsAAN(topDocuments);
-        System.out.println(citations.size());
-        this.numDocDoc = citations.size();
-
-        for(Object[] info : citations) { // info[0] = outgoingDocument; info[1] = incomingDocument
-            if(!documentDocumentOutNeighbors.containsKey(info[0])) {
-                List<Citation> documents = new ArrayList<>();
-                documents.add(new Citation((String) info[1]));
-                documentDocumentOutNeighbors.put((String) info[0], documents);
-            } else {
-                List<Citation> documents = documentDocumentOutNeighbors.get(info[0]);
-                documents.add(new Citation((String) info[1]));
-            }
+        StageMetrics.Sample sample = StageMetrics.get().start(StageMetrics.Stage.CITATIONS);
+        this.numDocDoc = graphDao.streamCitations(topDocuments, (outgoing, incoming) -> {
+            fillMap(documentDocumentOutNeighbors, outgoing, new Citation(incoming));
+            fillMap(documentDocumentInNeighbors, incoming, outgoing);
+            fillMap(documentDocumentNeighbors, outgoing, incoming);
+            fillMap(documentDocumentNeighbors, incoming, outgoing);
 
-            fillMap(documentDocumentInNeighbors, info, true);
-            fillMap(documentDocumentNeighbors, info, false);
-            fillMap(documentDocumentNeighbors, info, true);
-
-//            if(!documentDocumentInNeighbors.containsKey(info[1])) {
-//                List<String> documents = new ArrayList<>();
-//                documents.add((String) info[0]);
-//                documentDocumentInNeighbors.put((String) info[1], documents);
-//            } else {
-//                List<String> documents = documentDocumentInNeighbors.get(info[1]);
-//                documents.add((String) info[0]);
-//            }
-//
-//            if(!documentDocumentNeighbors.containsKey(info[0])) {
-//                List<String> documents = new ArrayList<>();
-//                documents.add((String) info[1]);
-//                documentDocumentNeighbors.put((String) info[0], documents);
-//            } else {
-//                List<String> documents = documentDocumentNeighbors.get(info[0]);
-//                documents.add((String) info[1]);
-//            }
-//
-//            if(!documentDocumentNeighbors.containsKey(info[1])) {
-//                List<String> documents = new ArrayList<>();
-//                documents.add((String) info[0]);
-//                documentDocumentNeighbors.put((String) info[1], documents);
-//            } else {
-//                List<String> documents = documentDocumentNeighbors.get(info[1]);
-//                documents.add((String) info[0]);
-//            }
-
-            docs.add((String) info[0]);
-            docs.add((String) info[1]);
-        }
+            docs.add(outgoing);
+            docs.add(incoming);
+        });
+        sample.stop(numDocDoc);
+        logger.debug(numDocDoc + " document - document relations");
     }
 
-    private void calculateAuthorshipWeights(boolean active) {
+    void calculateAuthorshipWeights(boolean active) {
         if(!publication)
             return;
 
@@ -294,7 +279,7 @@ public class Graph {
         }
     }
 
-    private void calculateCitationWeights(boolean activeTf, boolean activeIdf) {
+    void calculateCitationWeights(boolean activeTf, boolean activeIdf) {
         if(!citation)
             return;
 
@@ -347,7 +332,7 @@ public class Graph {
         }
     }
 
-    private void calculateCollaborationWeights(boolean activeTf, boolean activeIdf) {
+    void calculateCollaborationWeights(boolean activeTf, boolean activeIdf) {
         if(!collaboration)
             return;
 
@@ -447,10 +432,81 @@ public class Graph {
         return docs;
     }
 
+    public String[] getAuthorNodes() {
+        return authorNodes;
+    }
+
+    public String[] getDocumentNodes() {
+        return documentNodes;
+    }
+
+    public int getAuthorNodeId(String author) {
+        return authorNodeIds.getOrDefault(author, -1);
+    }
+
+    public int getDocumentNodeId(String document) {
+        return documentNodeIds.getOrDefault(document, -1);
+    }
+
+    /**
+     * @param scores author scores indexed by node id
+     */
+    public Ranking createAuthorRanking(double[] scores) {
+        return new Ranking(authorNodes, authorNodeIds, scores);
+    }
+
+    /**
+     * @param scores document scores indexed by node id
+     */
+    public Ranking createDocumentRanking(double[] scores) {
+        return new Ranking(documentNodes, documentNodeIds, scores);
+    }
+
+    /**
+     * @param relevanceMap author scores by name, authors that are not nodes of this graph are left out
+     */
+    public Ranking createAuthorRanking(Map<String, Double> relevanceMap) {
+        return createRanking(authorNodes, authorNodeIds, relevanceMap);
+    }
+
+    /**
+     * @param relevanceMap document scores by name, documents that are not nodes of this graph are left out, so the
+     * scores of the ranking are always indexed by node id
+     */
+    public Ranking createDocumentRanking(Map<String, Double> relevanceMap) {
+        return createRanking(documentNodes, documentNodeIds, relevanceMap);
+    }
+
+    private static Ranking createRanking(String[] nodes, Map<String, Integer> nodeIds, Map<String, Double> relevanceMap) {
+        double[] scores = new double[nodes.length];
+        Arrays.fill(scores, Double.NaN);
+        for(Map.Entry<String, Double> entry : relevanceMap.entrySet()) {
+            Integer id = nodeIds.get(entry.getKey());
+            if(id == null) // not a node of this graph
+                continue;
+
+            scores[id] = entry.getValue() != null ? entry.getValue() : Double.NaN;
+        }
+        return new Ranking(nodes, nodeIds, scores);
+    }
+
     public Map<String, List<Authorship>> getDocumentAuthorNeighbors() {
         return documentAuthorNeighbors;
     }
 
+    /**
+     * @return the edges by node ids, built once and shared by all methods on this graph
+     */
+    public GraphAdjacency getAdjacency() {
+        GraphAdjacency built = adjacency;
+        if(built != null)
+            return built;
+
+        // threads that build it at the same time build the same arrays
+        adjacency = built = new GraphAdjacency(this);
+        return built;
+    }
+
     public Map<String, List<String>> getAuthorDocumentNeighbors() {
         return authorDocumentNeighbors;
     }
@@ -535,8 +591,7 @@ public class Graph {
         for(Link l : links) {
             count += l.isDoubled() ? 1 : 0;
         }
-        System.out.println(links.size());
-        System.out.println(count);
+        logger.debug(links.size() + " links, " + count + " doubled");
         return new Miserables(nodes, links);
     }
 
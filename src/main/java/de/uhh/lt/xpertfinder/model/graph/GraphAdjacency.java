@@ -0,0 +1,95 @@
+package de.uhh.lt.xpertfinder.model.graph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The edges of the graph over the node ids, in the direction a walker moves: the neighbors of node i are start[i]
+ * until start[i + 1] in the neighbor array. Neighbors that are not nodes of the graph are -1, they keep their
+ * share of the transitions like in the walks over the neighbor maps.
+ *
+ * The graph builds its adjacency once and all methods on the graph share it, the arrays must not be changed.
+ */
+public class GraphAdjacency {
+
+    public final int documents;
+    public final int authors;
+
+    // document -> its authors
+    public final int[] documentAuthorStart;
+    public final int[] documentAuthor;
+
+    // document -> the documents it cites
+    public final int[] documentCitedStart;
+    public final int[] documentCited;
+
+    // author -> its documents
+    public final int[] authorDocumentStart;
+    public final int[] authorDocument;
+
+    // author -> its coauthors
+    public final int[] authorCoauthorStart;
+    public final int[] authorCoauthor;
+
+    GraphAdjacency(Graph graph) {
+        String[] documentNodes = graph.getDocumentNodes();
+        String[] authorNodes = graph.getAuthorNodes();
+        Map<String, List<Authorship>> documentAuthors = graph.getDocumentAuthorNeighbors();
+        Map<String, List<Citation>> cited = graph.getDocumentDocumentOutNeighbors();
+        Map<String, List<String>> authorDocuments = graph.getAuthorDocumentNeighbors();
+        Map<String, List<Collaboration>> coauthors = graph.getAuthorAuthorNeighbors();
+
+        documents = documentNodes.length;
+        authors = authorNodes.length;
+        documentAuthorStart = new int[documents + 1];
+        documentCitedStart = new int[documents + 1];
+        authorDocumentStart = new int[authors + 1];
+        authorCoauthorStart = new int[authors + 1];
+
+        for(int doc = 0; doc < documents; doc++) {
+            documentAuthorStart[doc + 1] = documentAuthorStart[doc] + size(documentAuthors.get(documentNodes[doc]));
+            documentCitedStart[doc + 1] = documentCitedStart[doc] + size(cited.get(documentNodes[doc]));
+        }
+        for(int author = 0; author < authors; author++) {
+            authorDocumentStart[author + 1] = authorDocumentStart[author] + size(authorDocuments.get(authorNodes[author]));
+            authorCoauthorStart[author + 1] = authorCoauthorStart[author] + size(coauthors.get(authorNodes[author]));
+        }
+
+        documentAuthor = new int[documentAuthorStart[documents]];
+        documentCited = new int[documentCitedStart[documents]];
+        authorDocument = new int[authorDocumentStart[authors]];
+        authorCoauthor = new int[authorCoauthorStart[authors]];
+
+        for(int doc = 0; doc < documents; doc++) {
+            int edge = documentAuthorStart[doc];
+            if(documentAuthors.containsKey(documentNodes[doc])) {
+                for(Authorship authorship : documentAuthors.get(documentNodes[doc]))
+                    documentAuthor[edge++] = graph.getAuthorNodeId(authorship.getAuthor());
+            }
+
+            edge = documentCitedStart[doc];
+            if(cited.containsKey(documentNodes[doc])) {
+                for(Citation citation : cited.get(documentNodes[doc]))
+                    documentCited[edge++] = graph.getDocumentNodeId(citation.getDocument());
+            }
+        }
+
+        for(int author = 0; author < authors; author++) {
+            int edge = authorDocumentStart[author];
+            if(authorDocuments.containsKey(authorNodes[author])) {
+                for(String document : authorDocuments.get(authorNodes[author]))
+                    authorDocument[edge++] = graph.getDocumentNodeId(document);
+            }
+
+            edge = authorCoauthorStart[author];
+            if(coauthors.containsKey(authorNodes[author])) {
+                for(Collaboration collaboration : coauthors.get(authorNodes[author]))
+                    authorCoauthor[edge++] = graph.getAuthorNodeId(collaboration.getAuthor());
+            }
+        }
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
@@ -0,0 +1,51 @@
+package de.uhh.lt.xpertfinder.model.suggest;
+
+public class Suggestion {
+
+    public static final String KEYWORD = "keyword";
+    public static final String AUTHOR = "author";
+
+    private String text;
+    private String type;
+    private long weight;
+    private Long id;
+
+    public Suggestion(String text, String type, long weight, Long id) {
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
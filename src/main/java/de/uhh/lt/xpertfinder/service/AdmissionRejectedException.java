@@ -0,0 +1,19 @@
+package de.uhh.lt.xpertfinder.service;
+
+/**
+ * Thrown if a topic construction or a method execution is not admitted because too much work is
+ * running or waiting already.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String lane;
+
+    public AdmissionRejectedException(String lane, String message) {
+        super(message);
+        this.lane = lane;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+}
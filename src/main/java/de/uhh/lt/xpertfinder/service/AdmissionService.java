@@ -0,0 +1,249 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.methods.DefaultRequest;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.model.api.LaneStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the expensive parts of a search: topic construction (elasticsearch and the graph
+ * queries, bounded by the connection pool) and method execution (cpu).
+ *
+ * Every part has an estimated cost in units and a lane admits work as long as the running costs stay
+ * within its capacity. Further work waits in order of arrival, at most admission.timeout milliseconds
+ * and only if fewer than the queue limit are waiting already, otherwise it is rejected at once. Work that
+ * already waited once, like the degraded retry of a rejected request, can wait less with waitAtMost().
+ */
+@Service
+public class AdmissionService {
+
+    private static Logger logger = LoggerFactory.getLogger(AdmissionService.class);
+
+    // upper bounds of the queue wait histogram in milliseconds, the last bucket takes the rest
+    private static final long[] WAIT_BUCKETS = {1, 10, 100, 1000, 10000};
+
+    // shorter wait of the work running on this thread, null for the timeout of the lanes
+    private static final ThreadLocal<Long> MAX_WAIT = new ThreadLocal<>();
+
+    /**
+     * Releases the admitted cost units when it is closed.
+     */
+    public interface Ticket extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static class Lane {
+        private final String name;
+        private final int capacity;
+        private final int maxQueue;
+        private final long timeout;
+
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKETS.length + 1);
+
+        public Lane(String name, int capacity, int maxQueue, long timeout) {
+            this.name = name;
+            this.capacity = Math.max(1, capacity);
+            this.maxQueue = Math.max(0, maxQueue);
+            this.timeout = timeout;
+            this.permits = new Semaphore(this.capacity, true);
+        }
+
+        /**
+         * Waits until the cost fits into the lane. Costs above the capacity are cut to the capacity,
+         * such work runs alone.
+         * @throws AdmissionRejectedException if the queue is full or the wait times out
+         */
+        public Ticket admit(int cost) {
+            int units = Math.max(1, Math.min(cost, capacity));
+            long start = System.nanoTime();
+            // nobody waits for work that would start after the deadline of its request
+            long wait = Math.min(timeout, Deadline.current().remainingMillis());
+            Long maxWait = MAX_WAIT.get();
+            if(maxWait != null)
+                wait = Math.min(wait, maxWait);
+
+            try {
+                // a timed try keeps the order of arrival of the fair semaphore, a plain tryAcquire would barge
+                if(!permits.tryAcquire(units, 0, TimeUnit.MILLISECONDS)) {
+                    if(waiting.incrementAndGet() > maxQueue) {
+                        waiting.decrementAndGet();
+                        throw reject("queue of " + maxQueue + " is full");
+                    }
+                    try {
+                        if(!permits.tryAcquire(units, wait, TimeUnit.MILLISECONDS))
+                            throw reject("no capacity after " + wait + " ms");
+                    } finally {
+                        waiting.decrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted while waiting");
+            }
+
+            recordWait(System.nanoTime() - start);
+            admitted.incrementAndGet();
+            return () -> permits.release(units);
+        }
+
+        private AdmissionRejectedException reject(String reason) {
+            rejected.incrementAndGet();
+            logger.debug("Rejected " + name + ": " + reason);
+            return new AdmissionRejectedException(name, "Too many " + name + " requests, " + reason);
+        }
+
+        private void recordWait(long nanos) {
+            waitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while(bucket < WAIT_BUCKETS.length && millis >= WAIT_BUCKETS[bucket])
+                bucket++;
+            waitHistogram.incrementAndGet(bucket);
+        }
+
+        public LaneStatus getStatus() {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for(int bucket = 0; bucket <= WAIT_BUCKETS.length; bucket++) {
+                histogram.put(bucket < WAIT_BUCKETS.length ? "<" + WAIT_BUCKETS[bucket] : ">=" + WAIT_BUCKETS[WAIT_BUCKETS.length - 1], waitHistogram.get(bucket));
+            }
+
+            long count = admitted.get();
+            return new LaneStatus(name, capacity, permits.availablePermits(), waiting.get(), maxQueue, count, rejected.get(),
+                    count > 0 ? waitNanos.get() / 1e6 / count : 0, maxWaitNanos.get() / 1e6, histogram);
+        }
+    }
+
+    private final Lane topics;
+    private final Lane methods;
+    private final int degradedDocuments;
+    private final long degradedTimeout;
+
+    public AdmissionService(@Value("${admission.topic.capacity:8}") int topicCapacity,
+                            @Value("${admission.topic.queue:16}") int topicQueue,
+                            @Value("${admission.method.capacity:8}") int methodCapacity,
+                            @Value("${admission.method.queue:32}") int methodQueue,
+                            @Value("${admission.timeout:10000}") long timeout,
+                            @Value("${admission.degraded.documents:250}") int degradedDocuments,
+                            @Value("${admission.degraded.timeout:1000}") long degradedTimeout) {
+        this.topics = new Lane("topic", topicCapacity, topicQueue, timeout);
+        this.methods = new Lane("method", methodCapacity, methodQueue, timeout);
+        this.degradedDocuments = degradedDocuments;
+        this.degradedTimeout = degradedTimeout;
+    }
+
+    /**
+     * Runs the work with admissions that wait at most the given milliseconds, or less if the lanes or the
+     * deadline say so.
+     * @return the result of the work
+     */
+    public static <T> T waitAtMost(long millis, Supplier<T> work) {
+        Long previous = MAX_WAIT.get();
+        MAX_WAIT.set(previous != null ? Math.min(previous, millis) : millis);
+        try {
+            return work.get();
+        } finally {
+            if(previous != null)
+                MAX_WAIT.set(previous);
+            else
+                MAX_WAIT.remove();
+        }
+    }
+
+    /**
+     * Runs the work with admissions that wait as long as the lanes allow, without the shorter wait of the
+     * work running on this thread, e.g. for work that is shared with other requests.
+     * @return the result of the work
+     */
+    public static <T> T waitAsLongAsTheLanes(Supplier<T> work) {
+        Long previous = MAX_WAIT.get();
+        MAX_WAIT.remove();
+        try {
+            return work.get();
+        } finally {
+            if(previous != null)
+                MAX_WAIT.set(previous);
+        }
+    }
+
+    public Ticket admitTopic(int documents) {
+        return topics.admit(topicCost(documents));
+    }
+
+    public Ticket admitMethod(ExpertFindingMethod method, DefaultRequest request) {
+        return methods.admit(methodCost(method, request));
+    }
+
+    /**
+     * Admits one run of the method for several requests, e.g. a grid. Every request adds its cost, the run does the
+     * work of every request on the same graph.
+     */
+    public Ticket admitMethod(ExpertFindingMethod method, List<? extends DefaultRequest> requests) {
+        int cost = 0;
+        for(DefaultRequest request : requests)
+            cost = (int) Math.min(Integer.MAX_VALUE, (long) cost + methodCost(method, request));
+        return methods.admit(cost);
+    }
+
+    /**
+     * Elasticsearch and the graph queries grow with the number of documents, one unit per started thousand.
+     */
+    public static int topicCost(int documents) {
+        return 1 + Math.max(0, documents) / 1000;
+    }
+
+    /**
+     * The graph grows with the number of documents and every relation the method walks adds to the work. A method
+     * that runs on several threads costs that much per thread.
+     */
+    @SuppressWarnings("unchecked")
+    public static int methodCost(ExpertFindingMethod method, DefaultRequest request) {
+        int relations = (method.needsPublications() ? 1 : 0) + (method.needsCitations() ? 1 : 0) + (method.needsCollaborations() ? 1 : 0);
+        long cost = (long) Math.max(1, relations) * topicCost(request.getDocuments()) * Math.max(1, method.getThreads(request));
+        return (int) Math.min(Integer.MAX_VALUE, cost);
+    }
+
+    /**
+     * @return number of documents a rejected api request is answered with instead, 0 if it is not answered
+     */
+    public int getDegradedDocuments() {
+        return degradedDocuments;
+    }
+
+    /**
+     * @return milliseconds the degraded answer of a rejected api request waits for capacity
+     */
+    public long getDegradedTimeout() {
+        return degradedTimeout;
+    }
+
+    public List<LaneStatus> getStatus() {
+        List<LaneStatus> status = new ArrayList<>();
+        status.add(topics.getStatus());
+        status.add(methods.getStatus());
+        return status;
+    }
+}
@@ -0,0 +1,154 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.utils.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+/**
+ * In-memory trigram index over the names and alternative names of all authors.
+ *
+ * It answers the same question as "name LIKE %topic% OR alt_name LIKE %topic%" without scanning
+ * authors_aan: the candidates are taken from the shortest posting list of the topic's trigrams and
+ * verified with a substring check. Like the utf8mb4_unicode_ci collation, matching ignores case and accents.
+ *
+ * The index is loaded at startup and rebuilt in the background when the number of authors or the
+ * highest author id changes.
+ */
+@Service
+public class AuthorNameIndex {
+
+    private static Logger logger = LoggerFactory.getLogger(AuthorNameIndex.class);
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    AanDao aanDao;
+
+    private static class Index {
+        long[] ids;
+        String[] names;
+        String[] altNames;
+        Map<String, int[]> postings;
+        String fingerprint;
+    }
+
+    private volatile Index index;
+
+    @PostConstruct
+    public void init() {
+        index = build(fingerprint());
+    }
+
+    @Scheduled(fixedDelayString = "${authorindex.refresh:60000}", initialDelayString = "${authorindex.refresh:60000}")
+    public void refresh() {
+        String fingerprint = fingerprint();
+        if(fingerprint.equals(index.fingerprint))
+            return;
+
+        logger.debug("Authors changed, rebuild author name index");
+        index = build(fingerprint);
+    }
+
+    /**
+     * @return ids of all authors whose name or alternative name contains the topic
+     */
+    public List<Long> findAuthorsContaining(String topic) {
+        List<Long> result = new ArrayList<>();
+        if(topic == null)
+            return result;
+
+        String query = TextUtils.normalize(topic);
+        Index current = index;
+
+        if(query.length() < GRAM) {
+            for(int i = 0; i < current.ids.length; i++) {
+                if(matches(current, i, query))
+                    result.add(current.ids[i]);
+            }
+            return result;
+        }
+
+        // the shortest posting list contains all matches
+        int[] candidates = null;
+        for(int i = 0; i + GRAM <= query.length(); i++) {
+            int[] posting = current.postings.get(query.substring(i, i + GRAM));
+            if(posting == null)
+                return result;
+            if(candidates == null || posting.length < candidates.length)
+                candidates = posting;
+        }
+
+        for(int candidate : candidates) {
+            if(matches(current, candidate, query))
+                result.add(current.ids[candidate]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return index.ids.length;
+    }
+
+    private static boolean matches(Index index, int author, String query) {
+        return index.names[author].contains(query) || index.altNames[author].contains(query);
+    }
+
+    private String fingerprint() {
+        List<Object[]> info = aanDao.findAuthorFingerprint();
+        if(info.isEmpty())
+            return "";
+
+        return info.get(0)[0] + ":" + info.get(0)[1];
+    }
+
+    private Index build(String fingerprint) {
+        long time = System.nanoTime();
+
+        List<Object[]> authors = aanDao.findAllAuthorNames();
+        Index index = new Index();
+        index.fingerprint = fingerprint;
+        index.ids = new long[authors.size()];
+        index.names = new String[authors.size()];
+        index.altNames = new String[authors.size()];
+
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for(int i = 0; i < authors.size(); i++) {
+            Object[] author = authors.get(i);
+            index.ids[i] = ((Number) author[0]).longValue();
+            index.names[i] = TextUtils.normalize((String) author[1]);
+            index.altNames[i] = TextUtils.normalize((String) author[2]);
+
+            Set<String> grams = new HashSet<>();
+            addGrams(grams, index.names[i]);
+            addGrams(grams, index.altNames[i]);
+            for(String gram : grams) {
+                postings.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        index.postings = new HashMap<>(postings.size() * 2);
+        for(Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] posting = new int[list.size()];
+            for(int i = 0; i < posting.length; i++)
+                posting[i] = list.get(i);
+            index.postings.put(entry.getKey(), posting);
+        }
+
+        logger.debug("Indexed " + index.ids.length + " author names with " + index.postings.size() + " trigrams after " + (System.nanoTime() - time) + " nanoseconds");
+        return index;
+    }
+
+    private static void addGrams(Set<String> grams, String name) {
+        for(int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.dao.GraphDao;
+import de.uhh.lt.xpertfinder.dao.PrefetchedGraphDao;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.methods.DefaultRequest;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.methods.MultiParameterMethod;
+import de.uhh.lt.xpertfinder.model.api.BatchQuery;
+import de.uhh.lt.xpertfinder.model.api.MethodConfiguration;
+import de.uhh.lt.xpertfinder.model.api.RankingResult;
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Ranks many topics with many methods and shares the work between them:
+ * <ul>
+ *     <li>elasticsearch is queried once per topic, year range and document limit, whatever graphs the methods need</li>
+ *     <li>the graph relations are read once for the union of the documents of all topics</li>
+ *     <li>topics that are already cached by the TopicService are not built again, new topics are added to the cache</li>
+ *     <li>requests of a MultiParameterMethod on the same topic are ranked in one run</li>
+ * </ul>
+ * Topics are selected, built and ranked in parallel, every result is handed out as soon as it is ready.
+ */
+@Service
+public class BatchRankingService {
+
+    private static Logger logger = LoggerFactory.getLogger(BatchRankingService.class);
+
+    @Autowired
+    private TopicService topicService;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private GraphDao graphDao;
+
+    private ExecutorService executor;
+    private int maxSize;
+
+    /**
+     * A validated batch query, one item per topic and method configuration.
+     */
+    public static class Batch {
+        private List<Item> items = new ArrayList<>();
+        private boolean includeDocuments;
+
+        public int size() {
+            return items.size();
+        }
+    }
+
+    private static class Item {
+        int index;
+        String topic;
+        int yearFrom;
+        int yearTo;
+        boolean includeTitle;
+        ExpertFindingMethod method;
+        DefaultRequest request;
+        GraphOptions options;
+        String documentKey;
+        String key;
+    }
+
+    public BatchRankingService(@Value("${batch.threads:4}") int threads, @Value("${batch.maxsize:10000}") int maxSize) {
+        this.maxSize = maxSize;
+
+        // 0 for one thread per core, e.g. for offline evaluations
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "batch-ranking-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks the query and parses the method requests, so invalid batches are rejected before anything is ranked.
+     */
+    public Batch createBatch(BatchQuery query) {
+        List<String> topics = query.getTopics() != null ? query.getTopics() : Collections.emptyList();
+        List<MethodConfiguration> methods = query.getMethods() != null && !query.getMethods().isEmpty() ? query.getMethods() : Collections.singletonList(new MethodConfiguration());
+
+        if(topics.isEmpty())
+            throw new IllegalArgumentException("No topics given");
+        if((long) topics.size() * methods.size() > maxSize)
+            throw new IllegalArgumentException("Batch of " + topics.size() * methods.size() + " rankings exceeds the limit of " + maxSize);
+
+        Batch batch = new Batch();
+        batch.includeDocuments = query.isIncludeDocuments();
+        for(String topic : topics) {
+            if(topic == null || topic.trim().isEmpty())
+                throw new IllegalArgumentException("Empty topic at position " + batch.items.size() / methods.size());
+
+            for(MethodConfiguration configuration : methods) {
+                Item item = new Item();
+                item.index = batch.items.size();
+                item.topic = topic;
+                item.yearFrom = query.getYearFrom();
+                item.yearTo = query.getYearTo();
+                item.includeTitle = query.isIncludeTitle();
+                item.method = rankingService.getMethod(configuration.getMethod());
+                item.request = rankingService.parseRequest(item.method, configuration.getRequest());
+
+                GraphOptions options = TopicService.graphOptions(item.request, query.getOptions());
+                item.options = options != null ? options : new GraphOptions();
+                item.documentKey = TopicService.documentKey(topic, item.yearFrom, item.yearTo, item.includeTitle, item.request);
+                item.key = TopicService.key(topic, item.yearFrom, item.yearTo, item.includeTitle, item.method, item.request, item.options);
+                batch.items.add(item);
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Ranks all items of the batch and hands every result to the consumer as soon as it is ready.
+     * The consumer is never called concurrently. Rankings that fail are reported with an error.
+     */
+    public void rank(Batch batch, Consumer<RankingResult> consumer) {
+        long time = System.nanoTime();
+
+        Map<String, List<Item>> itemsByKey = new LinkedHashMap<>();
+        for(Item item : batch.items) {
+            itemsByKey.computeIfAbsent(item.key, k -> new ArrayList<>()).add(item);
+        }
+
+        Object lock = new Object();
+        Consumer<RankingResult> output = result -> {
+            synchronized (lock) {
+                consumer.accept(result);
+            }
+        };
+
+        // rank cached topics right away, group the others by their documents
+        List<CompletableFuture<Void>> rankings = new ArrayList<>();
+        Map<String, List<String>> keysByDocumentKey = new LinkedHashMap<>();
+        for(Map.Entry<String, List<Item>> entry : itemsByKey.entrySet()) {
+            ExpertTopic cached = topicService.getCachedTopic(entry.getKey());
+            if(cached != null) {
+                rankings.addAll(rank(CompletableFuture.completedFuture(cached), entry.getValue(), batch.includeDocuments, output));
+            } else {
+                keysByDocumentKey.computeIfAbsent(entry.getValue().get(0).documentKey, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        logger.debug("Batch of " + batch.size() + " rankings: " + (itemsByKey.size() - countKeys(keysByDocumentKey)) + " cached topics, " + countKeys(keysByDocumentKey) + " new topics with " + keysByDocumentKey.size() + " document selections");
+
+        // select the documents of every new topic once
+        PrefetchedGraphDao prefetchedGraphDao = new PrefetchedGraphDao(graphDao);
+        Map<String, CompletableFuture<ExpertTopic>> selections = new LinkedHashMap<>();
+        for(Map.Entry<String, List<String>> entry : keysByDocumentKey.entrySet()) {
+            Item item = itemsByKey.get(entry.getValue().get(0)).get(0);
+            selections.put(entry.getKey(), CompletableFuture.supplyAsync(() -> {
+                ExpertTopic expertTopic = topicService.createExpertTopic(prefetchedGraphDao);
+                expertTopic.selectDocuments(item.topic, item.yearFrom, item.yearTo, item.includeTitle, item.request.getDocuments());
+                return expertTopic;
+            }, executor));
+        }
+
+        // read the relations of all selected documents at once
+        Set<String> documents = new HashSet<>();
+        boolean[] relations = new boolean[2]; // citations, collaborations
+        for(Map.Entry<String, CompletableFuture<ExpertTopic>> entry : selections.entrySet()) {
+            ExpertTopic selection = entry.getValue().exceptionally(e -> null).join();
+            if(selection == null || !selection.isInitialized() || !selection.isFoundResult())
+                continue;
+
+            documents.addAll(selection.getTopDocuments());
+            for(String key : keysByDocumentKey.get(entry.getKey())) {
+                ExpertFindingMethod method = itemsByKey.get(key).get(0).method;
+                relations[0] |= method.needsCitations();
+                relations[1] |= method.needsCollaborations();
+            }
+        }
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> prefetchedGraphDao.prefetch(documents, relations[0], relations[1]), executor);
+
+        // build the graph of every topic and rank it
+        for(Map.Entry<String, List<String>> entry : keysByDocumentKey.entrySet()) {
+            CompletableFuture<ExpertTopic> selection = selections.get(entry.getKey());
+            boolean first = true;
+            for(String key : entry.getValue()) {
+                List<Item> items = itemsByKey.get(key);
+                Item item = items.get(0);
+                boolean copy = !first;
+                CompletableFuture<ExpertTopic> topic = selection.thenCombineAsync(prefetch, (selected, ignored) -> {
+                    ExpertTopic expertTopic = copy ? selected.copySelection() : selected;
+                    if(expertTopic.isInitialized() && expertTopic.isFoundResult())
+                        expertTopic.createGraph(item.method.needsPublications(), item.method.needsCollaborations(), item.method.needsCitations(), item.options);
+
+                    topicService.putTopic(key, expertTopic);
+                    return expertTopic;
+                }, executor);
+                rankings.addAll(rank(topic, items, batch.includeDocuments, output));
+                first = false;
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(rankings.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+
+        logger.debug("Ranked batch of " + batch.size() + " rankings after " + (System.nanoTime() - time) + " nanoseconds");
+    }
+
+    private List<CompletableFuture<Void>> rank(CompletableFuture<ExpertTopic> topic, List<Item> items, boolean includeDocuments, Consumer<RankingResult> output) {
+        // several requests of a method that can rank them at once run together, e.g. a parameter grid
+        Map<ExpertFindingMethod, List<Item>> itemsByMethod = new LinkedHashMap<>();
+        for(Item item : items) {
+            itemsByMethod.computeIfAbsent(item.method, k -> new ArrayList<>()).add(item);
+        }
+
+        List<CompletableFuture<Void>> rankings = new ArrayList<>();
+        for(Map.Entry<ExpertFindingMethod, List<Item>> entry : itemsByMethod.entrySet()) {
+            if(entry.getKey() instanceof MultiParameterMethod && entry.getValue().size() > 1) {
+                rankings.add(rankTogether(topic, (MultiParameterMethod) entry.getKey(), entry.getValue(), includeDocuments, output));
+                continue;
+            }
+
+            for(Item item : entry.getValue()) {
+                rankings.add(topic.handleAsync((expertTopic, error) -> {
+                    RankingResult result;
+                    if(error != null) {
+                        result = failed(item, error);
+                    } else {
+                        try {
+                            result = rankingService.rank(expertTopic, item.topic, item.method, item.request, includeDocuments);
+                        } catch (RuntimeException e) {
+                            result = failed(item, e);
+                        }
+                    }
+                    result.setIndex(item.index);
+                    return result;
+                }, executor).thenAccept(output));
+            }
+        }
+        return rankings;
+    }
+
+    private CompletableFuture<Void> rankTogether(CompletableFuture<ExpertTopic> topic, MultiParameterMethod method, List<Item> items, boolean includeDocuments, Consumer<RankingResult> output) {
+        List<DefaultRequest> requests = new ArrayList<>(items.size());
+        for(Item item : items)
+            requests.add(item.request);
+
+        return topic.handleAsync((expertTopic, error) -> {
+            List<RankingResult> results = null;
+            if(error == null) {
+                try {
+                    results = rankingService.rank(expertTopic, items.get(0).topic, method, requests, includeDocuments);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+
+            for(int i = 0; i < items.size(); i++) {
+                RankingResult result = results != null ? results.get(i) : failed(items.get(i), error);
+                result.setIndex(items.get(i).index);
+                output.accept(result);
+            }
+            return null;
+        }, executor);
+    }
+
+    private static RankingResult failed(Item item, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        logger.error("Ranking " + item.index + " of batch failed", cause);
+
+        RankingResult result = new RankingResult(item.topic, item.method.getId(), false);
+        result.setError(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        return result;
+    }
+
+    private static int countKeys(Map<String, List<String>> keysByDocumentKey) {
+        int count = 0;
+        for(List<String> keys : keysByDocumentKey.values())
+            count += keys.size();
+        return count;
+    }
+}
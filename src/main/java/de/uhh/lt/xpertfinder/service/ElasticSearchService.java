@@ -1,11 +1,18 @@
 package de.uhh.lt.xpertfinder.service;
 
+import com.google.gson.Gson;
+import de.uhh.lt.xpertfinder.finder.CorpusStatistic;
+import de.uhh.lt.xpertfinder.finder.Deadline;
 import org.apache.http.HttpHost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
 import org.apache.lucene.search.Explanation;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.unit.TimeValue;
@@ -16,21 +23,26 @@ import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 @Component
+@Profile("!synthetic")
 public class ElasticSearchService {
 
     private static Logger logger = LoggerFactory.getLogger(ElasticSearchService.class);
 
+    private static final long SCROLL_KEEPALIVE = 60000;
+
     private RestHighLevelClient client;
 
     public String elastichostname;
@@ -46,6 +58,13 @@ public class ElasticSearchService {
                         new HttpHost(elastichostname, elasticport, "http")));
     }
 
+    /**
+     * For subclasses that serve the documents without elasticsearch.
+     */
+    protected ElasticSearchService(String elasticindex) {
+        this.elasticindex = elasticindex;
+    }
+
     public class MyResult {
 
         public List<String> documents;
@@ -73,12 +92,13 @@ public class ElasticSearchService {
         }
         topic = newTopic.toString().trim();
 
-        System.out.println("TOPIC SIZE: " + topics.length);
+        logger.debug("Topic of " + topics.length + " terms");
 
         List<String> result = new ArrayList<>();
         Map<String,int[]> info = new HashMap<>();
 
-        final Scroll scroll = new Scroll(TimeValue.timeValueMinutes(1L));
+        Deadline deadline = Deadline.current();
+        final Scroll scroll = scroll(deadline);
 
         BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
                 .must(QueryBuilders.matchQuery("text", topic).operator(Operator.AND));
@@ -89,6 +109,7 @@ public class ElasticSearchService {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.query(boolQuery);
         searchSourceBuilder.size(100);
+        timeout(searchSourceBuilder, deadline);
 
         SearchRequest searchRequest = new SearchRequest(elasticindex);
         searchRequest.scroll(scroll);
@@ -103,6 +124,7 @@ public class ElasticSearchService {
             SearchHit[] searchHits = searchResponse.getHits().getHits();
 
             while (searchHits != null && searchHits.length > 0) {
+                deadline.check("the next page of documents");
                 SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
                 scrollRequest.scroll(scroll);
                 searchResponse = client.searchScroll(scrollRequest);
@@ -177,11 +199,13 @@ public class ElasticSearchService {
         List<String> result = new ArrayList<>();
         Map<String, Double> scores = new HashMap<>();
 
-        final Scroll scroll = new Scroll(TimeValue.timeValueMinutes(1L));
+        Deadline deadline = Deadline.current();
+        final Scroll scroll = scroll(deadline);
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.query(QueryBuilders.matchPhraseQuery("text", topic));
         searchSourceBuilder.size(50);
+        timeout(searchSourceBuilder, deadline);
 
         SearchRequest searchRequest = new SearchRequest(elasticindex);
         searchRequest.scroll(scroll);
@@ -196,6 +220,7 @@ public class ElasticSearchService {
             SearchHit[] searchHits = searchResponse.getHits().getHits();
 
             while (searchHits != null && searchHits.length > 0) {
+                deadline.check("the next page of documents");
                 SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
                 scrollRequest.scroll(scroll);
                 searchResponse = client.searchScroll(scrollRequest);
@@ -223,4 +248,65 @@ public class ElasticSearchService {
 
         return new ScoredDocumentResult(result, scores);
     }
+
+    /**
+     * Corpus statistics of the terms, read from the term vectors of a document that contains all of them.
+     * @return null if the statistics are not available or a term does not occur in the document
+     */
+    public CorpusStatistic getCorpusStatistic(String esId, String[] terms) {
+        logger.debug("Get corpus statistics");
+
+        String result;
+        try {
+            Response response = client.getLowLevelClient().performRequest("POST", "/" + elasticindex + "/_doc/" + esId + "/_termvectors", Collections.emptyMap(),
+                    new NStringEntity("{ \"fields\": [ \"text\" ], \"term_statistics\": true, \"field_statistics\": true }", ContentType.APPLICATION_JSON));
+            result = EntityUtils.toString(response.getEntity());
+        } catch (IOException e) {
+            logger.warn("Term vectors of " + esId + " are not available", e);
+            return null;
+        }
+
+        Map<String,Object> text = ((Map<String,Object>) ((Map<String,Object>) new Gson().fromJson(result, Map.class).get("term_vectors")).get("text"));
+        Map<String,Object> fieldStatistics = (Map<String,Object>) text.get("field_statistics");
+        Map<String,Object> termStatistics = (Map<String,Object>) text.get("terms");
+
+        double docCount = (Double) fieldStatistics.get("doc_count");
+        double sumTtf = (Double) fieldStatistics.get("sum_ttf");
+        double avgDocLength = sumTtf / docCount;
+
+        Map<String,Integer> totalTermFrequencies = new HashMap<>();
+        Map<String,Double> pts = new HashMap<>();
+        for(String term : terms) {
+            Map<String,Object> terminfo = (Map<String,Object>) termStatistics.get(term);
+            if(terminfo == null) {
+                logger.debug("Term " + term + " doesn't exist in document " + esId);
+                return null;
+            }
+
+            int ttf = ((Double)  terminfo.get("ttf")).intValue();
+            double pt = Math.log(ttf) - Math.log(sumTtf);
+
+            totalTermFrequencies.put(term, ((Double)  terminfo.get("ttf")).intValue());
+            pts.put(term, pt);
+        }
+
+        return new CorpusStatistic(docCount, sumTtf, avgDocLength, totalTermFrequencies, pts);
+    }
+
+    /**
+     * The scroll context is kept as long as the request may take, at least a second so the next page
+     * can still be fetched, at most a minute.
+     */
+    private static Scroll scroll(Deadline deadline) {
+        return new Scroll(TimeValue.timeValueMillis(Math.max(1000, Math.min(SCROLL_KEEPALIVE, deadline.remainingMillis()))));
+    }
+
+    /**
+     * Shards that did not answer within the deadline are left out instead of delaying the response.
+     */
+    private static void timeout(SearchSourceBuilder searchSourceBuilder, Deadline deadline) {
+        deadline.check("searching the documents");
+        if(deadline.isLimited())
+            searchSourceBuilder.timeout(TimeValue.timeValueMillis(deadline.remainingMillis()));
+    }
 }
@@ -0,0 +1,195 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.model.api.BatchQuery;
+import de.uhh.lt.xpertfinder.model.api.EvaluationQuery;
+import de.uhh.lt.xpertfinder.model.api.EvaluationResult;
+import de.uhh.lt.xpertfinder.model.api.MethodConfiguration;
+import de.uhh.lt.xpertfinder.model.api.MethodGrid;
+import de.uhh.lt.xpertfinder.model.api.RankedNode;
+import de.uhh.lt.xpertfinder.model.api.RankingResult;
+import de.uhh.lt.xpertfinder.utils.EvaluationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Compares methods and parameters offline: the method grids are expanded into configurations and every topic
+ * is ranked with every configuration as one batch, so each topic graph is built once and the rankings run
+ * in parallel. With judgments every ranking is scored, and every configuration is summarized over the topics.
+ */
+@Service
+public class EvaluationService {
+
+    private static Logger logger = LoggerFactory.getLogger(EvaluationService.class);
+
+    @Autowired
+    private BatchRankingService batchRankingService;
+
+    private static class Configuration {
+        MethodConfiguration methodConfiguration;
+        Map<String, Object> request;
+
+        int runs;
+        double millis;
+        double iterations;
+        int iteratedRuns;
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        int scoredRuns;
+    }
+
+    /**
+     * Ranks every topic with every configuration and hands every run to the consumer as soon as it is ready.
+     * The consumer is never called concurrently.
+     *
+     * @return the summary of every configuration over the topics, in the order of the grids
+     * @throws IllegalArgumentException if the query is invalid
+     */
+    public List<EvaluationResult> evaluate(EvaluationQuery query, Consumer<EvaluationResult> consumer) {
+        List<Configuration> configurations = expand(query.getMethods());
+        if(configurations.isEmpty())
+            throw new IllegalArgumentException("No methods given");
+
+        BatchQuery batchQuery = new BatchQuery();
+        batchQuery.setTopics(query.getTopics());
+        List<MethodConfiguration> methods = new ArrayList<>();
+        for(Configuration configuration : configurations)
+            methods.add(configuration.methodConfiguration);
+        batchQuery.setMethods(methods);
+        batchQuery.setYearFrom(query.getYearFrom());
+        batchQuery.setYearTo(query.getYearTo());
+        batchQuery.setIncludeTitle(query.isIncludeTitle());
+        batchQuery.setOptions(query.getOptions());
+        batchQuery.setIncludeDocuments(false);
+
+        BatchRankingService.Batch batch = batchRankingService.createBatch(batchQuery);
+        logger.info("Evaluating " + configurations.size() + " configurations on " + query.getTopics().size() + " topics");
+
+        batchRankingService.rank(batch, result -> {
+            // the batch is ordered by topic, then by configuration
+            String topic = query.getTopics().get(result.getIndex() / configurations.size());
+            Configuration configuration = configurations.get(result.getIndex() % configurations.size());
+            Map<String, Integer> grades = query.getJudgments() != null ? query.getJudgments().get(topic) : null;
+
+            EvaluationResult run = createRun(topic, configuration, result, grades, query.getCutoff());
+            add(configuration, run);
+            consumer.accept(run);
+        });
+
+        List<EvaluationResult> summaries = new ArrayList<>();
+        for(Configuration configuration : configurations)
+            summaries.add(summarize(configuration));
+        return summaries;
+    }
+
+    /**
+     * @return one configuration per combination of the grid values of every method, the last parameter varies fastest
+     */
+    private List<Configuration> expand(List<MethodGrid> grids) {
+        List<Configuration> configurations = new ArrayList<>();
+        if(grids == null)
+            return configurations;
+
+        for(MethodGrid grid : grids) {
+            List<Map<String, Object>> combinations = new ArrayList<>();
+            combinations.add(grid.getRequest() != null ? new LinkedHashMap<>(grid.getRequest()) : new LinkedHashMap<>());
+
+            if(grid.getGrid() != null) {
+                for(Map.Entry<String, List<Object>> parameter : grid.getGrid().entrySet()) {
+                    if(parameter.getValue() == null || parameter.getValue().isEmpty())
+                        throw new IllegalArgumentException("No values for parameter " + parameter.getKey() + " of method " + grid.getMethod());
+
+                    List<Map<String, Object>> expanded = new ArrayList<>();
+                    for(Map<String, Object> combination : combinations) {
+                        for(Object value : parameter.getValue()) {
+                            Map<String, Object> request = new LinkedHashMap<>(combination);
+                            request.put(parameter.getKey(), value);
+                            expanded.add(request);
+                        }
+                    }
+                    combinations = expanded;
+                }
+            }
+
+            for(Map<String, Object> request : combinations) {
+                Configuration configuration = new Configuration();
+                configuration.methodConfiguration = new MethodConfiguration(grid.getMethod(), request);
+                configuration.request = request;
+                configurations.add(configuration);
+            }
+        }
+        return configurations;
+    }
+
+    private static EvaluationResult createRun(String topic, Configuration configuration, RankingResult result, Map<String, Integer> grades, int cutoff) {
+        EvaluationResult run = new EvaluationResult(topic, configuration.methodConfiguration.getMethod(), configuration.request);
+        if(result.getError() != null) {
+            run.setError(result.getError());
+            return run;
+        }
+        if(!result.isFoundResult()) {
+            run.setError("No documents found");
+            return run;
+        }
+
+        run.setMillis(result.getMillis());
+        // methods that do not iterate report 0, the run has no iterations then
+        run.setIterations(result.getIterations() != null && result.getIterations() > 0 ? result.getIterations() : null);
+        run.setDocumentCount(result.getDocumentCount());
+        run.setAuthorCount(result.getAuthorCount());
+        run.setExperts(result.getExperts());
+
+        if(grades != null) {
+            List<String> ranking = new ArrayList<>(result.getExperts().size());
+            for(RankedNode expert : result.getExperts())
+                ranking.add(expert.getName());
+
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            metrics.put("P@" + cutoff, EvaluationUtils.precision(ranking, grades, cutoff));
+            metrics.put("R@" + cutoff, EvaluationUtils.recall(ranking, grades, cutoff));
+            metrics.put("nDCG@" + cutoff, EvaluationUtils.ndcg(ranking, grades, cutoff));
+            metrics.put("MAP", EvaluationUtils.averagePrecision(ranking, grades));
+            metrics.put("MRR", EvaluationUtils.reciprocalRank(ranking, grades));
+            run.setMetrics(metrics);
+        }
+        return run;
+    }
+
+    private static void add(Configuration configuration, EvaluationResult run) {
+        if(run.getError() != null)
+            return;
+
+        configuration.runs++;
+        configuration.millis += run.getMillis() != null ? run.getMillis() : 0;
+        if(run.getIterations() != null) {
+            configuration.iteratedRuns++;
+            configuration.iterations += run.getIterations();
+        }
+        if(run.getMetrics() != null) {
+            configuration.scoredRuns++;
+            for(Map.Entry<String, Double> metric : run.getMetrics().entrySet())
+                configuration.metrics.merge(metric.getKey(), metric.getValue(), Double::sum);
+        }
+    }
+
+    private static EvaluationResult summarize(Configuration configuration) {
+        EvaluationResult summary = new EvaluationResult(null, configuration.methodConfiguration.getMethod(), configuration.request);
+        summary.setRuns(configuration.runs);
+        if(configuration.runs == 0)
+            return summary;
+
+        summary.setMillis(configuration.millis / configuration.runs);
+        if(configuration.iteratedRuns > 0)
+            summary.setIterations((int) Math.round(configuration.iterations / configuration.iteratedRuns));
+        if(configuration.scoredRuns > 0) {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            for(Map.Entry<String, Double> metric : configuration.metrics.entrySet())
+                metrics.put(metric.getKey(), metric.getValue() / configuration.scoredRuns);
+            summary.setMetrics(metrics);
+        }
+        return summary;
+    }
+}
@@ -1,16 +1,25 @@
 package de.uhh.lt.xpertfinder.service;
 
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.DeadlineExceededException;
 import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
 import de.uhh.lt.xpertfinder.finder.ExpertRetrievalResult;
 import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.MethodUsage;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.finder.StageMetrics;
 import de.uhh.lt.xpertfinder.methods.DefaultRequest;
 import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.methods.MultiParameterMethod;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class ExpertRetrieval {
@@ -18,11 +27,31 @@ public class ExpertRetrieval {
     @Autowired
     MethodService methodService;
 
+    @Autowired
+    AdmissionService admissionService;
+
+    @Autowired
+    LatencyModel latencyModel;
+
+    @Autowired
+    MethodAccounting methodAccounting;
+
+    // cheaper methods tried in this order if the requested one does not fit into the budget
+    @Value("${retrieval.fallback:model2,localcitations}")
+    String[] fallbacks;
+
     private static Logger logger = LoggerFactory.getLogger(ExpertRetrieval.class);
 
+    /**
+     * Ranks the experts of the topic with the requested method or, if the request has a deadline and the
+     * method is predicted to miss it, with the first fallback method that is predicted to make it. If none
+     * does, the cheapest one is used. Iterating methods stop at the deadline with their current scores.
+     *
+     * @return the rankings with the method and the iterations that were actually used
+     * @throws DeadlineExceededException if the request was cancelled
+     */
     public ExpertRetrievalResult findExperts(ExpertTopic expertTopic, String method, DefaultRequest request) {
         logger.debug("Start expert finding");
-        long time = System.nanoTime();
 
         ExpertFindingMethod expertFindingMethod = methodService.getExpertFindingMethodById(method);
         if(expertFindingMethod == null) {
@@ -30,37 +59,142 @@ public class ExpertRetrieval {
             return null;
         }
 
-        ExpertFindingResult experts = expertFindingMethod.findExperts(request, expertTopic);
+        Deadline deadline = Deadline.current();
+        deadline.check("ranking");
+
+        Graph graph = expertTopic.getGraph();
+        long graphSize = LatencyModel.graphSize(graph);
+        if(deadline.isLimited()) {
+            ExpertFindingMethod chosen = chooseMethod(expertFindingMethod, graph, graphSize, deadline);
+            if(chosen != expertFindingMethod) {
+                logger.debug("Use " + chosen.getId() + " instead of " + expertFindingMethod.getId() + " to meet the deadline");
+                DefaultRequest fallbackRequest = chosen.getRequestObject();
+                fallbackRequest.setDocuments(request.getDocuments());
+                fallbackRequest.setResults(request.getResults());
+                expertFindingMethod = chosen;
+                request = fallbackRequest;
+            }
+        }
+
+        // the iterations are read from the progress, so there must be one even outside of jobs
+        SearchProgress current = SearchProgress.current();
+        SearchProgress progress = current.isTracked() ? current : new SearchProgress(null);
+
+        ExpertFindingMethod usedMethod = expertFindingMethod;
+        DefaultRequest usedRequest = request;
+        ExpertFindingResult experts;
+        MethodUsage usage;
+        try(AdmissionService.Ticket ticket = admissionService.admitMethod(usedMethod, usedRequest)) {
+            MethodAccounting.Measurement measurement = methodAccounting.start();
+            experts = StageMetrics.withMethod(usedMethod.getId(), () -> progress.call(() -> measurement.call(() -> {
+                progress.stage(SearchProgress.Stage.RANKING);
+                return usedMethod.findExperts(usedRequest, expertTopic);
+            })));
+            usage = measurement.stop(usedMethod.getId(), progress.getIteration(), graphSize);
+        }
         if(experts == null) {
-            logger.error("For some reason, the expert finding method " + expertFindingMethod.getName() + "was not able to find experts...");
+            logger.error("For some reason, the expert finding method " + usedMethod.getName() + "was not able to find experts...");
             return null;
         }
 
-        // sort results
-        logger.debug("Sorting results");
-        Map<String, Double> expertMap = sortByValue(experts.getAuthorRelevanceMap());
+        // a stopped method still taught the model its time per iteration
+        latencyModel.observe(usedMethod.getId(), graphSize, progress.getIteration(), !progress.isTruncated(), usage.getWallNanos());
+        StageMetrics.get().record(StageMetrics.Stage.RANKING, usedMethod.getId(), usage.getWallNanos(), progress.getIteration());
+        if(deadline.isCancelled())
+            throw new DeadlineExceededException("Search was cancelled during ranking");
 
-        Map<String, Double> documentMap = sortByValue(experts.getDocumentRelevanceMap());
-        logger.debug("Finished after " + (System.nanoTime() - time) + " nanoseconds");
-        return new ExpertRetrievalResult(expertMap, documentMap);
+        // the rankings are ordered when the method creates them
+        logger.debug("Finished " + usedMethod.getId() + " after " + usage.getWallNanos() + " nanoseconds");
+        ExpertRetrievalResult result = new ExpertRetrievalResult(experts.getAuthorRanking(), experts.getDocumentRanking(), usedMethod.getId(), progress.getIteration(), progress.isTruncated());
+        result.setUsage(usage);
+        result.setSavedIterations(experts.getSavedIterations());
+        return result;
     }
 
-    private static <K, V> Map<K, V> sortByValue(Map<K, V> map) {
-        List<Map.Entry<K, V>> list = new LinkedList<>(map.entrySet());
-        Collections.sort(list, new Comparator<Object>() {
-            @SuppressWarnings("unchecked")
-            public int compare(Object o1, Object o2) {
-                return ((Comparable<V>) ((Map.Entry<K, V>) (o2)).getValue()).compareTo(((Map.Entry<K, V>) (o1)).getValue());
-            }
-        });
+    /**
+     * Ranks the experts of the topic for several requests of the method in one run. There is no fallback to a
+     * cheaper method. The run is admitted with the cost of all requests, it counts as one execution of the method
+     * and its usage is the usage of all requests.
+     *
+     * @return the rankings in the order of the requests, null if the method failed
+     * @throws DeadlineExceededException if the request was cancelled
+     */
+    @SuppressWarnings("unchecked")
+    public List<ExpertRetrievalResult> findExperts(ExpertTopic expertTopic, MultiParameterMethod method, List<DefaultRequest> requests) {
+        logger.debug("Start expert finding for " + requests.size() + " requests");
+
+        Deadline deadline = Deadline.current();
+        deadline.check("ranking");
+
+        long graphSize = LatencyModel.graphSize(expertTopic.getGraph());
+        SearchProgress current = SearchProgress.current();
+        SearchProgress progress = current.isTracked() ? current : new SearchProgress(null);
 
-        Map<K, V> result = new LinkedHashMap<>();
-        for (Iterator<Map.Entry<K, V>> it = list.iterator(); it.hasNext();) {
-            Map.Entry<K, V> entry = (Map.Entry<K, V>) it.next();
-            result.put(entry.getKey(), entry.getValue());
+        List<ExpertFindingResult> experts;
+        MethodUsage usage;
+        try(AdmissionService.Ticket ticket = admissionService.admitMethod(method, requests)) {
+            MethodAccounting.Measurement measurement = methodAccounting.start();
+            experts = StageMetrics.withMethod(method.getId(), () -> progress.call(() -> measurement.call(() -> {
+                progress.stage(SearchProgress.Stage.RANKING);
+                return (List<ExpertFindingResult>) method.findExperts(requests, expertTopic);
+            })));
+            usage = measurement.stop(method.getId(), progress.getIteration(), graphSize);
+        }
+        if(experts == null) {
+            logger.error("For some reason, the expert finding method " + method.getName() + "was not able to find experts...");
+            return null;
         }
 
-        return result;
+        StageMetrics.get().record(StageMetrics.Stage.RANKING, method.getId(), usage.getWallNanos(), progress.getIteration());
+        if(deadline.isCancelled())
+            throw new DeadlineExceededException("Search was cancelled during ranking");
+
+        logger.debug("Finished " + method.getId() + " for " + requests.size() + " requests after " + usage.getWallNanos() + " nanoseconds");
+        List<ExpertRetrievalResult> results = new ArrayList<>(experts.size());
+        for(ExpertFindingResult result : experts) {
+            int iterations = result.getIterations() >= 0 ? result.getIterations() : progress.getIteration();
+            ExpertRetrievalResult retrievalResult = new ExpertRetrievalResult(result.getAuthorRanking(), result.getDocumentRanking(), method.getId(), iterations, progress.isTruncated());
+            retrievalResult.setUsage(usage);
+            retrievalResult.setSavedIterations(result.getSavedIterations());
+            results.add(retrievalResult);
+        }
+        return results;
     }
 
+    private ExpertFindingMethod chooseMethod(ExpertFindingMethod requested, Graph graph, long graphSize, Deadline deadline) {
+        double remaining = deadline.remainingNanos() / 1e6;
+
+        ExpertFindingMethod cheapest = null;
+        double cheapestMillis = Double.MAX_VALUE;
+        for(ExpertFindingMethod candidate : candidates(requested, graph)) {
+            // methods that never ran are tried, that is how the model learns them
+            double predicted = latencyModel.predictMillis(candidate.getId(), graphSize);
+            if(Double.isNaN(predicted) || predicted <= remaining)
+                return candidate;
+
+            if(predicted < cheapestMillis) {
+                cheapest = candidate;
+                cheapestMillis = predicted;
+            }
+        }
+
+        return cheapest != null ? cheapest : requested;
+    }
+
+    private List<ExpertFindingMethod> candidates(ExpertFindingMethod requested, Graph graph) {
+        List<ExpertFindingMethod> candidates = new ArrayList<>();
+        candidates.add(requested);
+        for(String id : fallbacks) {
+            ExpertFindingMethod fallback = methodService.getExpertFindingMethodById(id.trim());
+            if(fallback == null || fallback == requested)
+                continue;
+
+            // the graph was built for the requested method, a fallback can only use the relations it has
+            if((fallback.needsPublications() && !graph.isPublication()) || (fallback.needsCitations() && !graph.isCitation()) || (fallback.needsCollaborations() && !graph.isCollaboration()))
+                continue;
+
+            candidates.add(fallback);
+        }
+        return candidates;
+    }
 }
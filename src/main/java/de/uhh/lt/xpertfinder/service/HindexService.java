@@ -21,11 +21,18 @@ public class HindexService {
     private Map<String, Integer> globalHindex;
 
     public HindexService(AanDao aanDao, Graph graph) {
+        this(aanDao, graph, null);
+    }
+
+    /**
+     * @param globalHindex precomputed global hindex of all authors, computed from the database if null
+     */
+    public HindexService(AanDao aanDao, Graph graph, Map<String, Integer> globalHindex) {
         this.aanDao = aanDao;
         this.graph = graph;
         logger.debug("Calculate h-index");
         this.localHindex = calculateLocalHindex();
-        this.globalHindex = calculateGlobalHindex();
+        this.globalHindex = globalHindex != null ? globalHindex : calculateGlobalHindex();
         this.sumHindex = calculateSumHindex();
     }
 
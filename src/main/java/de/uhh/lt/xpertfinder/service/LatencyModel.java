@@ -0,0 +1,75 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency of the expert finding methods, learned from their executions.
+ *
+ * A method run costs about iterations * graph size * time per unit. Per method the model keeps an
+ * exponentially weighted average of the time per unit and of the iterations until convergence, so
+ * the latency of a method on a graph can be predicted before it runs.
+ */
+@Service
+public class LatencyModel {
+
+    private static class Estimate {
+        double nanosPerUnit = Double.NaN;
+        double iterations = Double.NaN;
+        long observations;
+    }
+
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+    private final double alpha;
+
+    public LatencyModel(@Value("${retrieval.latency.alpha:0.2}") double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * @return nodes and edges of the graph, the unit of work of one iteration
+     */
+    public static long graphSize(Graph graph) {
+        return graph.getDocs().size() + graph.getAuthors().size() + graph.getNumAuthDoc() + graph.getNumDocDoc() + graph.getNumAuthAuth();
+    }
+
+    /**
+     * @param iterations reported iterations, 0 for methods that do not iterate
+     * @param complete false if the method was stopped early, then its iterations say nothing about convergence
+     */
+    public void observe(String method, long graphSize, int iterations, boolean complete, long nanos) {
+        Estimate estimate = estimates.computeIfAbsent(method, k -> new Estimate());
+        int steps = Math.max(1, iterations);
+        double nanosPerUnit = (double) nanos / Math.max(1, graphSize) / steps;
+
+        synchronized (estimate) {
+            estimate.nanosPerUnit = Double.isNaN(estimate.nanosPerUnit) ? nanosPerUnit : estimate.nanosPerUnit + alpha * (nanosPerUnit - estimate.nanosPerUnit);
+            if(complete)
+                estimate.iterations = Double.isNaN(estimate.iterations) ? steps : estimate.iterations + alpha * (steps - estimate.iterations);
+            estimate.observations++;
+        }
+    }
+
+    /**
+     * @return predicted milliseconds of a complete run of the method on a graph of the given size, NaN if the method never ran
+     */
+    public double predictMillis(String method, long graphSize) {
+        Estimate estimate = estimates.get(method);
+        if(estimate == null)
+            return Double.NaN;
+
+        synchronized (estimate) {
+            double iterations = Double.isNaN(estimate.iterations) ? 1 : estimate.iterations;
+            return estimate.nanosPerUnit * Math.max(1, graphSize) * iterations / 1e6;
+        }
+    }
+
+    public long getObservations(String method) {
+        Estimate estimate = estimates.get(method);
+        return estimate != null ? estimate.observations : 0;
+    }
+}
@@ -0,0 +1,185 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.finder.MethodUsage;
+import de.uhh.lt.xpertfinder.model.api.MethodCost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Accounts the resources of the expert finding methods: wall time, cpu time and allocated bytes of the
+ * thread that executes the method, iterations and graph size. The numbers are added up per method id.
+ *
+ * The methods run on the calling thread, a method that hands work to other threads wraps it with worker(), the
+ * cpu time and allocation of the workers are added to the measurement of the method. Allocation is measured with
+ * the HotSpot extension of the ThreadMXBean, on other jvms it is reported as -1.
+ */
+@Service
+public class MethodAccounting {
+
+    private static Logger logger = LoggerFactory.getLogger(MethodAccounting.class);
+
+    private static final ThreadLocal<Measurement> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Counters of the current thread when the execution started.
+     */
+    public class Measurement {
+        private final long wall = System.nanoTime();
+        private final long cpu = cpuTime();
+        private final long allocated = allocatedBytes();
+        private final LongAdder workerCpu = new LongAdder();
+        private final LongAdder workerAllocated = new LongAdder();
+
+        /**
+         * Runs the method with this measurement as the measurement of the thread, the work it passes to worker()
+         * is added to it.
+         * @return the result of the method
+         */
+        public <T> T call(Supplier<T> method) {
+            Measurement previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return method.get();
+            } finally {
+                if(previous != null)
+                    CURRENT.set(previous);
+                else
+                    CURRENT.remove();
+            }
+        }
+
+        /**
+         * Stops the measurement and adds it to the totals of the method.
+         */
+        public MethodUsage stop(String method, int iterations, long graphSize) {
+            long wallNanos = System.nanoTime() - wall;
+            long cpuNanos = cpu < 0 ? -1 : cpuTime() - cpu + workerCpu.sum();
+            long allocatedBytes = allocated < 0 ? -1 : allocatedBytes() - allocated + workerAllocated.sum();
+
+            MethodUsage usage = new MethodUsage(method, wallNanos, cpuNanos, allocatedBytes, iterations, graphSize);
+            totals.computeIfAbsent(method, k -> new Totals()).add(usage);
+            return usage;
+        }
+
+        private void runWorker(Runnable work) {
+            long cpu = cpuTime();
+            long allocated = allocatedBytes();
+            try {
+                work.run();
+            } finally {
+                if(cpu >= 0)
+                    workerCpu.add(cpuTime() - cpu);
+                if(allocated >= 0)
+                    workerAllocated.add(allocatedBytes() - allocated);
+            }
+        }
+    }
+
+    private static class Totals {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final AtomicLong maxWallNanos = new AtomicLong();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder iterations = new LongAdder();
+        private final LongAdder graphSize = new LongAdder();
+
+        void add(MethodUsage usage) {
+            invocations.increment();
+            wallNanos.add(usage.getWallNanos());
+            maxWallNanos.accumulateAndGet(usage.getWallNanos(), Math::max);
+            cpuNanos.add(Math.max(0, usage.getCpuNanos()));
+            allocatedBytes.add(Math.max(0, usage.getAllocatedBytes()));
+            iterations.add(usage.getIterations());
+            graphSize.add(usage.getGraphSize());
+        }
+    }
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocations;
+    private final boolean cpuSupported;
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    public MethodAccounting() {
+        cpuSupported = threads.isCurrentThreadCpuTimeSupported();
+        if(cpuSupported && !threads.isThreadCpuTimeEnabled())
+            threads.setThreadCpuTimeEnabled(true);
+
+        com.sun.management.ThreadMXBean hotspot = null;
+        if(threads instanceof com.sun.management.ThreadMXBean) {
+            hotspot = (com.sun.management.ThreadMXBean) threads;
+            if(hotspot.isThreadAllocatedMemorySupported()) {
+                if(!hotspot.isThreadAllocatedMemoryEnabled())
+                    hotspot.setThreadAllocatedMemoryEnabled(true);
+            } else {
+                hotspot = null;
+            }
+        }
+        allocations = hotspot;
+
+        if(!cpuSupported || allocations == null)
+            logger.info("Method accounting without " + (!cpuSupported ? "cpu time" : "allocation") + ", the jvm does not measure it");
+    }
+
+    /**
+     * Starts measuring an execution on the current thread.
+     */
+    public Measurement start() {
+        return new Measurement();
+    }
+
+    /**
+     * Work of the method running on this thread that another thread runs. Its cpu time and allocation on that
+     * thread are added to the measurement of the method, outside of a measurement it is the work itself.
+     * @return the work to run on the other thread
+     */
+    public static Runnable worker(Runnable work) {
+        Measurement measurement = CURRENT.get();
+        return measurement != null ? () -> measurement.runWorker(work) : work;
+    }
+
+    public List<MethodCost> getStatus() {
+        List<MethodCost> status = new ArrayList<>();
+        for(Map.Entry<String, Totals> entry : new TreeMap<>(totals).entrySet()) {
+            status.add(getCost(entry.getKey(), entry.getValue()));
+        }
+        return status;
+    }
+
+    /**
+     * @return the cost of the method, null if it never ran
+     */
+    public MethodCost getCost(String method) {
+        Totals total = totals.get(method);
+        return total != null ? getCost(method, total) : null;
+    }
+
+    private MethodCost getCost(String method, Totals total) {
+        long count = Math.max(1, total.invocations.sum());
+        return new MethodCost(method, total.invocations.sum(),
+                total.wallNanos.sum() / 1e6 / count, total.maxWallNanos.get() / 1e6,
+                cpuSupported ? total.cpuNanos.sum() / 1e6 / count : -1,
+                allocations != null ? total.allocatedBytes.sum() / 1048576.0 / count : -1,
+                (double) total.iterations.sum() / count, (double) total.graphSize.sum() / count);
+    }
+
+    private long cpuTime() {
+        return cpuSupported ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+}
@@ -0,0 +1,109 @@
+package de.uhh.lt.xpertfinder.service;
+
+import com.google.gson.Gson;
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the incoming searches to a file, one JSON object per line with the time, the endpoint and the
+ * query, so the traffic can be replayed against a test instance (tools/replay_query_log.py).
+ *
+ * Searches of the pages are logged as the equivalent api query. Nothing is logged unless querylog.file is set,
+ * a search never fails because it could not be logged.
+ */
+@Service
+public class QueryLog {
+
+    private static Logger logger = LoggerFactory.getLogger(QueryLog.class);
+
+    public static class Entry {
+        private long time;
+        private String endpoint;
+        private RankingQuery query;
+
+        public Entry(long time, String endpoint, RankingQuery query) {
+            this.time = time;
+            this.endpoint = endpoint;
+            this.query = query;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public RankingQuery getQuery() {
+            return query;
+        }
+    }
+
+    private Writer writer;
+    private Gson gson = new Gson();
+
+    public QueryLog(@Value("${querylog.file:}") String file) {
+        if(file == null || file.trim().isEmpty())
+            return;
+
+        try {
+            writer = Files.newBufferedWriter(Paths.get(file.trim()), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.info("Logging the queries to " + file.trim());
+        } catch (IOException e) {
+            logger.error("Could not open the query log " + file.trim() + ", queries are not logged", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if(writer == null)
+            return;
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Could not close the query log", e);
+        }
+        writer = null;
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * @param endpoint the endpoint the query came in at, e.g. "POST /api/experts"
+     */
+    public void record(String endpoint, RankingQuery query) {
+        if(writer == null)
+            return;
+
+        // serialize outside of the lock, only the write is serialized
+        String line = gson.toJson(new Entry(System.currentTimeMillis(), endpoint, query));
+        synchronized(this) {
+            if(writer == null)
+                return;
+
+            try {
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                logger.error("Could not log the query, further queries are not logged", e);
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package de.uhh.lt.xpertfinder.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.ExpertRetrievalResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.Ranking;
+import de.uhh.lt.xpertfinder.finder.StageMetrics;
+import de.uhh.lt.xpertfinder.methods.DefaultRequest;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.methods.MultiParameterMethod;
+import de.uhh.lt.xpertfinder.model.api.RankedNode;
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import de.uhh.lt.xpertfinder.model.api.RankingResult;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers ranking queries without a session: the topic comes from the TopicService cache and the
+ * rankings are returned as plain lists of nodes and scores.
+ */
+@Service
+public class RankingService {
+
+    @Autowired
+    private MethodService methodService;
+
+    @Autowired
+    private TopicService topicService;
+
+    @Autowired
+    private ExpertRetrieval expertRetrieval;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    private Gson gson = new Gson();
+
+    public RankingResult rank(RankingQuery query) {
+        if(query.getTopic() == null || query.getTopic().trim().isEmpty())
+            throw new IllegalArgumentException("No topic given");
+
+        ExpertFindingMethod method = getMethod(query.getMethod());
+        DefaultRequest request = parseRequest(method, query.getRequest());
+        Deadline deadline = query.getBudget() != null && query.getBudget() > 0 ? Deadline.current().withinMillis(query.getBudget()) : Deadline.current();
+        return deadline.call(() -> rankOrDegrade(query, method, request));
+    }
+
+    private RankingResult rankOrDegrade(RankingQuery query, ExpertFindingMethod method, DefaultRequest request) {
+        try {
+            return rank(query, method, request);
+        } catch (AdmissionRejectedException e) {
+            // under load, answer with a smaller graph instead of no answer
+            int documents = admissionService.getDegradedDocuments();
+            if(documents <= 0 || request.getDocuments() <= documents)
+                throw e;
+
+            Map<String, Object> params = query.getRequest() != null ? new HashMap<>(query.getRequest()) : new HashMap<>();
+            params.put("documents", documents);
+            // the request waited a full admission timeout already, the smaller graph only waits a short while
+            DefaultRequest degraded = parseRequest(method, params);
+            RankingResult result = AdmissionService.waitAtMost(admissionService.getDegradedTimeout(), () -> rank(query, method, degraded));
+            result.setDegraded(e.getMessage() + ", ranked the top " + documents + " instead of " + request.getDocuments() + " documents");
+            return result;
+        }
+    }
+
+    private RankingResult rank(RankingQuery query, ExpertFindingMethod method, DefaultRequest request) {
+        ExpertTopic expertTopic = topicService.getExpertTopic(query.getTopic(), query.getYearFrom(), query.getYearTo(), query.isIncludeTitle(), method, request, TopicService.graphOptions(request, query.getOptions()));
+        return rank(expertTopic, query.getTopic(), method, request, query.isIncludeDocuments());
+    }
+
+    /**
+     * Ranks an already built topic within the deadline of the current request.
+     */
+    public RankingResult rank(ExpertTopic expertTopic, String topic, ExpertFindingMethod method, DefaultRequest request, boolean includeDocuments) {
+        if(!expertTopic.isInitialized() || !expertTopic.isFoundResult())
+            return new RankingResult(topic, method.getId(), false);
+
+        ExpertRetrievalResult result = expertRetrieval.findExperts(expertTopic, method.getId(), request);
+        if(result == null)
+            return new RankingResult(topic, method.getId(), false);
+
+        StageMetrics.Sample enrichment = StageMetrics.get().start(StageMetrics.Stage.ENRICHMENT);
+        RankingResult rankingResult = createResult(topic, method, request, includeDocuments, expertTopic.getGraph(), result, 1);
+        enrichment.stop(rankingResult.getExperts().size() + (rankingResult.getDocuments() != null ? rankingResult.getDocuments().size() : 0));
+        return rankingResult;
+    }
+
+    /**
+     * Ranks an already built topic for several requests of the method in one run.
+     *
+     * @return the results in the order of the requests
+     */
+    public List<RankingResult> rank(ExpertTopic expertTopic, String topic, MultiParameterMethod method, List<DefaultRequest> requests, boolean includeDocuments) {
+        List<RankingResult> rankingResults = new ArrayList<>(requests.size());
+        List<ExpertRetrievalResult> results = expertTopic.isInitialized() && expertTopic.isFoundResult() ? expertRetrieval.findExperts(expertTopic, method, requests) : null;
+        if(results == null) {
+            for(int i = 0; i < requests.size(); i++)
+                rankingResults.add(new RankingResult(topic, method.getId(), false));
+            return rankingResults;
+        }
+
+        StageMetrics.Sample enrichment = StageMetrics.get().start(StageMetrics.Stage.ENRICHMENT);
+        int size = 0;
+        for(int i = 0; i < requests.size(); i++) {
+            RankingResult rankingResult = createResult(topic, method, requests.get(i), includeDocuments, expertTopic.getGraph(), results.get(i), requests.size());
+            size += rankingResult.getExperts().size() + (rankingResult.getDocuments() != null ? rankingResult.getDocuments().size() : 0);
+            rankingResults.add(rankingResult);
+        }
+        enrichment.stop(size);
+        return rankingResults;
+    }
+
+    public ExpertFindingMethod getMethod(String id) {
+        ExpertFindingMethod method = methodService.getExpertFindingMethodById(id);
+        if(method == null)
+            throw new IllegalArgumentException("Unknown method " + id);
+
+        return method;
+    }
+
+    /**
+     * @return the request object of the method, parameters missing from params keep their default value
+     */
+    public DefaultRequest parseRequest(ExpertFindingMethod method, Map<String, Object> params) {
+        Object defaults = method.getRequestObject();
+        JsonObject json = gson.toJsonTree(defaults).getAsJsonObject();
+        if(params != null) {
+            for(Map.Entry<String, JsonElement> entry : gson.toJsonTree(params).getAsJsonObject().entrySet()) {
+                json.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return (DefaultRequest) gson.fromJson(json, defaults.getClass());
+    }
+
+    /**
+     * @param sharedRun number of requests that were ranked in the same run as this one
+     */
+    private RankingResult createResult(String topic, ExpertFindingMethod method, DefaultRequest request, boolean includeDocuments, Graph graph, ExpertRetrievalResult result, int sharedRun) {
+        RankingResult rankingResult = new RankingResult(topic, method.getId(), true);
+        if(result.getMethod() != null && !result.getMethod().equals(method.getId())) {
+            rankingResult.setMethod(result.getMethod());
+            rankingResult.setRequestedMethod(method.getId());
+        }
+        rankingResult.setIterations(result.getIterations());
+        if(result.getUsage() != null)
+            rankingResult.setMillis(result.getUsage().getWallMillis() / sharedRun);
+        if(sharedRun > 1)
+            rankingResult.setSharedRun(sharedRun);
+        if(result.isTruncated())
+            rankingResult.setTruncated(true);
+        if(result.getSavedIterations() > 0)
+            rankingResult.setSavedIterations(result.getSavedIterations());
+        rankingResult.setDocumentCount(graph.getDocs().size());
+        rankingResult.setAuthorCount(graph.getAuthors().size());
+
+        Ranking experts = result.getExpertRanking();
+        int expertCount = request.getResults() > 0 ? Math.min(request.getResults(), experts.size()) : experts.size();
+        List<RankedNode> expertNodes = new ArrayList<>(expertCount);
+        for(int rank = 0; rank < expertCount; rank++) {
+            String author = experts.getNode(rank);
+            expertNodes.add(new RankedNode(author, graph.getAuthorId(author), experts.getScore(rank)));
+        }
+        rankingResult.setExperts(expertNodes);
+
+        if(includeDocuments) {
+            Ranking documents = result.getDocumentRanking();
+            int documentCount = request.getResults() > 0 ? Math.min(request.getResults(), documents.size()) : documents.size();
+            List<RankedNode> documentNodes = new ArrayList<>(documentCount);
+            for(int rank = 0; rank < documentCount; rank++) {
+                documentNodes.add(new RankedNode(documents.getNode(rank), null, documents.getScore(rank)));
+            }
+            rankingResult.setDocuments(documentNodes);
+        }
+
+        return rankingResult;
+    }
+}
@@ -0,0 +1,154 @@
+package de.uhh.lt.xpertfinder.service;
+
+import com.google.gson.Gson;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.model.api.RankingQuery;
+import de.uhh.lt.xpertfinder.model.api.SearchJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs ranking queries as background jobs on a bounded pool.
+ *
+ * A query that is submitted again while its job is running or after it finished returns the same job,
+ * so refreshing a page does not start the search a second time. Finished jobs are kept for later
+ * retrieval, the job.cache.size most recently used ones survive. Failed jobs are not reused.
+ */
+@Service
+public class SearchJobService {
+
+    private static Logger logger = LoggerFactory.getLogger(SearchJobService.class);
+
+    @Autowired
+    private RankingService rankingService;
+
+    private ThreadPoolExecutor executor;
+    private Gson gson = new Gson();
+
+    private final Map<String, SearchJob> running = new HashMap<>();
+    private final Map<String, SearchJob> finished;
+    private final Map<String, String> jobsByQuery = new HashMap<>();
+
+    public SearchJobService(@Value("${job.threads:2}") int threads, @Value("${job.queue:50}") int queueSize, @Value("${job.cache.size:100}") int cacheSize) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)), r -> {
+            Thread thread = new Thread(r, "search-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.finished = new LinkedHashMap<String, SearchJob>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SearchJob> eldest) {
+                if(size() <= cacheSize)
+                    return false;
+
+                jobsByQuery.values().remove(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the job of the query, a new one or the one of an equal query that is running or finished
+     * @throws IllegalArgumentException if the query is invalid
+     * @throws RejectedExecutionException if the queue of waiting jobs is full
+     */
+    public SearchJob submit(RankingQuery query) {
+        if(query.getTopic() == null || query.getTopic().trim().isEmpty())
+            throw new IllegalArgumentException("No topic given");
+
+        // fails fast on invalid methods and requests instead of in the job
+        String key = key(query);
+        SearchJob job;
+        synchronized (this) {
+            String id = jobsByQuery.get(key);
+            if(id != null) {
+                job = running.containsKey(id) ? running.get(id) : finished.get(id);
+                if(job != null && job.getStage() != SearchProgress.Stage.FAILED) {
+                    logger.debug("Reuse job " + id + " for " + key);
+                    return job;
+                }
+            }
+
+            job = new SearchJob(UUID.randomUUID().toString(), query);
+            running.put(job.getId(), job);
+            jobsByQuery.put(key, job.getId());
+
+            SearchJob submitted = job;
+            try {
+                executor.execute(() -> run(submitted));
+            } catch (RejectedExecutionException e) {
+                running.remove(job.getId());
+                jobsByQuery.remove(key, job.getId());
+                throw e;
+            }
+        }
+
+        logger.debug("Submitted job " + job.getId() + " for " + key + ", " + executor.getQueue().size() + " jobs waiting");
+        return job;
+    }
+
+    /**
+     * @return the running or finished job, null if it is unknown or was evicted
+     */
+    public synchronized SearchJob getJob(String id) {
+        SearchJob job = running.get(id);
+        return job != null ? job : finished.get(id);
+    }
+
+    /**
+     * Cancels the job if it is waiting or running, finished jobs are left as they are.
+     * @return the job, null if it is unknown or was evicted
+     */
+    public synchronized SearchJob cancel(String id) {
+        SearchJob job = running.get(id);
+        if(job != null) {
+            logger.debug("Cancel job " + id);
+            job.cancel();
+            return job;
+        }
+        return finished.get(id);
+    }
+
+    private void run(SearchJob job) {
+        job.start();
+        try {
+            job.getDeadline().run(() -> {
+                job.getDeadline().check("starting the job");
+                job.getProgress().run(() -> job.complete(rankingService.rank(job.getQuery())));
+            });
+        } catch (RuntimeException e) {
+            logger.error("Job " + job.getId() + " failed", e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+
+        synchronized (this) {
+            running.remove(job.getId());
+            finished.put(job.getId(), job);
+        }
+    }
+
+    private String key(RankingQuery query) {
+        // the parsed request contains the defaults, so partial and complete requests of the same search are equal
+        ExpertFindingMethod method = rankingService.getMethod(query.getMethod());
+        return gson.toJson(new Object[] {
+                query.getTopic().toLowerCase().trim(), query.getYearFrom(), query.getYearTo(), query.isIncludeTitle(),
+                method.getId(), rankingService.parseRequest(method, query.getRequest()), query.getOptions(), query.isIncludeDocuments(), query.getBudget()
+        });
+    }
+}
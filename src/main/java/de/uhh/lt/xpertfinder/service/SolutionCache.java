@@ -0,0 +1,79 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the converged scores of the iterating methods for the topic graphs that are still in use. A walk on the
+ * same graph starts from them instead of the document relevance, so a rerun or a small change of lambda or
+ * epsilon needs a few iterations instead of hundreds. The walks converge to the same scores from any start, a
+ * walk that started from a solution checks its convergence on the change of the scores, not of their norm.
+ *
+ * Solutions belong to a graph instance and a method. The graphs are weak keys, the solutions are dropped with their
+ * graph once it is evicted from the topic cache. The score maps are never changed after they are added and are
+ * shared by all walks on the graph.
+ */
+@Service
+public class SolutionCache {
+
+    public static class Solution {
+        private final Map<String, Double> documentScores;
+        private final Map<String, Double> authorScores;
+
+        public Solution(Map<String, Double> documentScores, Map<String, Double> authorScores) {
+            this.documentScores = documentScores;
+            this.authorScores = authorScores;
+        }
+
+        public Map<String, Double> getDocumentScores() {
+            return documentScores;
+        }
+
+        public Map<String, Double> getAuthorScores() {
+            return authorScores;
+        }
+    }
+
+    // weak graph keys, the solutions of a graph go when the topic cache and the requests no longer hold it
+    private final Map<Graph, Map<String, Solution>> cache = new WeakHashMap<>();
+    private final boolean enabled;
+
+    public SolutionCache(@Value("${solution.cache.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the last converged scores of the method on the graph, null if there are none
+     */
+    public Solution get(Graph graph, String method) {
+        if(!enabled)
+            return null;
+
+        synchronized (cache) {
+            Map<String, Solution> solutions = cache.get(graph);
+            return solutions != null ? solutions.get(method) : null;
+        }
+    }
+
+    /**
+     * Keeps the scores as the start of the next walk of the method on the graph. Only converged scores should be
+     * added, the maps must not be changed afterwards.
+     */
+    public void put(Graph graph, String method, Map<String, Double> documentScores, Map<String, Double> authorScores) {
+        if(!enabled)
+            return;
+
+        synchronized (cache) {
+            cache.computeIfAbsent(graph, g -> new HashMap<>()).put(method, new Solution(documentScores, authorScores));
+        }
+    }
+}
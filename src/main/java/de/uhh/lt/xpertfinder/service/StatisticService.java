@@ -21,11 +21,13 @@ public class StatisticService {
 
     Map<String, Integer> authorPublications = new HashMap<>();
     Map<String, Integer> authorCitations = new HashMap<>();
+    Map<String, Integer> documentCitations = new HashMap<>();
     Map<String, Integer> globalHindex = new HashMap<>();
 
     @PostConstruct
     public void init() {
         calculateAuthorCitations();
+        calculateDocumentCitations();
         calculateAuthorPublications();
         calculateGlobalHindex();
     }
@@ -52,6 +54,16 @@ public class StatisticService {
         }
     }
 
+    private void calculateDocumentCitations() {
+        List<Object[]> info = statisticDao.getCitationCountPerDocument();
+        for(Object[] o : info) {
+            String document = (String) o[0];
+            int citations = ((BigInteger) o[1]).intValue();
+
+            documentCitations.put(document, citations);
+        }
+    }
+
     private void calculateGlobalHindex() {
         // get document citations per author
         Set<String> authors = new HashSet<>();
@@ -95,6 +107,13 @@ public class StatisticService {
         return authorCitations;
     }
 
+    /**
+     * @return global citation count by document file, documents without citations are missing
+     */
+    public Map<String, Integer> getDocumentCitations() {
+        return documentCitations;
+    }
+
     public Map<String, Integer> getGlobalHindex() {
         return globalHindex;
     }
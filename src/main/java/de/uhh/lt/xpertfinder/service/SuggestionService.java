@@ -0,0 +1,173 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.KeywordDao;
+import de.uhh.lt.xpertfinder.model.suggest.Suggestion;
+import de.uhh.lt.xpertfinder.utils.TextUtils;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Prefix suggestions for the topic input, built from the keywords of keywords_best and keywords_all
+ * and the names of authors_aan.
+ *
+ * Keywords and author names are kept in two weighted FSTs (Lucene's WFSTCompletionLookup), which return the
+ * most popular completions of a prefix without looking at all terms that share it. Keywords are weighted by
+ * the number of authors and documents they were extracted for, authors by their number of publications.
+ * Lookups ignore case and accents; the original spelling is only stored where it differs from the key.
+ */
+@Service
+public class SuggestionService {
+
+    private static Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    @Autowired
+    KeywordDao keywordDao;
+
+    @Autowired
+    AanDao aanDao;
+
+    @Autowired
+    StatisticService statisticService;
+
+    @Value("${suggest.keywords.mincount:2}")
+    int keywordMinCount;
+
+    private WFSTCompletionLookup keywords;
+    private WFSTCompletionLookup authors;
+    private Map<String, String> spellings = new HashMap<>();
+    private Map<String, Long> authorIds = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        long time = System.nanoTime();
+
+        Map<String, Long> keywordWeights = new HashMap<>();
+        for(Object[] o : keywordDao.findKeywordAuthorCounts(keywordMinCount)) {
+            addTerm(keywordWeights, (String) o[0], ((Number) o[1]).longValue());
+        }
+        for(Object[] o : keywordDao.findKeywordDocumentCounts(keywordMinCount)) {
+            addTerm(keywordWeights, (String) o[0], ((Number) o[1]).longValue());
+        }
+
+        Map<String, Integer> publications = statisticService.getAuthorPublications();
+        Map<String, Long> authorWeights = new HashMap<>();
+        for(Object[] o : aanDao.findAllAuthorNames()) {
+            String name = (String) o[1];
+            String key = addTerm(authorWeights, name, publications.getOrDefault(name, 0));
+            if(key != null)
+                authorIds.putIfAbsent(key, ((Number) o[0]).longValue());
+        }
+
+        keywords = build(keywordWeights, "keywords");
+        authors = build(authorWeights, "authors");
+
+        logger.debug("Built suggestions for " + keywords.getCount() + " keywords and " + authors.getCount() + " authors using "
+                + (keywords.ramBytesUsed() + authors.ramBytesUsed()) + " bytes after " + (System.nanoTime() - time) + " nanoseconds");
+    }
+
+    /**
+     * @return the most popular keywords and authors starting with the prefix, at most limit of each type
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        List<Suggestion> result = new ArrayList<>();
+        String key = TextUtils.normalize(prefix).trim();
+        if(key.isEmpty() || limit <= 0)
+            return result;
+
+        for(Lookup.LookupResult lookupResult : lookup(keywords, key, limit)) {
+            String term = lookupResult.key.toString();
+            result.add(new Suggestion(spellings.getOrDefault(term, term), Suggestion.KEYWORD, lookupResult.value, null));
+        }
+        for(Lookup.LookupResult lookupResult : lookup(authors, key, limit)) {
+            String term = lookupResult.key.toString();
+            result.add(new Suggestion(spellings.getOrDefault(term, term), Suggestion.AUTHOR, lookupResult.value, authorIds.get(term)));
+        }
+
+        return result;
+    }
+
+    private String addTerm(Map<String, Long> weights, String term, long weight) {
+        if(term == null || term.trim().isEmpty())
+            return null;
+
+        String trimmed = term.trim();
+        String key = TextUtils.normalize(trimmed);
+        weights.merge(key, weight, Long::sum);
+        if(!key.equals(trimmed))
+            spellings.putIfAbsent(key, trimmed);
+
+        return key;
+    }
+
+    private static List<Lookup.LookupResult> lookup(WFSTCompletionLookup lookup, String key, int limit) {
+        try {
+            return lookup.lookup(key, null, false, limit);
+        } catch (RuntimeException e) {
+            // the FST rejects keys it cannot encode, e.g. with the reserved separator byte
+            logger.debug("Could not look up suggestions for '" + key + "'", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static WFSTCompletionLookup build(Map<String, Long> weights, String name) {
+        WFSTCompletionLookup lookup = new WFSTCompletionLookup(new RAMDirectory(), name);
+        Iterator<Map.Entry<String, Long>> entries = weights.entrySet().iterator();
+        try {
+            lookup.build(new InputIterator() {
+                private Map.Entry<String, Long> current;
+
+                @Override
+                public BytesRef next() {
+                    if(!entries.hasNext())
+                        return null;
+
+                    current = entries.next();
+                    return new BytesRef(current.getKey());
+                }
+
+                @Override
+                public long weight() {
+                    // the FST encodes weights as ints
+                    return Math.min(current.getValue(), Integer.MAX_VALUE);
+                }
+
+                @Override
+                public BytesRef payload() {
+                    return null;
+                }
+
+                @Override
+                public boolean hasPayloads() {
+                    return false;
+                }
+
+                @Override
+                public Set<BytesRef> contexts() {
+                    return null;
+                }
+
+                @Override
+                public boolean hasContexts() {
+                    return false;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not build the " + name + " suggestions", e);
+        }
+        return lookup;
+    }
+}
@@ -0,0 +1,155 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.dao.SyntheticCorpus;
+import de.uhh.lt.xpertfinder.finder.CorpusStatistic;
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Searches the synthetic corpus instead of elasticsearch. A document matches if it contains all terms of the
+ * topic, phrases are matched like their terms, and the documents are ordered by their BM25 score.
+ */
+@Service
+@Profile("synthetic")
+public class SyntheticElasticSearchService extends ElasticSearchService {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private SyntheticCorpus corpus;
+
+    @Autowired
+    public SyntheticElasticSearchService(SyntheticCorpus corpus, @Value("${elasticindex}") String elasticindex) {
+        super(elasticindex);
+        this.corpus = corpus;
+    }
+
+    @Override
+    public MyResult getDocumentIdsByTopicAAN(String topic) {
+        String[] topics = topic.toLowerCase().replaceAll("\\+", "").replaceAll("\\s+", " ").trim().split(" ");
+
+        List<String> result = new ArrayList<>();
+        Map<String, int[]> info = new HashMap<>();
+        int[] terms = terms(topics);
+        if(terms == null)
+            return new MyResult(result, info);
+
+        for(int doc : search(terms)) {
+            int[] data = new int[topics.length + 1];
+            for(int i = 0; i < terms.length; i++)
+                data[i] = corpus.getTermFrequency(doc, terms[i]);
+            data[topics.length] = corpus.getDocumentLength(doc);
+
+            String file = corpus.getFile(doc);
+            info.put(file, data);
+            result.add(file);
+        }
+        return new MyResult(result, info);
+    }
+
+    @Override
+    public ScoredDocumentResult getScoredDocumentsForTopic(String topic) {
+        List<String> result = new ArrayList<>();
+        Map<String, Double> scores = new HashMap<>();
+        int[] terms = terms(topic.split(" "));
+        if(terms == null)
+            return new ScoredDocumentResult(result, scores);
+
+        for(int doc : search(terms)) {
+            String file = corpus.getFile(doc);
+            result.add(file);
+            scores.put(file, score(doc, terms));
+        }
+        return new ScoredDocumentResult(result, scores);
+    }
+
+    @Override
+    public CorpusStatistic getCorpusStatistic(String esId, String[] terms) {
+        int doc = corpus.findDocument(esId);
+        if(doc < 0)
+            return null;
+
+        double docCount = corpus.getDocumentCount();
+        double sumTtf = corpus.getSumLength();
+
+        Map<String, Integer> totalTermFrequencies = new HashMap<>();
+        Map<String, Double> pts = new HashMap<>();
+        for(String term : terms) {
+            int id = corpus.findTerm(term);
+            if(id < 0 || corpus.getTermFrequency(doc, id) == 0)
+                return null;
+
+            long ttf = corpus.getTotalTermFrequency(id);
+            totalTermFrequencies.put(term, (int) Math.min(Integer.MAX_VALUE, ttf));
+            pts.put(term, Math.log(ttf) - Math.log(sumTtf));
+        }
+
+        return new CorpusStatistic(docCount, sumTtf, sumTtf / docCount, totalTermFrequencies, pts);
+    }
+
+    /**
+     * @return the terms of the vocabulary, null if one of them is unknown and no document can match
+     */
+    private int[] terms(String[] topics) {
+        int[] terms = new int[topics.length];
+        for(int i = 0; i < topics.length; i++) {
+            terms[i] = corpus.findTerm(topics[i].trim().toLowerCase());
+            if(terms[i] < 0)
+                return null;
+        }
+        return terms;
+    }
+
+    /**
+     * @return the documents that contain all terms, the best first
+     */
+    private List<Integer> search(int[] terms) {
+        Deadline.current().check("searching the documents");
+
+        // walk the shortest posting list and look the documents up in the others
+        int[][] postings = new int[terms.length][];
+        for(int i = 0; i < terms.length; i++)
+            postings[i] = corpus.getPostings(terms[i]);
+        Arrays.sort(postings, Comparator.comparingInt(p -> p.length));
+
+        List<Integer> documents = new ArrayList<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        for(int doc : postings[0]) {
+            boolean all = true;
+            for(int i = 1; i < postings.length && all; i++)
+                all = Arrays.binarySearch(postings[i], doc) >= 0;
+
+            if(all) {
+                documents.add(doc);
+                scores.put(doc, score(doc, terms));
+            }
+        }
+
+        documents.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        return documents;
+    }
+
+    private double score(int doc, int[] terms) {
+        double avgLength = (double) corpus.getSumLength() / corpus.getDocumentCount();
+        double norm = K1 * (1 - B + B * corpus.getDocumentLength(doc) / avgLength);
+
+        double score = 0;
+        for(int term : terms) {
+            int df = corpus.getDocumentFrequency(term);
+            double idf = Math.log(1 + (corpus.getDocumentCount() - df + 0.5) / (df + 0.5));
+            int tf = corpus.getTermFrequency(doc, term);
+            score += idf * tf * (K1 + 1) / (tf + norm);
+        }
+        return score;
+    }
+}
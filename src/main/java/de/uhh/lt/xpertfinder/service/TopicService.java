@@ -0,0 +1,191 @@
+package de.uhh.lt.xpertfinder.service;
+
+import de.uhh.lt.xpertfinder.dao.AanDao;
+import de.uhh.lt.xpertfinder.dao.GraphDao;
+import de.uhh.lt.xpertfinder.finder.Deadline;
+import de.uhh.lt.xpertfinder.finder.DeadlineExceededException;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.StageMetrics;
+import de.uhh.lt.xpertfinder.methods.DefaultRequest;
+import de.uhh.lt.xpertfinder.methods.ExpertFindingMethod;
+import de.uhh.lt.xpertfinder.methods.InfiniteRandomWeightedMethod;
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates expert topics and keeps the most recently used ones, so the pages and the api share
+ * the documents and graphs of a topic instead of querying elasticsearch and mysql again.
+ *
+ * Topics are never changed after setup, the cached instances are handed to all callers. If several
+ * requests ask for the same topic at the same time, only the first one builds it, bounded by the timeout
+ * of the topic lane only. Every request limits just its own wait for the topic by its deadline.
+ */
+@Service
+public class TopicService {
+
+    private static Logger logger = LoggerFactory.getLogger(TopicService.class);
+
+    @Autowired
+    private ElasticSearchService elasticSearch;
+
+    @Autowired
+    private AanDao aanDao;
+
+    @Autowired
+    private GraphDao graphDao;
+
+    @Autowired
+    private StatisticService statisticService;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    private final Map<String, FutureTask<ExpertTopic>> cache;
+
+    public TopicService(@Value("${topic.cache.size:32}") int cacheSize) {
+        this.cache = new LinkedHashMap<String, FutureTask<ExpertTopic>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FutureTask<ExpertTopic>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @return the topic with the graph the method needs, built with the documents limit of the request
+     */
+    public ExpertTopic getExpertTopic(String topic, int yearFrom, int yearTo, boolean includeTitle, ExpertFindingMethod method, DefaultRequest request, GraphOptions options) {
+        GraphOptions graphOptions = options != null ? options : new GraphOptions();
+        String key = key(topic, yearFrom, yearTo, includeTitle, method, request, graphOptions);
+
+        FutureTask<ExpertTopic> task;
+        boolean owner = false;
+        synchronized (cache) {
+            task = cache.get(key);
+            if(task == null) {
+                // the topic is shared, so it is built without the deadline and the shorter admission wait of the
+                // request that happens to build it, otherwise its budget would fail every request waiting for the topic
+                task = new FutureTask<>(() -> Deadline.cancellable().call(() -> AdmissionService.waitAsLongAsTheLanes(() -> {
+                    // requests waiting for the same topic share the admission of the one that builds it
+                    try(AdmissionService.Ticket ticket = admissionService.admitTopic(request.getDocuments())) {
+                        ExpertTopic expertTopic = createExpertTopic(graphDao);
+                        // the stages of the topic count for the method it was first built for
+                        StageMetrics.withMethod(method.getId(), () -> {
+                            expertTopic.setup(topic, yearFrom, yearTo, includeTitle, request.getDocuments(), method.needsPublications(), method.needsCollaborations(), method.needsCitations(), graphOptions);
+                            return null;
+                        });
+                        return expertTopic;
+                    }
+                })));
+                cache.put(key, task);
+                owner = true;
+            }
+        }
+
+        if(owner) {
+            logger.debug("Create topic " + key);
+            task.run();
+        } else {
+            logger.debug("Use cached topic " + key);
+        }
+
+        try {
+            // the topic stays in the cache for others if this request gives up waiting for it
+            Deadline deadline = Deadline.current();
+            return deadline.isLimited() ? task.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS) : task.get();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded while waiting for topic " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for topic " + key, e);
+        } catch (ExecutionException e) {
+            // do not keep failed topics, the next request tries again
+            synchronized (cache) {
+                cache.remove(key, task);
+            }
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Could not create topic " + key, e.getCause());
+        }
+    }
+
+    /**
+     * The weighted random walk brings its own graph options, all other methods use the options of the query.
+     */
+    public static GraphOptions graphOptions(DefaultRequest request, GraphOptions options) {
+        if(request instanceof InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest)
+            return ((InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest) request).getOptions();
+
+        return options;
+    }
+
+    /**
+     * @return the topic if it is cached and completely built, null otherwise
+     */
+    public ExpertTopic getCachedTopic(String key) {
+        FutureTask<ExpertTopic> task;
+        synchronized (cache) {
+            task = cache.get(key);
+        }
+        if(task == null || !task.isDone())
+            return null;
+
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Caches a topic that was built outside of this service, e.g. by a batch.
+     */
+    public void putTopic(String key, ExpertTopic expertTopic) {
+        FutureTask<ExpertTopic> task = new FutureTask<>(() -> expertTopic);
+        task.run();
+        synchronized (cache) {
+            cache.put(key, task);
+        }
+    }
+
+    /**
+     * @return a new topic that is not set up yet and reads its graph relations from the given dao
+     */
+    public ExpertTopic createExpertTopic(GraphDao graphDao) {
+        return new ExpertTopic(elasticSearch, aanDao, graphDao, statisticService.getGlobalHindex());
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return key of the documents of a topic, topics with the same key only differ in their graph
+     */
+    public static String documentKey(String topic, int yearFrom, int yearTo, boolean includeTitle, DefaultRequest request) {
+        // ExpertTopic lowercases the topic anyway
+        return topic.toLowerCase().trim() + "|" + yearFrom + "|" + yearTo + "|" + includeTitle + "|" + request.getDocuments();
+    }
+
+    /**
+     * @return key of the topic with the graph the method needs
+     */
+    public static String key(String topic, int yearFrom, int yearTo, boolean includeTitle, ExpertFindingMethod method, DefaultRequest request, GraphOptions options) {
+        return documentKey(topic, yearFrom, yearTo, includeTitle, request)
+                + "|" + method.needsPublications() + method.needsCollaborations() + method.needsCitations()
+                + "|" + options.isCollaborationTF() + options.isCollaborationIDF() + options.isCitationTF() + options.isCitationIDF() + options.isAuthorshipTF();
+    }
+}
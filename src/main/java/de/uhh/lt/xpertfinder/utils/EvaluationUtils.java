@@ -0,0 +1,101 @@
+package de.uhh.lt.xpertfinder.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quality of a ranking against graded judgments, nodes with a grade above 0 are relevant.
+ */
+public class EvaluationUtils {
+
+    public static double precision(List<String> ranking, Map<String, Integer> grades, int k) {
+        if(k <= 0)
+            return 0;
+
+        return (double) relevantWithin(ranking, grades, k) / k;
+    }
+
+    public static double recall(List<String> ranking, Map<String, Integer> grades, int k) {
+        int relevant = countRelevant(grades);
+        return relevant == 0 ? 0 : (double) relevantWithin(ranking, grades, k) / relevant;
+    }
+
+    public static double averagePrecision(List<String> ranking, Map<String, Integer> grades) {
+        int relevant = countRelevant(grades);
+        if(relevant == 0)
+            return 0;
+
+        double sum = 0;
+        int found = 0;
+        for(int i = 0; i < ranking.size(); i++) {
+            if(isRelevant(ranking.get(i), grades)) {
+                found++;
+                sum += (double) found / (i + 1);
+            }
+        }
+        return sum / relevant;
+    }
+
+    public static double reciprocalRank(List<String> ranking, Map<String, Integer> grades) {
+        for(int i = 0; i < ranking.size(); i++) {
+            if(isRelevant(ranking.get(i), grades))
+                return 1.0 / (i + 1);
+        }
+        return 0;
+    }
+
+    /**
+     * @return dcg of the top k with gain 2^grade - 1, divided by the dcg of the ideal ranking
+     */
+    public static double ndcg(List<String> ranking, Map<String, Integer> grades, int k) {
+        double dcg = 0;
+        for(int i = 0; i < Math.min(k, ranking.size()); i++) {
+            dcg += gain(grades.getOrDefault(ranking.get(i), 0)) / log2(i + 2);
+        }
+
+        List<Integer> ideal = new ArrayList<>();
+        for(Integer grade : grades.values()) {
+            if(grade != null && grade > 0)
+                ideal.add(grade);
+        }
+        ideal.sort((a, b) -> Integer.compare(b, a));
+        double idcg = 0;
+        for(int i = 0; i < Math.min(k, ideal.size()); i++) {
+            idcg += gain(ideal.get(i)) / log2(i + 2);
+        }
+
+        return idcg == 0 ? 0 : dcg / idcg;
+    }
+
+    private static int relevantWithin(List<String> ranking, Map<String, Integer> grades, int k) {
+        int found = 0;
+        for(int i = 0; i < Math.min(k, ranking.size()); i++) {
+            if(isRelevant(ranking.get(i), grades))
+                found++;
+        }
+        return found;
+    }
+
+    private static int countRelevant(Map<String, Integer> grades) {
+        int relevant = 0;
+        for(Integer grade : grades.values()) {
+            if(grade != null && grade > 0)
+                relevant++;
+        }
+        return relevant;
+    }
+
+    private static boolean isRelevant(String node, Map<String, Integer> grades) {
+        Integer grade = grades.get(node);
+        return grade != null && grade > 0;
+    }
+
+    private static double gain(Integer grade) {
+        return grade == null || grade <= 0 ? 0 : Math.pow(2, grade) - 1;
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+}
@@ -16,7 +16,31 @@ public class MathUtils {
     }
 
     public static boolean checkConvergence(Map<String, Double> map1, Map<String, Double> map2, double epsilon) {
-        return Math.abs(calculateNorm2(map1) - calculateNorm2(map2)) < epsilon;
+        return isConverged(residual(map1, map2), epsilon);
+    }
+
+    public static boolean isConverged(double residual, double epsilon) {
+        return residual < epsilon;
+    }
+
+    /**
+     * @return difference of the norms of two iterations, the walks have converged if it drops below epsilon
+     */
+    public static double residual(Map<String, Double> map1, Map<String, Double> map2) {
+        return Math.abs(calculateNorm2(map1) - calculateNorm2(map2));
+    }
+
+    /**
+     * @return largest difference of a value of two iterations, the norms of two different score vectors can be
+     * close while the scores are not, e.g. for a walk that starts from the solution of other parameters
+     */
+    public static double maxDifference(Map<String, Double> map1, Map<String, Double> map2) {
+        double difference = 0;
+        for(Map.Entry<String, Double> entry : map1.entrySet()) {
+            difference = Math.max(difference, Math.abs(entry.getValue() - map2.getOrDefault(entry.getKey(), 0d)));
+        }
+
+        return difference;
     }
 
     private static double calculateNorm2(Map<String, Double> map) {
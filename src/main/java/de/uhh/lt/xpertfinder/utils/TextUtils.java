@@ -0,0 +1,20 @@
+package de.uhh.lt.xpertfinder.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class TextUtils {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Lowercases and strips accents, so that strings compare like in the utf8mb4_unicode_ci collation.
+     */
+    public static String normalize(String s) {
+        if(s == null)
+            return "";
+
+        return DIACRITICS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.model.graph.Authorship;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * The baseline methods summed the documents of every author over the graph maps, the aggregation over the
+ * authorship ids must give the same sums.
+ */
+public class AuthorAggregationTest {
+
+    private final ExpertTopic expertTopic = TopicFixture.topic();
+
+    @Test
+    public void model2SumsTheDocumentScoresOfTheAuthors() {
+        Graph graph = expertTopic.getGraph();
+        double[] documentScores = expertTopic.getDocumentRanking().getScores();
+
+        // as Model2Method summed them, authors without a scored document have no score
+        double[] expected = new double[graph.getAuthorNodes().length];
+        Arrays.fill(expected, Double.NaN);
+        String[] documents = graph.getDocumentNodes();
+        for(int doc = 0; doc < documents.length; doc++) {
+            List<Authorship> authorships = graph.getDocumentAuthorNeighbors().get(documents[doc]);
+            if(Double.isNaN(documentScores[doc]) || authorships == null)
+                continue;
+
+            for(Authorship authorship : authorships) {
+                int author = graph.getAuthorNodeId(authorship.getAuthor());
+                expected[author] = Double.isNaN(expected[author]) ? documentScores[doc] : expected[author] + documentScores[doc];
+            }
+        }
+
+        ExpertFindingResult result = new Model2Method().findExperts(new DefaultRequest(), expertTopic);
+        TopicFixture.assertScores("authors", graph.createAuthorRanking(expected), result.getAuthorRanking());
+    }
+
+    @Test
+    public void localCitationsSumTheCitationsOfTheDocumentsOfTheAuthors() {
+        Graph graph = expertTopic.getGraph();
+
+        // as LocalCitationsMethod counted them, per author over its documents
+        String[] authors = graph.getAuthorNodes();
+        double[] expected = new double[authors.length];
+        for(int id = 0; id < authors.length; id++) {
+            int citations = 0;
+            if(graph.getAuthorDocumentNeighbors().containsKey(authors[id])) {
+                for(String document : graph.getAuthorDocumentNeighbors().get(authors[id])) {
+                    if(graph.getDocumentDocumentInNeighbors().containsKey(document))
+                        citations += graph.getDocumentDocumentInNeighbors().get(document).size();
+                }
+            }
+            expected[id] = citations;
+        }
+
+        ExpertFindingResult result = new LocalCitationsMethod().findExperts(new DefaultRequest(), expertTopic);
+        TopicFixture.assertScores("authors", graph.createAuthorRanking(expected), result.getAuthorRanking());
+    }
+
+    @Test
+    public void sumDocumentsLeavesOutMissingDocuments() {
+        Graph graph = expertTopic.getGraph();
+        double[] ones = new double[graph.getDocumentNodes().length];
+        Arrays.fill(ones, 1);
+        ones[0] = Double.NaN;
+
+        double[] expected = new double[graph.getAuthorNodes().length];
+        Arrays.fill(expected, -1);
+        String[] documents = graph.getDocumentNodes();
+        for(int doc = 1; doc < documents.length; doc++) {
+            List<Authorship> authorships = graph.getDocumentAuthorNeighbors().get(documents[doc]);
+            if(authorships == null)
+                continue;
+
+            for(Authorship authorship : authorships) {
+                int author = graph.getAuthorNodeId(authorship.getAuthor());
+                expected[author] = expected[author] < 0 ? 1 : expected[author] + 1;
+            }
+        }
+
+        assertArrayEquals(expected, AuthorAggregation.sumDocuments(graph, ones, -1), 0);
+    }
+
+    @Test
+    public void byNodeFillsTheMissingValues() {
+        Map<String, Integer> values = new HashMap<>();
+        values.put("b", 3);
+        values.put("d", 5);
+
+        assertArrayEquals(new double[]{-1, 3, -1}, AuthorAggregation.byNode(new String[]{"a", "b", "c"}, values, -1), 0);
+    }
+}
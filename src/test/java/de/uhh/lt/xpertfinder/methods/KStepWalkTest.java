@@ -0,0 +1,103 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.model.graph.Authorship;
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The k-step walk over the transition arrays must give the scores of the walk over the graph maps.
+ */
+public class KStepWalkTest {
+
+    private static final int[] KS = {1, 2, 3, 7, 15};
+
+    private final ExpertTopic expertTopic = TopicFixture.topic();
+
+    @Test
+    public void singleRunsMatchTheMapWalk() {
+        KStepMethod method = new KStepMethod();
+        for(int k : KS) {
+            KStepMethod.KStepRequest request = method.getRequestObject();
+            request.setK(k);
+
+            ExpertFindingResult result = method.findExperts(request, expertTopic);
+            assertWalk("k " + k, k, result);
+        }
+    }
+
+    @Test
+    public void severalKsInOneRunMatchTheMapWalk() {
+        KStepMethod method = new KStepMethod();
+        List<KStepMethod.KStepRequest> requests = new ArrayList<>();
+        // not sorted, with a repeated k
+        for(int k : new int[]{7, 1, 15, 3, 2, 7}) {
+            KStepMethod.KStepRequest request = method.getRequestObject();
+            request.setK(k);
+            requests.add(request);
+        }
+
+        List<ExpertFindingResult> results = method.findExperts(requests, expertTopic);
+        assertEquals(requests.size(), results.size());
+        for(int r = 0; r < requests.size(); r++) {
+            int k = requests.get(r).getK();
+            assertWalk("k " + k, k, results.get(r));
+            assertEquals("k " + k, k - 1, results.get(r).getIterations());
+        }
+    }
+
+    private void assertWalk(String message, int k, ExpertFindingResult result) {
+        Map<String, Double>[] expected = mapWalk(expertTopic.getGraph(), expertTopic.getDocumentRelevance(), k);
+        Graph graph = expertTopic.getGraph();
+        TopicFixture.assertScores(message + " documents", graph.createDocumentRanking(expected[0]), result.getDocumentRanking());
+        TopicFixture.assertScores(message + " authors", graph.createAuthorRanking(expected[1]), result.getAuthorRanking());
+    }
+
+    /**
+     * The walk as KStepMethod computed it on the maps of the graph, k - 1 steps from the document relevance.
+     * @return the document and the author scores
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double>[] mapWalk(Graph graph, Map<String, Double> documentRelevance, int k) {
+        Map<String, Double> pd = new HashMap<>();
+        Map<String, Double> pca = new HashMap<>();
+        for(String doc : graph.getDocs())
+            pd.put(doc, documentRelevance.get(doc));
+        for(String author : graph.getAuthors())
+            pca.put(author, 0d);
+
+        for(int i = 1; i < k; i++) {
+            Map<String, Double> nextPd = new HashMap<>();
+            for(String doc : graph.getDocs()) {
+                double score = pd.get(doc) * documentRelevance.get(doc);
+                if(graph.getDocumentAuthorNeighbors().containsKey(doc)) {
+                    for(Authorship authorship : graph.getDocumentAuthorNeighbors().get(doc))
+                        score += pca.get(authorship.getAuthor()) / graph.getAuthorDocumentNeighbors().get(authorship.getAuthor()).size();
+                }
+                nextPd.put(doc, score);
+            }
+
+            Map<String, Double> nextPca = new HashMap<>();
+            for(String author : graph.getAuthors()) {
+                double score = 0;
+                if(graph.getAuthorDocumentNeighbors().containsKey(author)) {
+                    for(String doc : graph.getAuthorDocumentNeighbors().get(author))
+                        score += (1 - documentRelevance.get(doc)) / graph.getDocumentAuthorNeighbors().get(doc).size() * pd.get(doc);
+                }
+                nextPca.put(author, score);
+            }
+
+            pd = nextPd;
+            pca = nextPca;
+        }
+        return new Map[]{pd, pca};
+    }
+}
@@ -0,0 +1,94 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.finder.ExpertFindingResult;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.SearchProgress;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A grid of the infinite random walks must give every setting the scores and iterations of a run of its own.
+ */
+public class MultiParameterWalkTest {
+
+    // lambda, md, mca
+    private static final double[][] SETTINGS = {{0.1, 0.5, 0.25}, {0.3, 0.2, 0.6}, {0.6, 0.9, 0.1}, {0.1, 0, 0}};
+
+    private final ExpertTopic expertTopic = TopicFixture.topic();
+
+    @Test
+    public void fullGridMatchesSingleRuns() {
+        InfiniteRandomFullMethod method = new InfiniteRandomFullMethod();
+        List<InfiniteRandomFullMethod.InfiniteRandomFullRequest> requests = new ArrayList<>();
+        for(double[] setting : SETTINGS) {
+            InfiniteRandomFullMethod.InfiniteRandomFullRequest request = method.getRequestObject();
+            request.setLambda(setting[0]);
+            request.setMd(setting[1]);
+            request.setMca(setting[2]);
+            requests.add(request);
+        }
+
+        List<ExpertFindingResult> grid = method.findExperts(requests, expertTopic);
+        assertEquals(requests.size(), grid.size());
+        for(int s = 0; s < requests.size(); s++) {
+            InfiniteRandomFullMethod.InfiniteRandomFullRequest request = requests.get(s);
+            SearchProgress progress = new SearchProgress(null);
+            ExpertFindingResult single = progress.call(() -> method.findExperts(request, expertTopic));
+            assertMatches("setting " + s, single, progress.getIteration(), grid.get(s));
+        }
+    }
+
+    @Test
+    public void weightedGridMatchesSingleRuns() {
+        InfiniteRandomWeightedMethod method = new InfiniteRandomWeightedMethod();
+        List<InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest> requests = new ArrayList<>();
+        for(double[] setting : SETTINGS) {
+            InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest request = method.getRequestObject();
+            request.setLambda(setting[0]);
+            request.setMd(setting[1]);
+            request.setMca(setting[2]);
+            requests.add(request);
+        }
+
+        List<ExpertFindingResult> grid = method.findExperts(requests, expertTopic);
+        assertEquals(requests.size(), grid.size());
+        for(int s = 0; s < requests.size(); s++) {
+            InfiniteRandomWeightedMethod.InfiniteRandomWeightedRequest request = requests.get(s);
+            SearchProgress progress = new SearchProgress(null);
+            ExpertFindingResult single = progress.call(() -> method.findExperts(request, expertTopic));
+            assertMatches("setting " + s, single, progress.getIteration(), grid.get(s));
+        }
+    }
+
+    @Test
+    public void gridStopsEverySettingLikeItsSingleRun() {
+        InfiniteRandomFullMethod method = new InfiniteRandomFullMethod();
+        List<InfiniteRandomFullMethod.InfiniteRandomFullRequest> requests = new ArrayList<>();
+        for(int stableIterations : new int[]{0, 3, 5}) {
+            InfiniteRandomFullMethod.InfiniteRandomFullRequest request = method.getRequestObject();
+            request.setResults(10);
+            request.setStableIterations(stableIterations);
+            requests.add(request);
+        }
+
+        List<ExpertFindingResult> grid = method.findExperts(requests, expertTopic);
+        for(int s = 0; s < requests.size(); s++) {
+            InfiniteRandomFullMethod.InfiniteRandomFullRequest request = requests.get(s);
+            SearchProgress progress = new SearchProgress(null);
+            ExpertFindingResult single = progress.call(() -> method.findExperts(request, expertTopic));
+            assertMatches("stable iterations " + request.getStableIterations(), single, progress.getIteration(), grid.get(s));
+            assertEquals(single.getSavedIterations(), grid.get(s).getSavedIterations());
+        }
+    }
+
+    private void assertMatches(String message, ExpertFindingResult single, int iterations, ExpertFindingResult grid) {
+        assertEquals(message, iterations, grid.getIterations());
+        // the single runs add up in the log space
+        TopicFixture.assertScores(message + " authors", single.getAuthorRanking(), grid.getAuthorRanking());
+        TopicFixture.assertScores(message + " documents", single.getDocumentRanking(), grid.getDocumentRanking());
+    }
+}
@@ -0,0 +1,111 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.model.graph.Graph;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TopKStopTest {
+
+    @Test
+    public void stopsOnceTheOrderWasKept() {
+        TopKStop stop = TopKStop.create(2, 2, Double.NaN, 1);
+
+        assertFalse(stop.stop(new double[]{3, 2, 1}, 1));
+        assertFalse(stop.stop(new double[]{3.1, 2.1, 1}, 1));
+        // a change below the top 2 does not matter
+        assertTrue(stop.stop(new double[]{3.2, 2.2, 0.5}, 1));
+    }
+
+    @Test
+    public void changedOrderStartsOver() {
+        TopKStop stop = TopKStop.create(2, 1, Double.NaN, 1);
+
+        assertFalse(stop.stop(new double[]{3, 2, 1}, 1));
+        assertFalse(stop.stop(new double[]{2, 3, 1}, 1));
+        assertTrue(stop.stop(new double[]{2, 3, 1}, 1));
+    }
+
+    @Test
+    public void stopsOnceTheGapsExceedTheChangeToCome() {
+        // c = 0.5, the change still to come is the change of the last iteration
+        TopKStop stop = TopKStop.create(2, 100, 0.5, 1);
+        // the gaps 5 and 4 to the third author are not more than twice 2
+        assertFalse(stop.stop(new double[]{10, 5, 1, 0}, 2));
+        // but more than twice 1.9, without any stable iteration
+        assertTrue(TopKStop.create(2, 100, 0.5, 1).stop(new double[]{10, 5, 1, 0}, 1.9));
+        // c = 0.8 leaves four times the change to come
+        assertFalse(TopKStop.create(2, 100, 0.8, 1).stop(new double[]{10, 5, 1, 0}, 1));
+        assertTrue(TopKStop.create(2, 100, 0.8, 1).stop(new double[]{10, 5, 1, 0}, 0.45));
+    }
+
+    @Test
+    public void noGapsWithoutContraction() {
+        assertFalse(TopKStop.create(2, 100, 1, 1).stop(new double[]{10, 5, 1, 0}, 0));
+        assertFalse(TopKStop.create(2, 100, Double.NaN, 1).stop(new double[]{10, 5, 1, 0}, 0));
+        assertFalse(TopKStop.create(2, 100, 0.5, TopKStop.documentWeight(1, 0.5)).isBounded());
+    }
+
+    @Test
+    public void documentWeightOfTheFullWalk() {
+        assertEquals(1.5, TopKStop.documentWeight(0.5, 0.25), 1e-15);
+        assertEquals(1, TopKStop.documentWeight(0, 0), 1e-15);
+        assertTrue(Double.isNaN(TopKStop.documentWeight(1, 0.25)));
+    }
+
+    @Test
+    public void disabledWithoutResultsOrStableIterations() {
+        assertFalse(TopKStop.create(0, 10, 0.5, 1).isEnabled());
+        assertFalse(TopKStop.create(10, 0, 0.5, 1).isEnabled());
+        assertFalse(TopKStop.create(10, 0, 0.5, 1).stop(new double[]{10, 5, 1, 0}, 0));
+    }
+
+    @Test
+    public void mapWalksAddTheWeightedChangeOfTheDocuments() {
+        Graph graph = TopicFixture.create(100, 42).getGraph();
+        int documents = graph.getDocumentNodes().length;
+        int authors = graph.getAuthorNodes().length;
+
+        // authors 1 apart, the change of the first iteration is far too large
+        TopKStop weighted = TopKStop.create(3, 100, 0.5, 2);
+        TopKStop unweighted = TopKStop.create(3, 100, 0.5, 0);
+        for(TopKStop stop : new TopKStop[]{weighted, unweighted}) {
+            stop.start(graph, new HashMap<>(), new HashMap<>());
+            for(int doc = 0; doc < documents; doc++)
+                stop.document(doc, 0);
+            for(int author = 0; author < authors; author++)
+                stop.author(author, authors - author);
+            assertFalse(stop.stop());
+        }
+
+        // the top author moves by 0.1 and one document by 0.3: 0.1 + 2 * 0.3 = 0.7 is more than half of the gap 1
+        for(TopKStop stop : new TopKStop[]{weighted, unweighted}) {
+            stop.document(0, 0.3);
+            for(int doc = 1; doc < documents; doc++)
+                stop.document(doc, 0);
+            stop.author(0, authors + 0.1);
+            for(int author = 1; author < authors; author++)
+                stop.author(author, authors - author);
+        }
+        assertFalse(weighted.stop());
+        assertTrue(unweighted.stop());
+    }
+
+    @Test
+    public void remainingIterationsShrinkAtTheObservedRate() {
+        TopKStop stop = TopKStop.create(2, 100, 0.25, 1);
+        assertEquals(0, stop.remainingIterations(0.05, 0.1, 10, 500));
+        // no rate yet, c = 0.25: 0.25^2 < 0.1
+        assertEquals(2, stop.remainingIterations(1, 0.1, 10, 500));
+
+        stop.stop(new double[]{3, 2, 1}, 1);
+        stop.stop(new double[]{3, 2, 1}, 0.5);
+        // the change halved: 0.5^4 < 0.1
+        assertEquals(4, stop.remainingIterations(1, 0.1, 10, 500));
+        assertEquals(2, stop.remainingIterations(1, 0.1, 497, 500));
+    }
+}
@@ -0,0 +1,52 @@
+package de.uhh.lt.xpertfinder.methods;
+
+import de.uhh.lt.xpertfinder.dao.SyntheticAanDao;
+import de.uhh.lt.xpertfinder.dao.SyntheticCorpus;
+import de.uhh.lt.xpertfinder.dao.SyntheticGraphDao;
+import de.uhh.lt.xpertfinder.finder.ExpertTopic;
+import de.uhh.lt.xpertfinder.finder.Ranking;
+import de.uhh.lt.xpertfinder.model.graph.GraphOptions;
+import de.uhh.lt.xpertfinder.service.SyntheticElasticSearchService;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A small topic with all relations and weights, selected from a synthetic corpus like the GraphFixture of the
+ * benchmarks, so the methods can be compared without MySQL and elasticsearch.
+ */
+class TopicFixture {
+
+    // scores computed in a different order agree up to rounding, relative to the largest expected score
+    static final double TOLERANCE = 1e-9;
+
+    private static ExpertTopic topic;
+
+    private TopicFixture() {
+    }
+
+    static ExpertTopic create(int documents, long seed) {
+        SyntheticCorpus corpus = new SyntheticCorpus(documents * 2, seed);
+        ExpertTopic expertTopic = new ExpertTopic(new SyntheticElasticSearchService(corpus, "aan"), new SyntheticAanDao(corpus), new SyntheticGraphDao(corpus));
+        expertTopic.setup("language", 0, 3000, false, documents, true, true, true, new GraphOptions(true, true, true, true, true));
+        return expertTopic;
+    }
+
+    /**
+     * @return the topic of 300 documents the method tests share, topics are not changed after setup
+     */
+    static synchronized ExpertTopic topic() {
+        if(topic == null)
+            topic = create(300, 42);
+        return topic;
+    }
+
+    /**
+     * Asserts that the same nodes are ranked and every node has the expected score within the tolerance.
+     */
+    static void assertScores(String message, Ranking expected, Ranking actual) {
+        assertEquals(message, expected.size(), actual.size());
+        double delta = TOLERANCE * Math.abs(expected.getMaxScore());
+        for(String node : expected.getNodes())
+            assertEquals(message + " " + node, expected.getScore(node, Double.NaN), actual.getScore(node, Double.NaN), delta);
+    }
+}
@@ -0,0 +1,75 @@
+package de.uhh.lt.xpertfinder.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class EvaluationUtilsTest {
+
+    private static final double DELTA = 1e-12;
+
+    // a, c and f are relevant, f is not ranked, e is judged but not relevant
+    private static final List<String> RANKING = Arrays.asList("a", "b", "c", "d", "e");
+
+    private static Map<String, Integer> grades() {
+        Map<String, Integer> grades = new HashMap<>();
+        grades.put("a", 2);
+        grades.put("c", 1);
+        grades.put("e", 0);
+        grades.put("f", 3);
+        return grades;
+    }
+
+    @Test
+    public void precisionCountsTheRelevantNodesOfTheTopK() {
+        assertEquals(1.0, EvaluationUtils.precision(RANKING, grades(), 1), DELTA);
+        assertEquals(2.0 / 3, EvaluationUtils.precision(RANKING, grades(), 3), DELTA);
+        assertEquals(2.0 / 5, EvaluationUtils.precision(RANKING, grades(), 5), DELTA);
+        // a ranking shorter than k still divides by k
+        assertEquals(2.0 / 10, EvaluationUtils.precision(RANKING, grades(), 10), DELTA);
+        assertEquals(0.0, EvaluationUtils.precision(RANKING, grades(), 0), DELTA);
+    }
+
+    @Test
+    public void recallDividesByAllRelevantNodes() {
+        assertEquals(1.0 / 3, EvaluationUtils.recall(RANKING, grades(), 1), DELTA);
+        assertEquals(2.0 / 3, EvaluationUtils.recall(RANKING, grades(), 5), DELTA);
+        assertEquals(0.0, EvaluationUtils.recall(RANKING, Collections.singletonMap("a", 0), 5), DELTA);
+    }
+
+    @Test
+    public void averagePrecisionCountsUnrankedRelevantNodesAsMissed() {
+        // (1/1 + 2/3) / 3 relevant
+        assertEquals(5.0 / 9, EvaluationUtils.averagePrecision(RANKING, grades()), DELTA);
+        assertEquals(1.0, EvaluationUtils.averagePrecision(Arrays.asList("f", "a", "c"), grades()), DELTA);
+        assertEquals(0.0, EvaluationUtils.averagePrecision(RANKING, new HashMap<>()), DELTA);
+    }
+
+    @Test
+    public void reciprocalRankOfTheFirstRelevantNode() {
+        assertEquals(1.0, EvaluationUtils.reciprocalRank(RANKING, grades()), DELTA);
+        assertEquals(1.0 / 2, EvaluationUtils.reciprocalRank(Arrays.asList("b", "c"), grades()), DELTA);
+        assertEquals(0.0, EvaluationUtils.reciprocalRank(Arrays.asList("b", "d"), grades()), DELTA);
+    }
+
+    @Test
+    public void ndcgUsesTheGradesAsExponentialGains() {
+        double log2of3 = Math.log(3) / Math.log(2);
+
+        // gains 3, 0, 1 against the ideal 7, 3, 1
+        double dcg = 3 + 0 / log2of3 + 1.0 / 2;
+        double idcg = 7 + 3 / log2of3 + 1.0 / 2;
+        assertEquals(dcg / idcg, EvaluationUtils.ndcg(RANKING, grades(), 3), DELTA);
+
+        // only the ideal top 1 counts
+        assertEquals(3.0 / 7, EvaluationUtils.ndcg(RANKING, grades(), 1), DELTA);
+        assertEquals(1.0, EvaluationUtils.ndcg(Arrays.asList("f", "a", "c"), grades(), 3), DELTA);
+        assertEquals(0.0, EvaluationUtils.ndcg(RANKING, Collections.singletonMap("a", 0), 3), DELTA);
+    }
+}
@@ -0,0 +1,119 @@
+# encoding=utf8
+#
+# Measures the latency of the AAN queries before and after the id migration
+# (docker/scripts/mysql/mysql_upgrade_ids.sql).
+#
+# The "before" queries are the string based queries the application used previously,
+# the "after" queries are the ones AanDao, StatisticDao and JdbcGraphDao use now.
+# Both are executed on the same random sample of documents and authors of a migrated database.
+# Where a "before" query could profit from one of the new indexes, the index is ignored with an
+# index hint, so the "before" numbers match the plans of the old schema. The old join queries may
+# still pick up a new index, so their speedup is a lower bound.
+#
+# Usage: python benchmark_aan_queries.py -d 1000 -r 5
+#
+import time
+import random
+from argparse import ArgumentParser
+import mysql.connector
+
+mydb = mysql.connector.connect(
+  host="localhost",
+  user="root",
+  passwd="root",
+  database="xpertfinder"
+)
+
+mycursor = mydb.cursor()
+
+# name: (before, after, parameter type)
+QUERIES = [
+    ("publications of documents",
+     "SELECT p.author, p.document FROM publications_aan p IGNORE INDEX (idx_publications_document) WHERE p.document IN ({files})",
+     "SELECT p.author, p.document FROM publications_aan p WHERE p.document IN ({files})",
+     "files"),
+    ("citations between documents",
+     "SELECT c.outgoing_file, c.incoming_file FROM citations_aan AS c WHERE c.outgoing_file IN ({files}) AND c.incoming_file IN ({files})",
+     "SELECT c.outgoing_file, c.incoming_file FROM citations_aan AS c WHERE c.incoming_file IN ({files})",
+     "files"),
+    ("local collaborations",
+     "SELECT a1.name as name1, a2.name as name2, COUNT(*) as count FROM publications_aan as p1, authors_aan as a1, publications_aan as p2, authors_aan as a2 WHERE p1.author = a1.name AND p2.author = a2.name AND p1.document = p2.document AND a1.id != a2.id AND p1.document IN ({files}) GROUP BY a1.name, a2.name",
+     "SELECT a1.name as name1, a2.name as name2, COUNT(*) as count FROM publications_aan as p1 JOIN publications_aan as p2 ON p2.document_id = p1.document_id AND p2.author_id != p1.author_id JOIN authors_aan as a1 ON a1.id = p1.author_id JOIN authors_aan as a2 ON a2.id = p2.author_id WHERE p1.document IN ({files}) GROUP BY a1.id, a2.id",
+     "files"),
+    ("document years",
+     "SELECT d.file, d.year FROM documents_aan as d IGNORE INDEX (idx_documents_file_year) WHERE d.file IN ({files})",
+     "SELECT d.file, d.year FROM documents_aan as d WHERE d.file IN ({files})",
+     "files"),
+    ("authors of documents",
+     "SELECT pa.document, pa.author, a.id FROM documents_aan as d JOIN publications_aan pa ON d.file = pa.document JOIN authors_aan a ON pa.author = a.name WHERE d.file IN ({files})",
+     "SELECT pa.document, pa.author, pa.author_id FROM publications_aan pa WHERE pa.document IN ({files})",
+     "files"),
+    ("all document citations",
+     "SELECT p.author, sub.file, sub.count FROM (SELECT incoming_file as file, COUNT(incoming_file) as count FROM citations_aan GROUP BY incoming_file) as sub JOIN publications_aan as p ON sub.file = p.document",
+     "SELECT p.author, p.document, sub.count FROM (SELECT c.incoming_id, COUNT(*) as count FROM citations_aan AS c GROUP BY c.incoming_id) as sub JOIN publications_aan as p ON p.document_id = sub.incoming_id",
+     None),
+    ("citation count per author",
+     "SELECT p.author, COUNT(p.author) as coun FROM publications_aan as p JOIN citations_aan as c ON p.document = c.incoming_file GROUP BY p.author",
+     "SELECT p.author, COUNT(p.author) as coun FROM publications_aan as p JOIN citations_aan as c ON c.incoming_id = p.document_id GROUP BY p.author",
+     None),
+    ("publications of author",
+     "SELECT d.file, d.title, d.year, d.venue FROM authors_aan a JOIN publications_aan ON a.name = publications_aan.author JOIN documents_aan d ON publications_aan.document = d.file WHERE a.id = {author} GROUP BY d.file, d.title, d.year, d.venue",
+     "SELECT d.file, d.title, d.year, d.venue FROM publications_aan AS p JOIN documents_aan d ON d.id = p.document_id WHERE p.author_id = {author}",
+     "author"),
+    ("citations per year of author",
+     "SELECT d.year, COUNT(*) AS citations FROM authors_aan a JOIN publications_aan AS p ON a.name = p.author JOIN documents_aan d ON p.document = d.file JOIN citations_aan AS c ON d.file = c.incoming_file WHERE a.id = {author} GROUP BY d.year ORDER BY year ASC",
+     "SELECT d.year, COUNT(*) AS citations FROM publications_aan AS p JOIN documents_aan d ON d.id = p.document_id JOIN citations_aan AS c ON c.incoming_id = p.document_id WHERE p.author_id = {author} GROUP BY d.year ORDER BY d.year ASC",
+     "author"),
+]
+
+
+def sample(sql, n):
+    mycursor.execute(sql)
+    values = [row[0] for row in mycursor.fetchall()]
+    random.shuffle(values)
+    return values[:n]
+
+
+def run(sql):
+    start = time.perf_counter()
+    mycursor.execute(sql)
+    mycursor.fetchall()
+    return (time.perf_counter() - start) * 1000.0
+
+
+def percentile(values, p):
+    values = sorted(values)
+    return values[min(len(values) - 1, int(round(p * (len(values) - 1))))]
+
+
+def main():
+    parser = ArgumentParser()
+    parser.add_argument("-d", "--documents", dest="documents", type=int, default=1000, help="number of sampled documents")
+    parser.add_argument("-r", "--repetitions", dest="repetitions", type=int, default=5, help="runs per query")
+    args = parser.parse_args()
+
+    files = sample("SELECT d.file FROM documents_aan d WHERE d.file IS NOT NULL", args.documents)
+    authors = sample("SELECT a.id FROM authors_aan a", args.repetitions)
+    file_list = ",".join("'" + f.replace("'", "''") + "'" for f in files)
+
+    print("%-30s %12s %12s %12s %12s %8s" % ("query", "before p50", "before p95", "after p50", "after p95", "speedup"))
+    for name, before, after, parameter in QUERIES:
+        timings = []
+        for sql in (before, after):
+            latencies = []
+            for i in range(args.repetitions):
+                if parameter == "files":
+                    latencies.append(run(sql.format(files=file_list)))
+                elif parameter == "author":
+                    latencies.append(run(sql.format(author=authors[i % len(authors)])))
+                else:
+                    latencies.append(run(sql))
+            timings.append(latencies)
+
+        before_p50 = percentile(timings[0], 0.5)
+        after_p50 = percentile(timings[1], 0.5)
+        print("%-30s %10.1fms %10.1fms %10.1fms %10.1fms %7.1fx" % (name, before_p50, percentile(timings[0], 0.95), after_p50, percentile(timings[1], 0.95), before_p50 / max(after_p50, 0.001)))
+
+
+if __name__ == "__main__":
+    main()
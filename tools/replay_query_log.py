@@ -0,0 +1,179 @@
+# encoding=utf8
+#
+# Replays a query log of LT Expertfinder (querylog.file in application.properties) against a running
+# instance and reports latency percentiles, throughput and error rates per endpoint.
+#
+# The queries are sent to the endpoint they were logged at. Searches of the pages are sent to
+# POST /api/experts, the pages need a session, and are reported as e.g. "POST /postExpertQuery (api)".
+# Jobs are followed until they are done, their latency includes the time waiting for a job thread.
+#
+# For load tests without MySQL and Elasticsearch start the instance with the synthetic profile:
+#   java -jar xpertfinder.jar --spring.profiles.active=synthetic --synthetic.documents=180000
+#
+# Usage: python replay_query_log.py -l queries.log -c 8
+#        python replay_query_log.py -l queries.log -s 2 (twice the recorded pace)
+#
+import json
+import time
+import threading
+import urllib.error
+import urllib.parse
+import urllib.request
+from argparse import ArgumentParser
+from collections import defaultdict
+from concurrent.futures import ThreadPoolExecutor
+
+PAGES = ("POST /postExpertQuery", "GET /searchTopic")
+JOB_POLL = 0.1
+
+
+class Result:
+    def __init__(self, endpoint, millis, status, degraded=False):
+        self.endpoint = endpoint
+        self.millis = millis
+        self.status = status
+        self.degraded = degraded
+
+
+def read_log(path, limit):
+    entries = []
+    with open(path, encoding="utf8") as log:
+        for line in log:
+            line = line.strip()
+            if not line:
+                continue
+            entries.append(json.loads(line))
+            if 0 < limit <= len(entries):
+                break
+    return entries
+
+
+def request(url, method="GET", body=None, timeout=600):
+    data = json.dumps(body).encode("utf8") if body is not None else None
+    req = urllib.request.Request(url, data=data, method=method)
+    if data is not None:
+        req.add_header("Content-Type", "application/json")
+    try:
+        with urllib.request.urlopen(req, timeout=timeout) as response:
+            return response.status, json.loads(response.read().decode("utf8") or "null")
+    except urllib.error.HTTPError as e:
+        return e.code, None
+
+
+def get_params(query):
+    params = {"topic": query["topic"]}
+    for key in ("method", "yearFrom", "yearTo", "includeTitle"):
+        if key in query:
+            params[key] = str(query[key]).lower() if isinstance(query[key], bool) else query[key]
+    for key in ("documents", "results"):
+        if key in (query.get("request") or {}):
+            params[key] = int(query["request"][key])
+    return urllib.parse.urlencode(params)
+
+
+def replay(base, entry, timeout):
+    endpoint = entry["endpoint"]
+    query = entry["query"]
+    label = endpoint + " (api)" if endpoint in PAGES else endpoint
+
+    start = time.perf_counter()
+    try:
+        if endpoint == "GET /api/experts":
+            status, body = request(base + "/api/experts?" + get_params(query), timeout=timeout)
+        elif endpoint == "POST /api/jobs":
+            status, body = request(base + "/api/jobs", "POST", query, timeout)
+            while status < 400 and body is not None and body.get("finished") is None:
+                time.sleep(JOB_POLL)
+                status, body = request(base + "/api/jobs/" + body["id"], timeout=timeout)
+            if status < 400 and body is not None and body.get("error"):
+                status = 500
+            body = body.get("result") if status < 400 and body is not None else None
+        else:
+            status, body = request(base + "/api/experts", "POST", query, timeout)
+    except Exception:
+        status, body = 0, None
+
+    degraded = status < 400 and isinstance(body, dict) and bool(body.get("degraded"))
+    return Result(label, (time.perf_counter() - start) * 1000.0, status, degraded)
+
+
+def percentile(values, p):
+    values = sorted(values)
+    return values[min(len(values) - 1, int(round(p * (len(values) - 1))))]
+
+
+def report(results, seconds):
+    by_endpoint = defaultdict(list)
+    for result in results:
+        by_endpoint[result.endpoint].append(result)
+    by_endpoint["all"] = results
+
+    print("%-32s %8s %8s %8s %9s %10s %10s %10s %10s" % ("endpoint", "queries", "errors", "degraded", "q/s", "p50", "p90", "p99", "max"))
+    for endpoint, replayed in sorted(by_endpoint.items(), key=lambda item: (item[0] == "all", item[0])):
+        errors = [r for r in replayed if r.status == 0 or r.status >= 400]
+        latencies = [r.millis for r in replayed if 0 < r.status < 400] or [0.0]
+        print("%-32s %8d %7.1f%% %7.1f%% %9.2f %8.1fms %8.1fms %8.1fms %8.1fms" % (
+            endpoint, len(replayed), 100.0 * len(errors) / len(replayed),
+            100.0 * sum(r.degraded for r in replayed) / len(replayed), len(replayed) / seconds,
+            percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99), max(latencies)))
+
+    statuses = defaultdict(int)
+    for result in results:
+        if result.status == 0 or result.status >= 400:
+            statuses[result.status] += 1
+    if statuses:
+        print("errors by status: " + ", ".join("%s: %d" % ("no response" if s == 0 else s, n) for s, n in sorted(statuses.items())))
+
+
+def main():
+    parser = ArgumentParser()
+    parser.add_argument("-l", "--log", dest="log", required=True, help="query log written by the application")
+    parser.add_argument("-u", "--url", dest="url", default="http://localhost:8080/lt-expertfinder", help="base url of the instance")
+    parser.add_argument("-c", "--concurrency", dest="concurrency", type=int, default=4, help="queries sent at the same time")
+    parser.add_argument("-s", "--speed", dest="speed", type=float, default=0, help="replay at this multiple of the recorded pace, 0 sends the next query as soon as a slot is free")
+    parser.add_argument("-n", "--limit", dest="limit", type=int, default=0, help="replay only the first queries of the log, 0 for all")
+    parser.add_argument("-r", "--repeat", dest="repeat", type=int, default=1, help="replay the log this many times")
+    parser.add_argument("-t", "--timeout", dest="timeout", type=float, default=600, help="seconds to wait for a response")
+    args = parser.parse_args()
+
+    entries = read_log(args.log, args.limit)
+    if not entries:
+        print("The log contains no queries")
+        return
+
+    base = args.url.rstrip("/")
+    first = entries[0]["time"]
+    # repeated logs are replayed back to back, each at the recorded pace
+    span = entries[-1]["time"] - first + 1
+    results = []
+    lock = threading.Lock()
+    # at most concurrency queries are sent or waiting for a slot, so a slow instance slows the replay down
+    slots = threading.Semaphore(max(1, args.concurrency))
+
+    def run(entry):
+        try:
+            result = replay(base, entry, args.timeout)
+            with lock:
+                results.append(result)
+        finally:
+            slots.release()
+
+    print("Replaying %d queries %d times against %s with %d concurrent queries" % (len(entries), max(1, args.repeat), base, args.concurrency))
+    start = time.perf_counter()
+    with ThreadPoolExecutor(max_workers=max(1, args.concurrency)) as executor:
+        for repetition in range(max(1, args.repeat)):
+            for entry in entries:
+                if args.speed > 0:
+                    offset = repetition * span + entry["time"] - first
+                    delay = offset / 1000.0 / args.speed - (time.perf_counter() - start)
+                    if delay > 0:
+                        time.sleep(delay)
+                slots.acquire()
+                executor.submit(run, entry)
+    seconds = time.perf_counter() - start
+
+    report(results, seconds)
+
+
+if __name__ == "__main__":
+    main()